@@ -8,11 +8,14 @@ import org.gradle.api.JavaVersion
 import org.gradle.api.NamedDomainObjectContainer
 import org.gradle.api.Plugin
 import org.gradle.api.Project
+import org.gradle.api.artifacts.VersionCatalogsExtension
 import org.gradle.api.artifacts.dsl.RepositoryHandler
 import org.gradle.api.artifacts.repositories.MavenArtifactRepository
 import org.gradle.api.plugins.JavaPluginExtension
 import org.gradle.api.provider.Property
 import org.gradle.api.tasks.Copy
+import org.gradle.api.tasks.JavaExec
+import org.gradle.api.tasks.SourceSetContainer
 import org.gradle.internal.extensions.stdlib.toDefaultLowerCase
 import org.gradle.jvm.tasks.Jar
 import org.gradle.kotlin.dsl.*
@@ -95,6 +98,7 @@ abstract class ModPlatformPlugin @Inject constructor() : Plugin<Project> {
 		configureIdea()
 		configureProcessResources(isFabric, isNeoForge, isForge, modId, "$modVersion$channelTag", mcVersion, extension, extension.requiredJava.get())
 		configureJava(stonecutter, extension.requiredJava.get())
+		configureBenchmarks()
 		registerBuildAndCollectTask(extension, "$modVersion$channelTag")
 		configurePublishing(extension, loader, stonecutter, "$modVersion$channelTag", channelTag, version.toString())
 	}
@@ -287,6 +291,56 @@ abstract class ModPlatformPlugin @Inject constructor() : Plugin<Project> {
 		}
 	}
 
+	/**
+	 * JMH source set shared by every version: sources live in the root `src/jmh/java` and compile
+	 * against this version's generated main sources. Run with `./gradlew :<version>:jmh`,
+	 * optionally `-Pjmh.include=<regex>` and `-Pjmh.args="..."`. The same source set holds the
+	 * headless vote simulator, run with `./gradlew :<version>:voteSim -Psim.args="..."`.
+	 */
+	private fun Project.configureBenchmarks() {
+		val sourceSets = extensions.getByType<SourceSetContainer>()
+		val main = sourceSets.getByName("main")
+		val jmh = sourceSets.create("jmh") {
+			java.setSrcDirs(listOf(rootProject.file("src/jmh/java")))
+			resources.setSrcDirs(emptyList<Any>())
+			compileClasspath += main.output + main.compileClasspath
+			runtimeClasspath += output + compileClasspath + main.runtimeClasspath
+		}
+
+		val libs = extensions.getByType<VersionCatalogsExtension>().named("libs")
+		dependencies {
+			add(jmh.implementationConfigurationName, libs.findLibrary("jmh-core").get())
+			add(jmh.annotationProcessorConfigurationName, libs.findLibrary("jmh-generator-annprocess").get())
+		}
+
+		val resultFile = layout.buildDirectory.file("reports/jmh/results.json")
+		tasks.register<JavaExec>("jmh") {
+			group = "verification"
+			description = "Runs the JMH benchmarks against this version."
+			dependsOn(tasks.named(jmh.classesTaskName))
+			classpath = jmh.runtimeClasspath
+			mainClass.set("org.openjdk.jmh.Main")
+			outputs.file(resultFile)
+			outputs.upToDateWhen { false }
+
+			val include = prop("jmh.include")
+			val extraArgs = prop("jmh.args").split(' ').filter(String::isNotBlank)
+			doFirst { resultFile.get().asFile.parentFile.mkdirs() }
+			args(listOfNotNull(include.ifBlank { null }) + extraArgs +
+				listOf("-rf", "json", "-rff", resultFile.get().asFile.absolutePath))
+		}
+
+		tasks.register<JavaExec>("voteSim") {
+			group = "verification"
+			description = "Runs the headless vote storm simulator against this version."
+			dependsOn(tasks.named(jmh.classesTaskName))
+			classpath = jmh.runtimeClasspath
+			mainClass.set("sierra.thing.votekick.sim.VoteStormSimulator")
+			outputs.upToDateWhen { false }
+			args(prop("sim.args").split(' ').filter(String::isNotBlank))
+		}
+	}
+
 	private fun Project.configureIdea() {
 		extensions.configure<IdeaModel>("idea") {
 			module {
@@ -0,0 +1,14 @@
+package net.luckperms.api;
+
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.model.user.UserManager;
+
+/**
+ * Benchmark stub of the LuckPerms API, just the calls VoteKick binds.
+ * Earlier on the classpath than a real LuckPerms jar, so it wins if both are present.
+ */
+public interface LuckPerms {
+    UserManager getUserManager();
+
+    EventBus getEventBus();
+}
@@ -0,0 +1,19 @@
+package net.luckperms.api;
+
+public final class LuckPermsProvider {
+    private static LuckPerms instance;
+
+    private LuckPermsProvider() {
+    }
+
+    public static LuckPerms get() {
+        if (instance == null) {
+            throw new IllegalStateException("LuckPerms API is not loaded");
+        }
+        return instance;
+    }
+
+    public static void register(LuckPerms luckPerms) {
+        instance = luckPerms;
+    }
+}
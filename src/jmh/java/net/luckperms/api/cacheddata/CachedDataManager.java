@@ -0,0 +1,5 @@
+package net.luckperms.api.cacheddata;
+
+public interface CachedDataManager {
+    CachedPermissionData getPermissionData();
+}
@@ -0,0 +1,7 @@
+package net.luckperms.api.cacheddata;
+
+import net.luckperms.api.util.Tristate;
+
+public interface CachedPermissionData {
+    Tristate checkPermission(String permission);
+}
@@ -0,0 +1,7 @@
+package net.luckperms.api.event;
+
+import java.util.function.Consumer;
+
+public interface EventBus {
+    <T> EventSubscription<T> subscribe(Class<T> eventClass, Consumer<? super T> handler);
+}
@@ -0,0 +1,4 @@
+package net.luckperms.api.event;
+
+public interface EventSubscription<T> {
+}
@@ -0,0 +1,4 @@
+package net.luckperms.api.event.group;
+
+public interface GroupDataRecalculateEvent {
+}
@@ -0,0 +1,7 @@
+package net.luckperms.api.event.user;
+
+import net.luckperms.api.model.user.User;
+
+public interface UserDataRecalculateEvent {
+    User getUser();
+}
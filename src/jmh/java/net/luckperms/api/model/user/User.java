@@ -0,0 +1,11 @@
+package net.luckperms.api.model.user;
+
+import net.luckperms.api.cacheddata.CachedDataManager;
+
+import java.util.UUID;
+
+public interface User {
+    UUID getUniqueId();
+
+    CachedDataManager getCachedData();
+}
@@ -0,0 +1,7 @@
+package net.luckperms.api.model.user;
+
+import java.util.UUID;
+
+public interface UserManager {
+    User getUser(UUID uniqueId);
+}
@@ -0,0 +1,61 @@
+package sierra.thing.votekick;
+
+import sierra.thing.votekick.config.VoteKickConfig;
+import sierra.thing.votekick.history.VoteHistoryManager;
+import sierra.thing.votekick.protection.PlayerProtectionManager;
+import sierra.thing.votekick.util.ManualVoteClock;
+import sierra.thing.votekick.vote.VoteChatPreferences;
+import sierra.thing.votekick.vote.VoteCooldowns;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Stands in for {@link VoteKickMod#init()} outside a running game: config from the given
+ * properties, managers pointed at a throwaway directory instead of the loader's config dir,
+ * and a {@link ManualVoteClock} so nothing depends on how long a benchmark runs.
+ */
+public final class BenchmarkEnv {
+    private BenchmarkEnv() {
+    }
+
+    public static Path install(Properties props) throws IOException, ReflectiveOperationException {
+        Path dir = Files.createTempDirectory("votekick-bench");
+        setStatic("clock", new ManualVoteClock(VoteKickMod.getScheduler(), System.currentTimeMillis()));
+        setStatic("config", new VoteKickConfig(props));
+        setStatic("protectionManager", new PlayerProtectionManager(dir.toFile()));
+        setStatic("historyManager", new VoteHistoryManager(dir.toFile()));
+        setStatic("chatPreferences", new VoteChatPreferences(dir.toFile()));
+        setStatic("cooldowns", new VoteCooldowns(dir.toFile()));
+        return dir;
+    }
+
+    public static void delete(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * The clock installed by {@link #install}, to fast-forward with.
+     */
+    public static ManualVoteClock clock() {
+        return (ManualVoteClock) VoteKickMod.getClock();
+    }
+
+    private static void setStatic(String name, Object value) throws ReflectiveOperationException {
+        Field field = VoteKickMod.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(null, value);
+    }
+}
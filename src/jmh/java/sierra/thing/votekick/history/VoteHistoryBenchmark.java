@@ -0,0 +1,82 @@
+package sierra.thing.votekick.history;
+
+import org.openjdk.jmh.annotations.*;
+import sierra.thing.votekick.BenchmarkEnv;
+import sierra.thing.votekick.VoteKickMod;
+import sierra.thing.votekick.vote.VoteOutcome;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * History paging and pruning with the history full; past the cached tail pages come off disk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoteHistoryBenchmark {
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"200", "10000", "100000"})
+    int maxEntries;
+
+    private Path dir;
+    private VoteHistoryManager history;
+    private int lastPage;
+    private long now;
+    private int recorded;
+
+    @Setup
+    public void setup() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("vote_history_max_entries", Integer.toString(maxEntries));
+        dir = BenchmarkEnv.install(props);
+
+        history = VoteKickMod.getHistoryManager();
+        now = System.currentTimeMillis();
+        for (recorded = 0; recorded < maxEntries; recorded++) {
+            history.record(entry(recorded));
+        }
+        history.save();
+        lastPage = history.getMaxPages(PAGE_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        history.save();
+        BenchmarkEnv.delete(dir);
+    }
+
+    @Benchmark
+    public List<VoteHistoryEntry> firstPage() {
+        return history.getEntriesPage(1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<VoteHistoryEntry> lastPage() {
+        return history.getEntriesPage(lastPage, PAGE_SIZE);
+    }
+
+    // one vote past the cap per call, so each one drops the oldest entry and every so often a
+    // whole segment; the tick lets those segment deletes go through
+    @Benchmark
+    public int pruneAtCap() {
+        history.record(entry(recorded++));
+        history.tick();
+        return history.size();
+    }
+
+    private VoteHistoryEntry entry(int i) {
+        return new VoteHistoryEntry(now + (i - maxEntries) * 1000L,
+                "initiator" + (i % 50), UUID.randomUUID().toString(),
+                "target" + (i % 200), UUID.randomUUID().toString(),
+                "reason " + i, 4, 2, 5, 10,
+                (i & 1) == 0 ? VoteOutcome.PASSED : VoteOutcome.FAILED, null);
+    }
+}
@@ -0,0 +1,85 @@
+package sierra.thing.votekick.permissions;
+
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.cacheddata.CachedDataManager;
+import net.luckperms.api.cacheddata.CachedPermissionData;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.model.user.UserManager;
+import net.luckperms.api.util.Tristate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Permission checks against a stubbed LuckPerms: the bound method handle chain on a cache
+ * miss, and the cached lookup every other check hits.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+    private static final int NODE = 1;
+
+    private LuckPermsResolver resolver;
+    private PermissionCache cache;
+    private UUID player;
+    private long now;
+
+    @Setup
+    public void setup() throws Throwable {
+        player = UUID.randomUUID();
+        CachedPermissionData permissions = node -> node.equals("votekick.vote") ? Tristate.TRUE : Tristate.UNDEFINED;
+        User user = new User() {
+            @Override
+            public UUID getUniqueId() {
+                return player;
+            }
+
+            @Override
+            public CachedDataManager getCachedData() {
+                return () -> permissions;
+            }
+        };
+        EventBus bus = new EventBus() {
+            @Override
+            public <T> EventSubscription<T> subscribe(Class<T> eventClass, Consumer<? super T> handler) {
+                return new EventSubscription<>() {
+                };
+            }
+        };
+        LuckPermsProvider.register(new LuckPerms() {
+            @Override
+            public UserManager getUserManager() {
+                return uuid -> uuid.equals(player) ? user : null;
+            }
+
+            @Override
+            public EventBus getEventBus() {
+                return bus;
+            }
+        });
+
+        cache = new PermissionCache(4);
+        resolver = LuckPermsResolver.bind(cache::invalidate, cache::clear);
+        now = System.currentTimeMillis();
+        cache.put(player, NODE, resolver.check(player, "votekick.vote"), now);
+    }
+
+    @Benchmark
+    public Boolean resolverCheck() throws Throwable {
+        return resolver.check(player, "votekick.vote");
+    }
+
+    @Benchmark
+    public Boolean cachedCheck() {
+        return cache.has(player, NODE, now) ? cache.get(player, NODE) : null;
+    }
+}
@@ -0,0 +1,67 @@
+package sierra.thing.votekick.protection;
+
+import org.openjdk.jmh.annotations.*;
+import sierra.thing.votekick.BenchmarkEnv;
+import sierra.thing.votekick.VoteKickMod;
+
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Threshold modifier lookups for players whose kick history is full.
+ *
+ * Kick-count thresholds are set out of reach so every call falls through to the
+ * harassment window scan, the slow path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoteThresholdModifierBenchmark {
+    private static final int PLAYERS = 256;
+    private static final int KICKS_PER_PLAYER = 10;
+
+    private Path dir;
+    private PlayerProtectionManager protection;
+    private UUID[] players;
+    private UUID stranger;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("light_modifier_threshold", "1000");
+        props.setProperty("heavy_modifier_threshold", "2000");
+        dir = BenchmarkEnv.install(props);
+
+        protection = VoteKickMod.getProtectionManager();
+        stranger = UUID.randomUUID();
+        players = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+            for (int k = 0; k < KICKS_PER_PLAYER; k++) {
+                protection.recordKick(players[i], "benchmark");
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        BenchmarkEnv.delete(dir);
+    }
+
+    @Benchmark
+    public double fullHistory() {
+        UUID player = players[next++ & (PLAYERS - 1)];
+        return protection.getVoteThresholdModifier(player);
+    }
+
+    @Benchmark
+    public double unknownPlayer() {
+        return protection.getVoteThresholdModifier(stranger);
+    }
+}
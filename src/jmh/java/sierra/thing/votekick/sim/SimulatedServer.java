@@ -0,0 +1,154 @@
+package sierra.thing.votekick.sim;
+
+import net.minecraft.network.chat.Component;
+import sierra.thing.votekick.vote.port.KickExecutor;
+import sierra.thing.votekick.vote.port.MessageSink;
+import sierra.thing.votekick.vote.port.PanelSink;
+import sierra.thing.votekick.vote.port.PlayerDirectory;
+import sierra.thing.votekick.vote.port.VotePorts;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A server made of synthetic players, for running votes without a game. Every send walks its
+ * recipients like the real ports do and counts what would have gone over the wire.
+ */
+public final class SimulatedServer implements PlayerDirectory, MessageSink, PanelSink, KickExecutor {
+    private final Map<UUID, Player> players = new LinkedHashMap<>();
+    private final Collection<UUID> online = Collections.unmodifiableCollection(players.keySet());
+    private final VotePorts ports = new VotePorts(this, this, this, this);
+    private Consumer<UUID> onKick = uuid -> { };
+
+    private long chatMessages;
+    private long panelPackets;
+    private long kicks;
+
+    public VotePorts ports() {
+        return ports;
+    }
+
+    /**
+     * Called after a player was kicked and removed, e.g. to tell the engine they left.
+     */
+    public void onKick(Consumer<UUID> onKick) {
+        this.onKick = onKick;
+    }
+
+    public void join(UUID uuid, String name, Object dimension, double x, double z) {
+        players.put(uuid, new Player(name, dimension, x, z));
+    }
+
+    public void leave(UUID uuid) {
+        players.remove(uuid);
+    }
+
+    public String nameOf(UUID uuid) {
+        Player player = players.get(uuid);
+        return player == null ? null : player.name;
+    }
+
+    public int playerCount() {
+        return players.size();
+    }
+
+    public long chatMessages() {
+        return chatMessages;
+    }
+
+    public long panelPackets() {
+        return panelPackets;
+    }
+
+    public long kicks() {
+        return kicks;
+    }
+
+    public void resetCounters() {
+        chatMessages = 0;
+        panelPackets = 0;
+        kicks = 0;
+    }
+
+    @Override
+    public Collection<UUID> online() {
+        return online;
+    }
+
+    @Override
+    public boolean isOnline(UUID player) {
+        return players.containsKey(player);
+    }
+
+    @Override
+    public Object dimensionOf(UUID player) {
+        Player entry = players.get(player);
+        return entry == null ? null : entry.dimension;
+    }
+
+    @Override
+    public double distanceSq(UUID a, UUID b) {
+        Player first = players.get(a);
+        Player second = players.get(b);
+        if (first == null || second == null || !first.dimension.equals(second.dimension)) {
+            return Double.NaN;
+        }
+        double dx = first.x - second.x;
+        double dz = first.z - second.z;
+        return dx * dx + dz * dz;
+    }
+
+    @Override
+    public void broadcast(Component message) {
+        chatMessages += players.size();
+    }
+
+    @Override
+    public void send(Iterable<UUID> recipients, Component message) {
+        chatMessages += countOnline(recipients);
+    }
+
+    @Override
+    public void show(Iterable<UUID> recipients, int sessionId, String title, String subtitle, int time,
+                     int yes, int no, int needed, UUID targetUUID) {
+        panelPackets += countOnline(recipients);
+    }
+
+    @Override
+    public void update(Iterable<UUID> recipients, int sessionId, int time, int yes, int no) {
+        panelPackets += countOnline(recipients);
+    }
+
+    @Override
+    public void hide(Iterable<UUID> recipients, int sessionId) {
+        panelPackets += countOnline(recipients);
+    }
+
+    @Override
+    public boolean kick(UUID player, Component reason) {
+        if (players.remove(player) == null) {
+            return false;
+        }
+        kicks++;
+        onKick.accept(player);
+        return true;
+    }
+
+    // the real ports look every recipient up too
+    private int countOnline(Iterable<UUID> recipients) {
+        int count = 0;
+        for (UUID uuid : recipients) {
+            if (players.containsKey(uuid)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private record Player(String name, Object dimension, double x, double z) {
+    }
+}
@@ -0,0 +1,348 @@
+package sierra.thing.votekick.sim;
+
+import sierra.thing.votekick.BenchmarkEnv;
+import sierra.thing.votekick.VoteKickMod;
+import sierra.thing.votekick.util.ManualVoteClock;
+import sierra.thing.votekick.vote.VoteAudience;
+import sierra.thing.votekick.vote.VoteEngine;
+import sierra.thing.votekick.vote.VoteOutcome;
+import sierra.thing.votekick.vote.VoteScope;
+import sierra.thing.votekick.vote.VoteSession;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Runs back-to-back vote storms against a {@link SimulatedServer} as fast as the engine allows
+ * and reports throughput, latency percentiles and allocation. No game, no network: the clock is
+ * a {@link ManualVoteClock} stepped one tick per loop, so thousands of game seconds take a few
+ * real ones.
+ *
+ * Each loop starts sessions until the engine is full, casts this tick's share of every session's
+ * votes, then runs the scheduler and the engine like the server tick would. Kicked players are
+ * replaced by fresh joins so the population stays put.
+ *
+ * ./gradlew :1.21.1-fabric:voteSim -Psim.args="--players 5000 --sessions 1000 --scope radius"
+ */
+public final class VoteStormSimulator {
+    private static final int TICKS_PER_SECOND = 20;
+    private static final String[] DIMENSIONS = {"overworld", "the_nether", "the_end"};
+    // players are spread over a square this wide, so radius scopes catch a realistic crowd
+    private static final double WORLD_SIZE = 2048;
+
+    private final Options options;
+    private final Random random;
+    private final SimulatedServer server = new SimulatedServer();
+    private final VoteEngine engine;
+    private final ManualVoteClock clock = BenchmarkEnv.clock();
+
+    // for picking random players; kicked ones are swapped out in place
+    private final List<UUID> roster = new ArrayList<>();
+    private final Map<UUID, Integer> rosterIndex = new HashMap<>();
+    private final List<Storm> storms = new ArrayList<>();
+    private int nextPlayer;
+
+    private VoteStormSimulator(Options options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+        this.engine = new VoteEngine(VoteKickMod.getScheduler(), () -> options.concurrent);
+        server.onKick(this::replace);
+        for (int i = 0; i < options.players; i++) {
+            UUID uuid = join();
+            rosterIndex.put(uuid, roster.size());
+            roster.add(uuid);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Properties props = new Properties();
+        props.setProperty("digest_vote_announcements", Boolean.toString(options.digest));
+
+        Path dir = BenchmarkEnv.install(props);
+        try {
+            if (options.warmup > 0) {
+                System.out.printf(Locale.ROOT, "Warming up with %d sessions...%n", options.warmup);
+                new VoteStormSimulator(options).run(options.warmup);
+            }
+            Result result = new VoteStormSimulator(options).run(options.sessions);
+            result.print(options);
+        } finally {
+            VoteKickMod.getHistoryManager().save();
+            BenchmarkEnv.delete(dir);
+        }
+    }
+
+    private Result run(int sessions) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Result result = new Result();
+        server.resetCounters();
+
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long wallStart = System.nanoTime();
+        int started = 0;
+
+        while (started < sessions || !storms.isEmpty()) {
+            while (started < sessions && !engine.isFull()) {
+                long t0 = System.nanoTime();
+                Storm storm = startStorm();
+                result.start.add(System.nanoTime() - t0);
+                // picked a busy target, try again next tick
+                if (storm == null) {
+                    break;
+                }
+                storms.add(storm);
+                started++;
+            }
+
+            castVotes(result);
+
+            long t0 = System.nanoTime();
+            clock.advanceTicks(1);
+            VoteKickMod.getCooldowns().tick();
+            engine.tick();
+            result.tick.add(System.nanoTime() - t0);
+            result.ticks++;
+
+            storms.removeIf(storm -> engine.get(storm.session.getSessionId()) != storm.session);
+        }
+
+        result.wallNanos = System.nanoTime() - wallStart;
+        result.allocatedBytes = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        result.sessions = started;
+        result.kicks = server.kicks();
+        result.chatMessages = server.chatMessages();
+        result.panelPackets = server.panelPackets();
+        return result;
+    }
+
+    // null if the random target already has a vote running
+    private Storm startStorm() {
+        UUID target = roster.get(random.nextInt(roster.size()));
+        UUID initiator = roster.get(random.nextInt(roster.size()));
+        if (initiator.equals(target) || engine.get(target) != null) {
+            return null;
+        }
+
+        VoteAudience audience = new VoteAudience(options.scope, options.radius, target, initiator, server);
+        audience.rebuild(null, null);
+        VoteSession session = new VoteSession(initiator, target, server.nameOf(initiator), server.nameOf(target),
+                "simulated", audience.size(), options.voteSeconds, audience, server.ports());
+        if (!engine.start(session)) {
+            return null;
+        }
+
+        List<UUID> voters = new ArrayList<>(audience.size());
+        for (UUID member : audience.players()) {
+            if (!member.equals(target) && !member.equals(initiator) && random.nextDouble() < options.turnout) {
+                voters.add(member);
+            }
+        }
+        int spreadTicks = Math.max(1, Math.min(options.spreadSeconds, options.voteSeconds) * TICKS_PER_SECOND);
+        int perTick = Math.max(1, (voters.size() + spreadTicks - 1) / spreadTicks);
+        return new Storm(session, voters.toArray(new UUID[0]), perTick);
+    }
+
+    private void castVotes(Result result) {
+        for (Storm storm : storms) {
+            int end = Math.min(storm.next + storm.perTick, storm.voters.length);
+            for (; storm.next < end; storm.next++) {
+                UUID voter = storm.voters[storm.next];
+                String name = server.nameOf(voter);
+                if (name == null) {
+                    continue;
+                }
+                boolean inFavor = random.nextDouble() < options.yesShare;
+
+                long t0 = System.nanoTime();
+                boolean counted = storm.session.castVote(voter, name, inFavor);
+                result.cast.add(System.nanoTime() - t0);
+                result.votes++;
+                if (counted) {
+                    result.counted++;
+                }
+            }
+        }
+    }
+
+    // what VoteKickMod.onPlayerDisconnect does, then someone new takes their slot
+    private void replace(UUID kicked) {
+        VoteSession targetSession = engine.get(kicked);
+        if (targetSession != null) {
+            targetSession.endVote(VoteOutcome.CANCELED, null, null, false);
+            engine.remove(targetSession);
+        }
+        engine.onPlayerLeave(kicked);
+
+        Integer index = rosterIndex.remove(kicked);
+        UUID replacement = join();
+        if (index != null) {
+            roster.set(index, replacement);
+            rosterIndex.put(replacement, index);
+        }
+        engine.onPlayerJoin(replacement);
+    }
+
+    private UUID join() {
+        UUID uuid = new UUID(random.nextLong(), random.nextLong());
+        String dimension = DIMENSIONS[Math.min(random.nextInt(options.dimensions), DIMENSIONS.length - 1)];
+        server.join(uuid, "Player" + nextPlayer++, dimension,
+                random.nextDouble() * WORLD_SIZE, random.nextDouble() * WORLD_SIZE);
+        return uuid;
+    }
+
+    private static final class Storm {
+        final VoteSession session;
+        final UUID[] voters;
+        final int perTick;
+        int next;
+
+        Storm(VoteSession session, UUID[] voters, int perTick) {
+            this.session = session;
+            this.voters = voters;
+            this.perTick = perTick;
+        }
+    }
+
+    private static final class Options {
+        int players = 2000;
+        int sessions = 500;
+        int concurrent = 8;
+        VoteScope scope = VoteScope.GLOBAL;
+        int radius = 128;
+        int dimensions = 3;
+        int voteSeconds = 30;
+        int spreadSeconds = 10;
+        double turnout = 0.8;
+        double yesShare = 0.6;
+        boolean digest = true;
+        int warmup = -1;
+        long seed = 42;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--no-digest")) {
+                    options.digest = false;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--players" -> options.players = Math.max(2, Integer.parseInt(value));
+                    case "--sessions" -> options.sessions = Math.max(1, Integer.parseInt(value));
+                    case "--concurrent" -> options.concurrent = Math.max(1, Integer.parseInt(value));
+                    case "--scope" -> {
+                        options.scope = VoteScope.fromConfigName(value);
+                        if (options.scope == null) {
+                            throw new IllegalArgumentException("Unknown scope " + value);
+                        }
+                    }
+                    case "--radius" -> options.radius = Math.max(1, Integer.parseInt(value));
+                    case "--dimensions" -> options.dimensions = Math.max(1, Integer.parseInt(value));
+                    case "--vote-seconds" -> options.voteSeconds = Math.max(1, Integer.parseInt(value));
+                    case "--spread-seconds" -> options.spreadSeconds = Math.max(1, Integer.parseInt(value));
+                    case "--turnout" -> options.turnout = Double.parseDouble(value);
+                    case "--yes" -> options.yesShare = Double.parseDouble(value);
+                    case "--warmup" -> options.warmup = Integer.parseInt(value);
+                    case "--seed" -> options.seed = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            if (options.warmup < 0) {
+                options.warmup = Math.max(1, options.sessions / 10);
+            }
+            return options;
+        }
+    }
+
+    private static final class Result {
+        final Samples cast = new Samples();
+        final Samples start = new Samples();
+        final Samples tick = new Samples();
+        long ticks;
+        long votes;
+        long counted;
+        int sessions;
+        long kicks;
+        long chatMessages;
+        long panelPackets;
+        long wallNanos;
+        long allocatedBytes;
+
+        void print(Options options) {
+            double wallSeconds = wallNanos / 1e9;
+            double gameSeconds = ticks / (double) TICKS_PER_SECOND;
+
+            System.out.printf(Locale.ROOT, "%nVote storm: %d players, %d sessions (%d at once), scope %s, %.0f%% turnout, digest %s%n",
+                    options.players, sessions, options.concurrent, options.scope.getConfigName(),
+                    options.turnout * 100, options.digest ? "on" : "off");
+            System.out.printf(Locale.ROOT, "  game time    %,d ticks (%.1f s) in %.2f s wall, %.0fx real time%n",
+                    ticks, gameSeconds, wallSeconds, gameSeconds / wallSeconds);
+            System.out.printf(Locale.ROOT, "  sessions     %,d, %,d kicks, %,.1f sessions/s%n",
+                    sessions, kicks, sessions / wallSeconds);
+            System.out.printf(Locale.ROOT, "  votes        %,d cast, %,d counted, %,.0f votes/s%n",
+                    votes, counted, votes / wallSeconds);
+            System.out.println("  castVote     " + cast.summary());
+            System.out.println("  start vote   " + start.summary());
+            System.out.println("  server tick  " + tick.summary());
+            System.out.printf(Locale.ROOT, "  allocation   %,.1f MB, %,.1f MB/s, %,d B/vote%n",
+                    allocatedBytes / 1e6, allocatedBytes / 1e6 / wallSeconds,
+                    votes == 0 ? 0 : allocatedBytes / votes);
+            System.out.printf(Locale.ROOT, "  traffic      %,d panel packets, %,d chat lines (%.1f sends/vote)%n",
+                    panelPackets, chatMessages, votes == 0 ? 0 : (panelPackets + chatMessages) / (double) votes);
+        }
+    }
+
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        String summary() {
+            if (size == 0) {
+                return "no samples";
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return String.format(Locale.ROOT, "p50 %s  p90 %s  p99 %s  p99.9 %s  max %s  (%,d samples)",
+                    format(percentile(sorted, 0.50)), format(percentile(sorted, 0.90)),
+                    format(percentile(sorted, 0.99)), format(percentile(sorted, 0.999)),
+                    format(sorted[size - 1]), size);
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+
+        private static String format(long nanos) {
+            if (nanos < 10_000) {
+                return String.format(Locale.ROOT, "%.2f us", nanos / 1e3);
+            }
+            if (nanos < 10_000_000) {
+                return String.format(Locale.ROOT, "%.1f us", nanos / 1e3);
+            }
+            return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package sierra.thing.votekick.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (initiator, target) cooldown checks the way /votekick runs them, against a store holding
+ * a busy server's worth of cooldowns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CooldownStoreBenchmark {
+    @Param({"1000", "100000"})
+    int entries;
+
+    private CooldownStore store;
+    private UUID[] initiators;
+    private UUID[] targets;
+    private UUID stranger;
+    private long now;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        store = new CooldownStore();
+        initiators = new UUID[entries];
+        targets = new UUID[entries];
+        now = 1_000_000L;
+        for (int i = 0; i < entries; i++) {
+            initiators[i] = new UUID(random.nextLong(), random.nextLong());
+            targets[i] = new UUID(random.nextLong(), random.nextLong());
+            store.put(initiators[i], targets[i], now + 1 + random.nextInt(600_000));
+        }
+        stranger = UUID.randomUUID();
+    }
+
+    @Benchmark
+    public boolean hit() {
+        int i = next++ & Integer.MAX_VALUE;
+        i %= entries;
+        return store.isActive(initiators[i], targets[i], now);
+    }
+
+    @Benchmark
+    public boolean miss() {
+        int i = next++ & Integer.MAX_VALUE;
+        i %= entries;
+        return store.isActive(initiators[i], stranger, now);
+    }
+}
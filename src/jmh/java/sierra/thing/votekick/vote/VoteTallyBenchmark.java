@@ -0,0 +1,71 @@
+package sierra.thing.votekick.vote;
+
+import org.openjdk.jmh.annotations.*;
+import sierra.thing.votekick.BenchmarkEnv;
+import sierra.thing.votekick.sim.SimulatedServer;
+
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vote counting: filling a tally with every voter, and the per-tick end check.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoteTallyBenchmark {
+    @Param({"10", "100", "1000"})
+    int voters;
+
+    private Path dir;
+    private UUID[] voterIds;
+    private VoteSession session;
+
+    @Setup
+    public void setup() throws Exception {
+        dir = BenchmarkEnv.install(new Properties());
+        voterIds = new UUID[voters];
+        for (int i = 0; i < voters; i++) {
+            voterIds[i] = UUID.randomUUID();
+        }
+        UUID targetId = UUID.randomUUID();
+        SimulatedServer server = new SimulatedServer();
+        server.join(targetId, "target", "overworld", 0, 0);
+        for (int i = 0; i < voters; i++) {
+            server.join(voterIds[i], "voter" + i, "overworld", 0, 0);
+        }
+        VoteAudience audience = new VoteAudience(VoteScope.GLOBAL, 0, targetId, voterIds[0], server);
+        audience.rebuild(null, null);
+        session = new VoteSession(voterIds[0], targetId, "initiator", "target",
+                "benchmark", voters + 1, 30, audience, server.ports());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        BenchmarkEnv.delete(dir);
+    }
+
+    @Benchmark
+    public VoteTally.Snapshot recordAll() {
+        VoteTally tally = new VoteTally(voters);
+        for (int i = 0; i < voterIds.length; i++) {
+            tally.record(voterIds[i], (i & 1) == 0);
+        }
+        return tally.snapshot();
+    }
+
+    @Benchmark
+    public boolean hasEnded() {
+        return session.hasEnded();
+    }
+
+    @Benchmark
+    public int getYesVotes() {
+        return session.getYesVotes();
+    }
+}
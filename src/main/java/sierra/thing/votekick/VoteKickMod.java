@@ -17,6 +17,9 @@ import sierra.thing.votekick.commands.VoteKickCommand;
 import sierra.thing.votekick.commands.VoteKickDevCommand;
 import sierra.thing.votekick.config.VoteKickConfig;
 import sierra.thing.votekick.history.VoteHistoryManager;
+import sierra.thing.votekick.network.VoteIntakeQueue;
+import sierra.thing.votekick.network.WireFormat;
+import sierra.thing.votekick.permissions.VoteKickPermissions;
 import sierra.thing.votekick.platform.Platform;
 //? if fabric {
 import sierra.thing.votekick.platform.fabric.FabricPlatform;
@@ -24,14 +27,22 @@ import sierra.thing.votekick.platform.fabric.FabricPlatform;
 /*import sierra.thing.votekick.platform.neoforge.NeoforgePlatform;
 *///?}
 import sierra.thing.votekick.protection.PlayerProtectionManager;
+import sierra.thing.votekick.ratelimit.VoteKickRateLimiter;
+import sierra.thing.votekick.util.SystemVoteClock;
+import sierra.thing.votekick.util.TickScheduler;
+import sierra.thing.votekick.util.VoteClock;
+import sierra.thing.votekick.vote.VoteChatPreferences;
+import sierra.thing.votekick.vote.VoteCooldowns;
+import sierra.thing.votekick.vote.VoteEngine;
 import sierra.thing.votekick.vote.VoteOutcome;
 import sierra.thing.votekick.vote.VoteSession;
+import sierra.thing.votekick.vote.port.MinecraftVotePorts;
+import sierra.thing.votekick.vote.port.VotePorts;
 
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
@@ -52,9 +63,17 @@ public class VoteKickMod {
     private static final Platform PLATFORM = createPlatformInstance();
 
     private static VoteKickConfig config;
-    private static final Map<UUID, VoteSession> activeVotes = new HashMap<>();
     private static PlayerProtectionManager protectionManager;
     private static VoteHistoryManager historyManager;
+    private static VoteChatPreferences chatPreferences;
+    private static VoteCooldowns cooldowns;
+    private static final TickScheduler scheduler = new TickScheduler();
+    // not final so benchmarks can swap in a manual clock
+    private static VoteClock clock = new SystemVoteClock(scheduler);
+    private static final VoteEngine voteEngine = new VoteEngine(scheduler, () -> config.getMaxConcurrentVotes());
+    private static final VoteIntakeQueue voteIntake = new VoteIntakeQueue();
+    // what running votes talk to; set while a server is up
+    private static VotePorts ports;
     private static volatile boolean serverStopping = false;
 
     public static void init() {
@@ -63,6 +82,8 @@ public class VoteKickMod {
         loadConfig();
         protectionManager = new PlayerProtectionManager();
         historyManager = new VoteHistoryManager();
+        chatPreferences = new VoteChatPreferences();
+        cooldowns = new VoteCooldowns();
     }
 
     public static Platform platform() {
@@ -86,47 +107,72 @@ public class VoteKickMod {
 
     public static void onServerStarting(MinecraftServer server) {
         serverStopping = false;
+        ports = MinecraftVotePorts.create(server);
+        scheduler.clear();
+        voteEngine.clear();
+        voteIntake.open();
         protectionManager.load();
         historyManager.load();
+        chatPreferences.load();
+        cooldowns.load();
     }
 
     public static void onServerStopping(MinecraftServer server) {
         serverStopping = true;
+        voteIntake.close();
+        // pending kicks go into protection data before it's saved
+        scheduler.runEssential();
         protectionManager.save();
         historyManager.save();
+        chatPreferences.save();
+        cooldowns.save();
+        WireFormat.clearPlayers();
+        voteEngine.clear();
+        scheduler.clear();
+        VoteKickRateLimiter.clear();
     }
 
     public static void onServerTick(MinecraftServer server) {
-        if (server.getTickCount() % 1200 == 0) { // every minute
-            protectionManager.cleanup();
-        }
-
-        activeVotes.entrySet().removeIf(entry -> {
-            VoteSession session = entry.getValue();
-            session.tick();
-
-            if (session.hasEnded()) {
-                session.processResults(server);
-                return true;
-            }
-
-            session.updateVoteUI(server);
-            return false;
-        });
+        scheduler.tick();
+        protectionManager.tick();
+        historyManager.tick();
+        chatPreferences.tick();
+        cooldowns.tick();
+        VoteKickRateLimiter.tick();
+        // every panel vote since the last tick, so the engine sends one update per session for all of them
+        voteIntake.drain();
+        // only sessions whose wakeup fired above or that got votes since the last tick
+        voteEngine.tick();
     }
 
     public static void onPlayerJoin(ServerPlayer player) {
         if (!protectionManager.hasJoinedBefore(player.getUUID())) {
             protectionManager.grantNewPlayerProtection(player.getUUID());
             LOGGER.info("New player {} granted protection period", profileName(player.getGameProfile()));
+        } else {
+            protectionManager.markSeen(player.getUUID());
         }
 
-        if (protectionManager.isProtected(player.getUUID())) {
-            int remaining = protectionManager.getRemainingProtectionTime(player.getUUID());
-            player.sendSystemMessage(Component.literal(
-                    "You have kick immunity for " + remaining + " seconds"
-            ));
-        }
+        // a returning player's saved protection is read in the background, tell them once it's in
+        protectionManager.onPlayerJoin(player.getUUID(), () -> {
+            if (protectionManager.isProtected(player.getUUID())) {
+                int remaining = protectionManager.getRemainingProtectionTime(player.getUUID());
+                player.sendSystemMessage(Component.literal(
+                        "You have kick immunity for " + remaining + " seconds"
+                ));
+            }
+        });
+
+        voteEngine.onPlayerJoin(player.getUUID());
+    }
+
+    public static void onPlayerChangedDimension(ServerPlayer player) {
+        voteEngine.onPlayerMoved(player.getUUID());
+    }
+
+    public static void onPlayerRespawn(ServerPlayer player) {
+        // a respawn can also mean a new dimension, and it's a new entity either way
+        onPlayerChangedDimension(player);
     }
 
     public static void onPlayerDisconnect(ServerPlayer player, MinecraftServer server) {
@@ -135,28 +181,18 @@ public class VoteKickMod {
         }
 
         UUID playerUUID = player.getUUID();
+        WireFormat.forgetPlayer(playerUUID);
+        protectionManager.markSeen(playerUUID);
+        protectionManager.onPlayerLeave(playerUUID);
+        VoteKickPermissions.invalidate(playerUUID);
 
-        VoteSession targetSession = activeVotes.get(playerUUID);
+        VoteSession targetSession = voteEngine.get(playerUUID);
         if (targetSession != null) {
-            targetSession.endVote(server, VoteOutcome.CANCELED, null,
+            targetSession.endVote(VoteOutcome.CANCELED, null,
                     "Vote canceled: " + targetSession.getTargetName() + " left the game", false);
-            activeVotes.remove(playerUUID);
-            return;
-        }
-
-        for (VoteSession session : activeVotes.values()) {
-            if (session.hasPlayerVoted(playerUUID)) {
-                for (ServerPlayer p : server.getPlayerList().getPlayers()) {
-                    sierra.thing.votekick.network.VoteKickNetworking.sendUpdateVotePanel(
-                            p,
-                            session.getSecondsRemaining(),
-                            session.getYesVotes(),
-                            session.getNoVotes()
-                    );
-                }
-                break;
-            }
+            voteEngine.remove(targetSession);
         }
+        voteEngine.onPlayerLeave(playerUUID);
     }
 
     private static void loadConfig() {
@@ -185,8 +221,9 @@ public class VoteKickMod {
 
     public static void reloadConfig() {
         loadConfig();
+        VoteKickPermissions.invalidateAll();
         if (historyManager != null) {
-            historyManager.load();
+            historyManager.applyConfig();
         }
     }
 
@@ -210,23 +247,57 @@ public class VoteKickMod {
         return historyManager;
     }
 
+    public static VoteChatPreferences getChatPreferences() {
+        return chatPreferences;
+    }
+
+    public static VoteCooldowns getCooldowns() {
+        return cooldowns;
+    }
+
+    /**
+     * The running server's ports, null while no server is up.
+     */
+    public static VotePorts getPorts() {
+        return ports;
+    }
+
+    public static VoteClock getClock() {
+        return clock;
+    }
+
+    public static TickScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public static VoteEngine getVoteEngine() {
+        return voteEngine;
+    }
+
+    public static VoteIntakeQueue getVoteIntake() {
+        return voteIntake;
+    }
+
+    /**
+     * Active votes by target, oldest first. Read-only, go through {@link #getVoteEngine()} to change it.
+     */
     public static Map<UUID, VoteSession> getActiveVotes() {
-        return activeVotes;
+        return voteEngine.byTarget();
     }
 
     public static boolean isServerStopping() {
         return serverStopping;
     }
 
-    public static void addVote(UUID targetUUID, VoteSession session) {
-        activeVotes.put(targetUUID, session);
+    public static boolean addVote(VoteSession session) {
+        return voteEngine.start(session);
     }
 
     public static void removeVote(UUID targetUUID) {
-        activeVotes.remove(targetUUID);
+        voteEngine.remove(voteEngine.get(targetUUID));
     }
 
     public static boolean isVoteInProgress() {
-        return !activeVotes.isEmpty();
+        return !voteEngine.isEmpty();
     }
 }
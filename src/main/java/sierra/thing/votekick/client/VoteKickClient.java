@@ -92,6 +92,8 @@ public class VoteKickClient {
             return;
         }
 
+        // marking the vote moves focus to the next open vote, so take the id first
+        int sessionId = VoteKickHud.getSessionId();
         VoteKickHud.markPlayerVoted();
 
         client.player.displayClientMessage(
@@ -105,7 +107,7 @@ public class VoteKickClient {
 
         try {
             LOGGER.debug("Sending vote: {}", voteYes ? "YES" : "NO");
-            VoteKickNetworking.sendCastVote(voteYes);
+            VoteKickNetworking.sendCastVote(voteYes, sessionId);
         } catch (Exception e) {
             LOGGER.error("Error sending vote to server", e);
             client.player.displayClientMessage(
@@ -12,7 +12,9 @@ import sierra.thing.votekick.VoteKickMod;
 import sierra.thing.votekick.client.config.ClientConfig;
 import sierra.thing.votekick.client.config.VoteKickConfigScreen;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class VoteKickHud {
 
@@ -38,6 +40,9 @@ public class VoteKickHud {
     private static final int BASE_PADDING = 12;
     private static final int BASE_LINE_HEIGHT = 12;
     private static final int BASE_MARGIN = 10;
+    private static final int BASE_ROW_HEIGHT = 16;
+    private static final int BASE_ROW_GAP = 3;
+    private static final int MAX_QUEUED_ROWS = 4;
 
     // animation
     private static final float ANIMATION_SPEED = 0.12f;
@@ -49,20 +54,13 @@ public class VoteKickHud {
 
     // vote state
     private static boolean showVotePanel = false;
-    private static boolean isVoteTarget = false;
-    private static boolean hasVoted = false;
-    private static String voteTitle = "";
-    private static String voteReason = "";
-    private static int timeRemaining = 0;
-    private static int yesVotes = 0;
-    private static int noVotes = 0;
-    private static int votesNeeded = 0;
-    private static int lastTimeRemaining = -1;
+    // every open vote by session id, in the order they were shown; 0 when the server speaks the legacy format
+    private static final Map<Integer, Panel> panels = new LinkedHashMap<>();
+    // the vote drawn in full and the one the vote keys act on. stays set while the last panel slides out
+    private static Panel focused = null;
 
     private static HideCallback onHideListener = null;
 
-    // cached wrapped text
-    private static List<FormattedCharSequence> wrappedReasonText = null;
     private static int cachedPanelHeight = BASE_MIN_PANEL_HEIGHT;
 
     public static void onHudRender(GuiGraphics guiGraphics, float tickDelta) {
@@ -72,8 +70,9 @@ public class VoteKickHud {
         }
 
         updateAnimation(tickDelta);
+        updateTimer();
 
-        if (showVotePanel || isAnimating) {
+        if ((showVotePanel || isAnimating) && focused != null) {
             render(guiGraphics);
         }
     }
@@ -112,6 +111,23 @@ public class VoteKickHud {
         }
     }
 
+    private static void updateTimer() {
+        if (!showVotePanel) {
+            return;
+        }
+
+        for (Panel panel : panels.values()) {
+            int localRemaining = panel.secondsUntilDeadline();
+            if (localRemaining != panel.timeRemaining) {
+                // reset pulse on time change for emphasis
+                if (localRemaining <= 5 && panel == focused) {
+                    pulseAnimation = 0;
+                }
+                panel.timeRemaining = localRemaining;
+            }
+        }
+    }
+
     private static void render(GuiGraphics guiGraphics) {
         Minecraft mc = Minecraft.getInstance();
         Font font = mc.font;
@@ -191,17 +207,79 @@ public class VoteKickHud {
         guiGraphics.fill(x, y, x + stripeWidth, y + panelHeight, COLOR_ACCENT);
 
         renderContent(guiGraphics, font, x, y, panelWidth, panelHeight, scale);
+
+        renderQueuedVotes(guiGraphics, font, x, y, panelWidth, panelHeight, scale);
+    }
+
+    // the other open votes as one-line rows, below the panel (or above it when it sits at the bottom)
+    private static void renderQueuedVotes(GuiGraphics guiGraphics, Font font, int x, int y, int panelWidth, int panelHeight, float scale) {
+        int queued = panels.size() - (panels.get(focused.sessionId) == focused ? 1 : 0);
+        if (queued <= 0) {
+            return;
+        }
+
+        int position = VoteKickClient.getClientConfig().getPanelPosition();
+        boolean growUp = position == 2 || position == 3;
+        int rowHeight = (int)(BASE_ROW_HEIGHT * scale);
+        int step = rowHeight + (int)(BASE_ROW_GAP * scale);
+        int rowY = growUp ? y - step : y + panelHeight + (int)(BASE_ROW_GAP * scale);
+
+        int shown = 0;
+        for (Panel panel : panels.values()) {
+            if (panel == focused) {
+                continue;
+            }
+            if (shown == MAX_QUEUED_ROWS && queued > MAX_QUEUED_ROWS) {
+                renderMoreRow(guiGraphics, font, x, rowY, panelWidth, rowHeight, queued - shown, scale);
+                return;
+            }
+            renderQueuedRow(guiGraphics, font, panel, x, rowY, panelWidth, rowHeight, scale);
+            rowY += growUp ? -step : step;
+            shown++;
+        }
+    }
+
+    private static void renderQueuedRow(GuiGraphics guiGraphics, Font font, Panel panel, int x, int y, int panelWidth, int rowHeight, float scale) {
+        int padding = (int)(BASE_PADDING * scale);
+        int textY = y + (rowHeight - (int)(font.lineHeight * scale)) / 2;
+
+        guiGraphics.fill(x + 2, y + 2, x + panelWidth + 2, y + rowHeight + 2, COLOR_SHADOW);
+        guiGraphics.fill(x, y, x + panelWidth, y + rowHeight, COLOR_BACKGROUND);
+        guiGraphics.fill(x, y, x + (int)(3 * scale), y + rowHeight, panel.isVoteTarget ? COLOR_NO : COLOR_ACCENT);
+
+        String status = panel.hasVoted
+                ? "✓ voted"
+                : "✓" + panel.yesVotes + " ✗" + panel.noVotes + " " + panel.timeRemaining + "s";
+        int statusWidth = (int)(font.width(status) * scale);
+        drawScaledText(guiGraphics, font, Component.literal(status),
+                x + panelWidth - padding - statusWidth, textY, panel.hasVoted ? COLOR_YES : COLOR_TEXT_DIM, scale);
+
+        // widths here are unscaled, drawScaledText scales the whole string
+        int titleRoom = (int)((panelWidth - padding * 3 - statusWidth) / scale);
+        String title = font.plainSubstrByWidth((panel.isVoteTarget ? "⚠ " : "🗳 ") + panel.voteTitle, titleRoom);
+        drawScaledText(guiGraphics, font, Component.literal(title), x + padding, textY, COLOR_TEXT, scale);
+    }
+
+    private static void renderMoreRow(GuiGraphics guiGraphics, Font font, int x, int y, int panelWidth, int rowHeight, int hidden, float scale) {
+        int padding = (int)(BASE_PADDING * scale);
+        int textY = y + (rowHeight - (int)(font.lineHeight * scale)) / 2;
+
+        guiGraphics.fill(x, y, x + panelWidth, y + rowHeight, COLOR_BACKGROUND);
+        drawScaledText(guiGraphics, font, Component.literal("+" + hidden + " more votes"),
+                x + padding, textY, COLOR_TEXT_DIM, scale);
     }
 
     private static void renderContent(GuiGraphics guiGraphics, Font font, int x, int y, int panelWidth, int panelHeight, float scale) {
         ClientConfig config = VoteKickClient.getClientConfig();
+        Panel panel = focused;
+        List<FormattedCharSequence> wrappedReasonText = panel.wrappedReasonText;
         int padding = (int)(BASE_PADDING * scale);
         int lineHeight = (int)(BASE_LINE_HEIGHT * scale);
         int currentY = y + padding;
 
         // title with icon indicator
-        String icon = isVoteTarget ? "⚠ " : "🗳 ";
-        Component titleComponent = Component.literal(icon + voteTitle);
+        String icon = panel.isVoteTarget ? "⚠ " : "🗳 ";
+        Component titleComponent = Component.literal(icon + panel.voteTitle);
 
         drawScaledText(guiGraphics, font, titleComponent, x + padding, currentY, COLOR_TEXT, scale);
         currentY += lineHeight + (int)(8 * scale);
@@ -238,13 +316,13 @@ public class VoteKickHud {
             renderTimer(guiGraphics, font, x, currentY, panelWidth, scale);
         } else {
             // simple timer without effects
-            Component timerText = Component.literal("Time remaining: " + timeRemaining + "s");
+            Component timerText = Component.literal("Time remaining: " + panel.timeRemaining + "s");
             drawScaledText(guiGraphics, font, timerText, x + padding, currentY, COLOR_TEXT, scale);
         }
         currentY += lineHeight + (int)(8 * scale);
 
         // vote target warning (moved down, more prominent)
-        if (isVoteTarget) {
+        if (panel.isVoteTarget) {
             renderVoteTargetWarning(guiGraphics, font, x, currentY, panelWidth, scale);
             currentY += (int)(30 * scale);
         }
@@ -321,6 +399,10 @@ public class VoteKickHud {
         int barWidth = panelWidth - (padding * 2);
         int barHeight = (int)(20 * scale);
 
+        int yesVotes = focused.yesVotes;
+        int noVotes = focused.noVotes;
+        int votesNeeded = focused.votesNeeded;
+
         // vote counts (positioned above the bar)
         String yesText = "✓ " + yesVotes;
         String noText = "✗ " + noVotes;
@@ -379,6 +461,7 @@ public class VoteKickHud {
         ClientConfig config = VoteKickClient.getClientConfig();
         int padding = (int)(BASE_PADDING * scale);
         int lineHeight = (int)(BASE_LINE_HEIGHT * scale);
+        int timeRemaining = focused.timeRemaining;
         boolean isUrgent = timeRemaining <= 5;
 
         // pulse effect for urgent timer
@@ -407,9 +490,9 @@ public class VoteKickHud {
         int padding = (int)(BASE_PADDING * scale);
         int lineHeight = (int)(BASE_LINE_HEIGHT * scale);
 
-        if (isVoteTarget) {
+        if (focused.isVoteTarget) {
             return;
-        } else if (hasVoted) {
+        } else if (focused.hasVoted) {
             prompt = Component.literal("✓ Vote submitted");
             color = COLOR_YES;
         } else {
@@ -429,6 +512,7 @@ public class VoteKickHud {
 
     private static int calculatePanelHeight(Font font, float scale) {
         ClientConfig config = VoteKickClient.getClientConfig();
+        List<FormattedCharSequence> wrappedReasonText = focused != null ? focused.wrappedReasonText : null;
 
         if (config.isCompactMode() || wrappedReasonText == null) {
             return (int)(BASE_MIN_PANEL_HEIGHT * scale);
@@ -440,17 +524,17 @@ public class VoteKickHud {
     }
 
     // Updated wrapReasonText method to account for proper scaling
-    private static void wrapReasonText(Font font, float scale) {
-        if (voteReason == null || voteReason.isEmpty()) {
-            wrappedReasonText = null;
+    private static void wrapReasonText(Panel panel, Font font, float scale) {
+        if (panel.voteReason == null || panel.voteReason.isEmpty()) {
+            panel.wrappedReasonText = null;
             return;
         }
 
-        String cleanReason = voteReason.replace("Reason: ", "").trim();
+        String cleanReason = panel.voteReason.replace("Reason: ", "").trim();
         // Account for scaling in text wrapping calculation
         int maxWidth = BASE_PANEL_WIDTH - (BASE_PADDING * 2) - 8;
 
-        wrappedReasonText = font.split(Component.literal(cleanReason), maxWidth);
+        panel.wrappedReasonText = font.split(Component.literal(cleanReason), maxWidth);
         cachedPanelHeight = calculatePanelHeight(font, scale);
     }
 
@@ -492,25 +576,33 @@ public class VoteKickHud {
     }
 
     // public api methods
-    public static void showVotePanel(String title, String subtitle, int time, int yes, int no, int needed, boolean isTarget) {
-        voteTitle = title;
-        voteReason = subtitle;
-        timeRemaining = time;
-        lastTimeRemaining = time;
-        yesVotes = yes;
-        noVotes = no;
-        votesNeeded = needed;
-        isVoteTarget = isTarget;
-        hasVoted = false;
+    public static void showVotePanel(int session, String title, String subtitle, int time, int yes, int no, int needed, boolean isTarget) {
+        Panel panel = new Panel(session);
+        panel.voteTitle = title;
+        panel.voteReason = subtitle;
+        panel.timeRemaining = time;
+        panel.anchorTimer(time);
+        panel.yesVotes = yes;
+        panel.noVotes = no;
+        panel.votesNeeded = needed;
+        panel.isVoteTarget = isTarget;
 
         // wrap text for display
         Minecraft mc = Minecraft.getInstance();
-        wrapReasonText(mc.font, VoteKickClient.getClientConfig().getUiScale());
-
-        animationProgress = 0f;
-        isShowing = true;
-        isAnimating = true;
-        showVotePanel = true;
+        wrapReasonText(panel, mc.font, VoteKickClient.getClientConfig().getUiScale());
+
+        // a re-sent session moves to the back like a new one
+        panels.remove(session);
+        panels.put(session, panel);
+        refocus();
+
+        // only the first vote slides in, later ones join the open panel
+        if (!isShowing) {
+            animationProgress = 0f;
+            isShowing = true;
+            isAnimating = true;
+            showVotePanel = true;
+        }
 
         VoteKickClient.playLocalSound(
                 SoundEvents.NOTE_BLOCK_PLING.value(),
@@ -519,35 +611,50 @@ public class VoteKickHud {
         );
     }
 
-    public static void updateVotePanel(int time, int yes, int no) {
-        boolean timeChanged = (time != lastTimeRemaining);
-        lastTimeRemaining = timeRemaining;
-
-        timeRemaining = time;
-        yesVotes = yes;
-        noVotes = no;
+    public static void updateVotePanel(int session, int time, int yes, int no) {
+        Panel panel = findPanel(session);
+        if (panel == null) {
+            return;
+        }
 
-        // reset pulse on time change for emphasis
-        if (timeChanged && time <= 5) {
-            pulseAnimation = 0;
+        // only re-anchor when we drifted; a matching value means the local countdown is fine
+        if (panel.secondsUntilDeadline() != time) {
+            panel.anchorTimer(time);
         }
+
+        panel.yesVotes = yes;
+        panel.noVotes = no;
     }
 
     public static void onClientDisconnect() {
         showVotePanel = false;
+        panels.clear();
+        focused = null;
         isAnimating = false;
         animationProgress = 0f;
         isShowing = false;
-        hasVoted = false;
-        isVoteTarget = false;
-        wrappedReasonText = null;
 
         if (onHideListener != null) {
             onHideListener.onHide();
         }
     }
 
-    public static void hideVotePanel() {
+    public static void hideVotePanel(int session) {
+        Panel panel = findPanel(session);
+        if (panel == null) {
+            return;
+        }
+
+        panels.remove(panel.sessionId);
+        if (!panels.isEmpty()) {
+            // other votes are still open, the next one takes over without animating the panel away
+            if (focused == panel) {
+                focused = null;
+            }
+            refocus();
+            return;
+        }
+
         isShowing = false;
         isAnimating = VoteKickClient.getClientConfig().isAnimationsEnabled();
 
@@ -561,11 +668,55 @@ public class VoteKickHud {
     }
 
     public static void markPlayerVoted() {
-        hasVoted = true;
+        if (focused == null) {
+            return;
+        }
+        focused.hasVoted = true;
+        // move on to the next vote still waiting for this player, if any
+        refocus();
     }
 
+    /**
+     * Forgets the last panel once it's fully hidden.
+     */
     public static void resetVoteState() {
-        hasVoted = false;
+        if (panels.isEmpty()) {
+            focused = null;
+        }
+    }
+
+    public static int getSessionId() {
+        return focused != null ? focused.sessionId : 0;
+    }
+
+    // stale packets for a session that already closed shouldn't touch any panel
+    private static Panel findPanel(int session) {
+        Panel panel = panels.get(session);
+        if (panel == null && session == 0) {
+            // a legacy-format server only sends us packets for the one vote on our panel
+            panel = focused != null && panels.get(focused.sessionId) == focused ? focused : null;
+        }
+        return panel;
+    }
+
+    // keeps the current focus while it still needs this player's vote, otherwise picks the oldest
+    // vote that does, and falls back to the newest one when there's nothing left to vote on
+    private static void refocus() {
+        if (focused != null && panels.get(focused.sessionId) == focused && focused.isOpenForVote()) {
+            return;
+        }
+
+        Panel pick = null;
+        for (Panel panel : panels.values()) {
+            if (panel.isOpenForVote()) {
+                focused = panel;
+                return;
+            }
+            pick = panel;
+        }
+        if (pick != null) {
+            focused = pick;
+        }
     }
 
     public static boolean isVotePanelShowing() {
@@ -577,6 +728,40 @@ public class VoteKickHud {
     }
 
     public static boolean hasPlayerVoted() {
-        return hasVoted;
+        return focused != null && focused.hasVoted;
+    }
+
+    // client-side state of one open vote
+    private static final class Panel {
+        final int sessionId;
+        boolean isVoteTarget;
+        boolean hasVoted;
+        String voteTitle = "";
+        String voteReason = "";
+        int timeRemaining;
+        // local countdown target; the server only sends occasional resyncs
+        long timerDeadlineNanos;
+        int yesVotes;
+        int noVotes;
+        int votesNeeded;
+        // cached wrapped text
+        List<FormattedCharSequence> wrappedReasonText;
+
+        Panel(int sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        boolean isOpenForVote() {
+            return !hasVoted && !isVoteTarget;
+        }
+
+        int secondsUntilDeadline() {
+            long remainingNanos = timerDeadlineNanos - System.nanoTime();
+            return remainingNanos > 0 ? (int) (remainingNanos / 1_000_000_000L) : 0;
+        }
+
+        void anchorTimer(int secondsRemaining) {
+            timerDeadlineNanos = System.nanoTime() + secondsRemaining * 1_000_000_000L;
+        }
     }
 }
@@ -12,22 +12,30 @@ import net.minecraft.commands.arguments.EntityArgument;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.Style;
 import net.minecraft.network.chat.TextColor;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sierra.thing.votekick.VoteKickMod;
 import sierra.thing.votekick.history.VoteHistoryEntry;
 import sierra.thing.votekick.history.VoteHistoryManager;
+import sierra.thing.votekick.history.VoteStatistics;
 import sierra.thing.votekick.permissions.VoteKickPermissions;
 import sierra.thing.votekick.protection.PlayerProtectionManager;
+import sierra.thing.votekick.ratelimit.RateLimitAction;
+import sierra.thing.votekick.ratelimit.VoteKickRateLimiter;
+import sierra.thing.votekick.vote.VoteAudience;
+import sierra.thing.votekick.vote.VoteEngine;
 import sierra.thing.votekick.vote.VoteOutcome;
+import sierra.thing.votekick.vote.VoteScope;
 import sierra.thing.votekick.vote.VoteSession;
+import sierra.thing.votekick.vote.port.VotePorts;
 
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
-import java.util.UUID;
+import java.util.List;
+import java.util.Locale;
 
 public class VoteKickCommand {
     private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
@@ -37,6 +45,7 @@ public class VoteKickCommand {
     private static final TextColor HIGHLIGHT_COLOR = TextColor.fromRgb(0xFFFF55);
     private static final TextColor INFO_COLOR = TextColor.fromRgb(0xAAAAAA);
     private static final int HISTORY_PAGE_SIZE = 5;
+    private static final int STATS_TOP_SIZE = 10;
     private static final DateTimeFormatter HISTORY_TIME_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
 
@@ -71,20 +80,92 @@ public class VoteKickCommand {
         LiteralArgumentBuilder<CommandSourceStack> adminCommand = Commands.literal("votekick-admin")
                 .requires(VoteKickPermissions::canAdmin)
                 .then(Commands.literal("cancel")
-                        .executes(context -> cancelVote(context.getSource()))
+                        .executes(context -> cancelVote(context.getSource(), null))
+                        .then(Commands.argument("target", EntityArgument.player())
+                                .executes(context -> cancelVote(context.getSource(),
+                                        EntityArgument.getPlayer(context, "target")))
+                        )
                 )
                 .then(Commands.literal("force")
-                        .executes(context -> forceVote(context.getSource()))
+                        .executes(context -> forceVote(context.getSource(), null))
+                        .then(Commands.argument("target", EntityArgument.player())
+                                .executes(context -> forceVote(context.getSource(),
+                                        EntityArgument.getPlayer(context, "target")))
+                        )
                 )
                 .then(Commands.literal("reload")
                         .executes(context -> reloadConfig(context.getSource()))
                 )
+                .then(Commands.literal("metrics")
+                        .executes(context -> showMetrics(context.getSource()))
+                )
                 .then(Commands.literal("history")
                         .executes(context -> showHistory(context.getSource(), 1))
+                        .then(Commands.literal("export")
+                                .executes(context -> exportHistory(context.getSource()))
+                        )
+                        .then(Commands.literal("target")
+                                .then(Commands.argument("player", StringArgumentType.word())
+                                        .executes(context -> showPlayerHistory(context.getSource(),
+                                                StringArgumentType.getString(context, "player"), true, 1))
+                                        .then(Commands.argument("page", IntegerArgumentType.integer(1))
+                                                .executes(context -> showPlayerHistory(context.getSource(),
+                                                        StringArgumentType.getString(context, "player"), true,
+                                                        IntegerArgumentType.getInteger(context, "page")))
+                                        )
+                                )
+                        )
+                        .then(Commands.literal("initiator")
+                                .then(Commands.argument("player", StringArgumentType.word())
+                                        .executes(context -> showPlayerHistory(context.getSource(),
+                                                StringArgumentType.getString(context, "player"), false, 1))
+                                        .then(Commands.argument("page", IntegerArgumentType.integer(1))
+                                                .executes(context -> showPlayerHistory(context.getSource(),
+                                                        StringArgumentType.getString(context, "player"), false,
+                                                        IntegerArgumentType.getInteger(context, "page")))
+                                        )
+                                )
+                        )
+                        .then(Commands.literal("outcome")
+                                .then(Commands.argument("outcome", StringArgumentType.word())
+                                        .executes(context -> showOutcomeHistory(context.getSource(),
+                                                StringArgumentType.getString(context, "outcome"), 1))
+                                        .then(Commands.argument("page", IntegerArgumentType.integer(1))
+                                                .executes(context -> showOutcomeHistory(context.getSource(),
+                                                        StringArgumentType.getString(context, "outcome"),
+                                                        IntegerArgumentType.getInteger(context, "page")))
+                                        )
+                                )
+                        )
+                        .then(Commands.literal("since")
+                                .then(Commands.argument("duration", StringArgumentType.word())
+                                        .executes(context -> showRecentHistory(context.getSource(),
+                                                StringArgumentType.getString(context, "duration"), 1))
+                                        .then(Commands.argument("page", IntegerArgumentType.integer(1))
+                                                .executes(context -> showRecentHistory(context.getSource(),
+                                                        StringArgumentType.getString(context, "duration"),
+                                                        IntegerArgumentType.getInteger(context, "page")))
+                                        )
+                                )
+                        )
                         .then(Commands.argument("page", IntegerArgumentType.integer(1))
                                 .executes(context -> showHistory(context.getSource(),
                                         IntegerArgumentType.getInteger(context, "page")))
                         )
+                )
+                .then(Commands.literal("stats")
+                        .executes(context -> showServerStats(context.getSource()))
+                        .then(Commands.literal("top")
+                                .executes(context -> showTopStats(context.getSource(), "targeted"))
+                                .then(Commands.argument("ranking", StringArgumentType.word())
+                                        .executes(context -> showTopStats(context.getSource(),
+                                                StringArgumentType.getString(context, "ranking")))
+                                )
+                        )
+                        .then(Commands.argument("player", StringArgumentType.word())
+                                .executes(context -> showPlayerStats(context.getSource(),
+                                        StringArgumentType.getString(context, "player")))
+                        )
                 );
 
         dispatcher.register(adminCommand);
@@ -92,13 +173,31 @@ public class VoteKickCommand {
         dispatcher.register(
                 Commands.literal("vote")
                         .then(Commands.literal("yes")
-                                .executes(ctx -> castVote(ctx.getSource(), true))
+                                .executes(ctx -> castVote(ctx.getSource(), true, null))
+                                .then(Commands.argument("target", EntityArgument.player())
+                                        .executes(ctx -> castVote(ctx.getSource(), true,
+                                                EntityArgument.getPlayer(ctx, "target")))
+                                )
                         )
                         .then(Commands.literal("no")
-                                .executes(ctx -> castVote(ctx.getSource(), false))
+                                .executes(ctx -> castVote(ctx.getSource(), false, null))
+                                .then(Commands.argument("target", EntityArgument.player())
+                                        .executes(ctx -> castVote(ctx.getSource(), false,
+                                                EntityArgument.getPlayer(ctx, "target")))
+                                )
                         )
                         .then(Commands.literal("status")
-                                .executes(ctx -> showVoteStatus(ctx.getSource()))
+                                .executes(ctx -> showVoteStatus(ctx.getSource(), null))
+                                .then(Commands.argument("target", EntityArgument.player())
+                                        .executes(ctx -> showVoteStatus(ctx.getSource(),
+                                                EntityArgument.getPlayer(ctx, "target")))
+                                )
+                        )
+                        .then(Commands.literal("announcements")
+                                .then(Commands.literal("on")
+                                        .executes(ctx -> setVoteAnnouncements(ctx.getSource(), true)))
+                                .then(Commands.literal("off")
+                                        .executes(ctx -> setVoteAnnouncements(ctx.getSource(), false)))
                         )
                         .executes(ctx -> showVoteHelp(ctx.getSource()))
         );
@@ -110,6 +209,9 @@ public class VoteKickCommand {
     public static int startVoteKick(CommandSourceStack source, ServerPlayer target, String reason) throws CommandSyntaxException {
         try {
             ServerPlayer player = source.getPlayerOrException();
+            if (!checkRateLimit(source, RateLimitAction.START_VOTE)) {
+                return 0;
+            }
 
             if (!VoteKickPermissions.canStartVote(player)) {
                 sendError(player, "You do not have permission to start vote kicks");
@@ -142,6 +244,11 @@ public class VoteKickCommand {
             }
 
             PlayerProtectionManager protectionManager = VoteKickMod.getProtectionManager();
+            // immunity, kick history and the threshold modifier all come from this record
+            if (protectionManager.isLoading(target.getUUID())) {
+                sendError(player, "Protection data for this player is still loading, try again in a moment");
+                return 0;
+            }
             if (protectionManager.isProtected(target.getUUID())) {
                 int remaining = protectionManager.getRemainingProtectionTime(target.getUUID());
                 sendError(player, "This player has immunity for " + remaining + " more seconds");
@@ -160,15 +267,30 @@ public class VoteKickCommand {
                 return 0;
             }
 
-            if (!VoteKickMod.getActiveVotes().isEmpty()) {
-                sendError(player, "A vote is already in progress");
+            VoteEngine engine = VoteKickMod.getVoteEngine();
+            if (engine.get(target.getUUID()) != null) {
+                sendError(player, "A vote against " + VoteKickMod.profileName(target.getGameProfile()) +
+                        " is already in progress");
+                return 0;
+            }
+
+            if (engine.isFull()) {
+                sendError(player, "Too many votes are running (" + engine.getMaxConcurrent() +
+                        "), wait for one to finish");
                 return 0;
             }
 
-            int playerCount = source.getServer().getPlayerList().getPlayerCount();
+            VoteScope scope = VoteKickMod.getConfig().getVoteScope();
+            int scopeRadius = VoteKickMod.getConfig().getVoteScopeRadius();
+            VotePorts ports = VoteKickMod.getPorts();
+            VoteAudience audience = new VoteAudience(scope, scopeRadius, target.getUUID(), player.getUUID(),
+                    ports.players());
+            audience.rebuild(null, null);
+
+            int playerCount = audience.size();
             if (playerCount < VoteKickMod.getConfig().getMinimumPlayers()) {
                 sendError(player, "At least " + VoteKickMod.getConfig().getMinimumPlayers() +
-                        " players must be online for voting");
+                        " players must be " + scope.describeWhere(scopeRadius) + " for voting");
                 return 0;
             }
 
@@ -190,10 +312,15 @@ public class VoteKickCommand {
                     VoteKickMod.profileName(target.getGameProfile()),
                     reason,
                     playerCount,
-                    VoteKickMod.getConfig().getVoteDurationSeconds()
+                    VoteKickMod.getConfig().getVoteDurationSeconds(),
+                    audience,
+                    ports
             );
 
-            VoteKickMod.addVote(target.getUUID(), session);
+            if (!VoteKickMod.addVote(session)) {
+                sendError(player, "Could not start the vote, try again in a moment");
+                return 0;
+            }
 
             Component announcement = Component.literal(
                             VoteKickMod.profileName(player.getGameProfile()) + " started a vote to kick " +
@@ -205,13 +332,14 @@ public class VoteKickCommand {
                                     VoteKickMod.getConfig().getVoteDurationSeconds() + "s to vote)")
                     .setStyle(Style.EMPTY.withColor(HIGHLIGHT_COLOR));
 
-            source.getServer().getPlayerList().broadcastSystemMessage(announcement, false);
-            source.getServer().getPlayerList().broadcastSystemMessage(reasonText, false);
+            audience.broadcast(ports.messages(), announcement);
+            audience.broadcast(ports.messages(), reasonText);
 
-            source.getServer().getPlayerList().broadcastSystemMessage(
-                    Component.literal("Type /vote yes or /vote no to cast your vote")
-                            .setStyle(Style.EMPTY.withColor(INFO_COLOR)),
-                    false
+            // with several votes running, a bare /vote yes can't tell which one is meant
+            String voteSuffix = engine.size() > 1 ? " " + VoteKickMod.profileName(target.getGameProfile()) : "";
+            audience.broadcast(ports.messages(),
+                    Component.literal("Type /vote yes" + voteSuffix + " or /vote no" + voteSuffix + " to cast your vote")
+                            .setStyle(Style.EMPTY.withColor(INFO_COLOR))
             );
 
             return 1;
@@ -222,28 +350,63 @@ public class VoteKickCommand {
         }
     }
 
-    private static int castVote(CommandSourceStack source, boolean inFavor) throws CommandSyntaxException {
-        return castVote(source.getPlayerOrException(), inFavor);
+    private static int castVote(CommandSourceStack source, boolean inFavor, ServerPlayer target) throws CommandSyntaxException {
+        ServerPlayer player = source.getPlayerOrException();
+        if (!checkRateLimit(source, RateLimitAction.CAST_VOTE)) {
+            return 0;
+        }
+        if (target == null) {
+            return castVote(player, inFavor, 0);
+        }
+
+        VoteSession session = VoteKickMod.getVoteEngine().get(target.getUUID());
+        if (session == null) {
+            sendError(player, "There is no vote against " + VoteKickMod.profileName(target.getGameProfile()));
+            return 0;
+        }
+        return castVote(player, inFavor, session);
     }
 
-    public static int castVote(ServerPlayer player, boolean inFavor) {
+    /**
+     * Casts a vote on the session the player's panel belongs to. Session 0 (legacy clients,
+     * plain /vote yes) means the vote on a legacy client's panel, else the only vote this player
+     * can still take part in.
+     */
+    public static int castVote(ServerPlayer player, boolean inFavor, int sessionId) {
+        VoteEngine engine = VoteKickMod.getVoteEngine();
+        if (engine.isEmpty()) {
+            sendError(player, "There is no vote in progress");
+            return 0;
+        }
+
+        VoteSession session = sessionId != 0 ? engine.get(sessionId) : pickVoteFor(player);
+        if (session == null) {
+            if (sessionId != 0) {
+                sendError(player, "That vote has already ended");
+            } else if (!isInAnyVote(player)) {
+                sendError(player, "You're not part of any vote in progress");
+            } else {
+                sendError(player, "Several votes are running, use /vote yes <player> or /vote no <player>");
+            }
+            return 0;
+        }
+        return castVote(player, inFavor, session);
+    }
+
+    private static int castVote(ServerPlayer player, boolean inFavor, VoteSession session) {
         try {
             if (!VoteKickPermissions.canVote(player)) {
                 sendError(player, "You do not have permission to vote");
                 return 0;
             }
 
-            Map<UUID, VoteSession> activeVotes = VoteKickMod.getActiveVotes();
-
-            if (activeVotes.isEmpty()) {
-                sendError(player, "There is no vote in progress");
+            if (player.getUUID().equals(session.getTargetUUID())) {
+                sendError(player, "You cannot vote on your own kick");
                 return 0;
             }
 
-            VoteSession session = activeVotes.values().iterator().next();
-
-            if (player.getUUID().equals(session.getTargetUUID())) {
-                sendError(player, "You cannot vote on your own kick");
+            if (!session.getAudience().contains(player.getUUID())) {
+                sendError(player, "You're not part of the vote against " + session.getTargetName());
                 return 0;
             }
 
@@ -252,7 +415,7 @@ public class VoteKickCommand {
                 return 1;
             }
 
-            if (session.castVote(player, inFavor)) {
+            if (session.castVote(player.getUUID(), player.getScoreboardName(), inFavor)) {
                 String voteText = inFavor ? "YES" : "NO";
                 player.sendSystemMessage(Component.literal("You voted " + voteText)
                         .setStyle(Style.EMPTY.withColor(inFavor ? SUCCESS_COLOR : ERROR_COLOR)));
@@ -268,14 +431,34 @@ public class VoteKickCommand {
         }
     }
 
-    private static int showVoteStatus(CommandSourceStack source) {
+    private static int showVoteStatus(CommandSourceStack source, ServerPlayer target) {
+        if (!checkRateLimit(source, RateLimitAction.QUERY)) {
+            return 0;
+        }
         try {
-            if (VoteKickMod.getActiveVotes().isEmpty()) {
+            VoteEngine engine = VoteKickMod.getVoteEngine();
+            if (engine.isEmpty()) {
                 sendInfo(source, "There is no vote in progress");
                 return 0;
             }
 
-            VoteSession session = VoteKickMod.getActiveVotes().values().iterator().next();
+            if (target == null && engine.size() > 1) {
+                source.sendSuccess(() -> Component.literal("=== Active Votes (" + engine.size() + ") ===")
+                        .setStyle(Style.EMPTY.withColor(HIGHLIGHT_COLOR)), false);
+                for (VoteSession session : engine.sessions()) {
+                    String line = session.getTargetName() + " (by " + session.getInitiatorName() + "): " +
+                            session.getYesVotes() + " yes, " + session.getNoVotes() + " no, " +
+                            session.getTotalVotesNeeded() + " needed, " + session.getSecondsRemaining() + "s left";
+                    source.sendSuccess(() -> Component.literal(line), false);
+                }
+                sendInfo(source, "Use /vote status <player> for details");
+                return 1;
+            }
+
+            VoteSession session = findVote(source, target);
+            if (session == null) {
+                return 0;
+            }
 
             source.sendSuccess(() -> Component.literal("=== Current Vote Status ===")
                     .setStyle(Style.EMPTY.withColor(HIGHLIGHT_COLOR)), false);
@@ -297,6 +480,9 @@ public class VoteKickCommand {
     }
 
     private static int showVoteKickHelp(CommandSourceStack source) {
+        if (!checkRateLimit(source, RateLimitAction.QUERY)) {
+            return 0;
+        }
         source.sendSuccess(() -> Component.literal("===== VoteKick Help =====")
                 .setStyle(Style.EMPTY.withColor(HIGHLIGHT_COLOR)), false);
 
@@ -308,36 +494,52 @@ public class VoteKickCommand {
             source.sendSuccess(() -> Component.literal("/vk <player> [reason] - Shorthand for /votekick"), false);
         }
 
-        source.sendSuccess(() -> Component.literal("Use /vote yes or /vote no to vote on active kicks"), false);
-        source.sendSuccess(() -> Component.literal("Use /vote status to check the current vote"), false);
+        source.sendSuccess(() -> Component.literal("Use /vote yes [player] or /vote no [player] to vote on active kicks"), false);
+        source.sendSuccess(() -> Component.literal("Use /vote status to check running votes"), false);
         if (VoteKickPermissions.canAdmin(source)) {
-            source.sendSuccess(() -> Component.literal("Admin: /votekick-admin <cancel|force|reload|history>")
+            source.sendSuccess(() -> Component.literal("Admin: /votekick-admin <cancel|force|reload|history|metrics> [player]")
                     .setStyle(Style.EMPTY.withColor(INFO_COLOR)), false);
         }
         return 1;
     }
 
+    private static int setVoteAnnouncements(CommandSourceStack source, boolean enabled) throws CommandSyntaxException {
+        ServerPlayer player = source.getPlayerOrException();
+        if (!checkRateLimit(source, RateLimitAction.QUERY)) {
+            return 0;
+        }
+        VoteKickMod.getChatPreferences().setVoteAnnouncements(player.getUUID(), enabled);
+        sendSuccess(player, enabled
+                ? "You'll see votes as they come in"
+                : "Votes from other players won't show in your chat anymore");
+        return 1;
+    }
+
     private static int showVoteHelp(CommandSourceStack source) {
+        if (!checkRateLimit(source, RateLimitAction.QUERY)) {
+            return 0;
+        }
         source.sendSuccess(() -> Component.literal("===== Vote Commands =====")
                 .setStyle(Style.EMPTY.withColor(HIGHLIGHT_COLOR)), false);
-        source.sendSuccess(() -> Component.literal("/vote yes - Vote YES to current vote"), false);
-        source.sendSuccess(() -> Component.literal("/vote no - Vote NO to current vote"), false);
-        source.sendSuccess(() -> Component.literal("/vote status - Show current vote status"), false);
+        source.sendSuccess(() -> Component.literal("/vote yes [player] - Vote YES to current vote"), false);
+        source.sendSuccess(() -> Component.literal("/vote no [player] - Vote NO to current vote"), false);
+        source.sendSuccess(() -> Component.literal("/vote status [player] - Show current vote status"), false);
+        source.sendSuccess(() -> Component.literal("Name the player when several votes are running"), false);
+        source.sendSuccess(() -> Component.literal("/vote announcements on|off - Show or hide who voted in chat"), false);
         source.sendSuccess(() -> Component.literal("/v yes, /v no - Shorthand commands"), false);
         return 1;
     }
 
-    private static int cancelVote(CommandSourceStack source) {
+    private static int cancelVote(CommandSourceStack source, ServerPlayer target) {
         try {
-            if (VoteKickMod.getActiveVotes().isEmpty()) {
-                sendInfo(source, "There is no vote in progress");
+            VoteSession session = findVote(source, target);
+            if (session == null) {
                 return 0;
             }
 
-            VoteSession session = VoteKickMod.getActiveVotes().values().iterator().next();
             String actorName = getActorName(source);
-            session.endVote(source.getServer(), VoteOutcome.CANCELED, actorName, null, false);
-            VoteKickMod.removeVote(session.getTargetUUID());
+            session.endVote(VoteOutcome.CANCELED, actorName, null, false);
+            VoteKickMod.getVoteEngine().remove(session);
 
             return 1;
         } catch (Exception e) {
@@ -347,17 +549,16 @@ public class VoteKickCommand {
         }
     }
 
-    private static int forceVote(CommandSourceStack source) {
+    private static int forceVote(CommandSourceStack source, ServerPlayer target) {
         try {
-            if (VoteKickMod.getActiveVotes().isEmpty()) {
-                sendInfo(source, "There is no vote in progress");
+            VoteSession session = findVote(source, target);
+            if (session == null) {
                 return 0;
             }
 
-            VoteSession session = VoteKickMod.getActiveVotes().values().iterator().next();
             String actorName = getActorName(source);
-            session.endVote(source.getServer(), VoteOutcome.FORCED_PASS, actorName, null, true);
-            VoteKickMod.removeVote(session.getTargetUUID());
+            session.endVote(VoteOutcome.FORCED_PASS, actorName, null, true);
+            VoteKickMod.getVoteEngine().remove(session);
 
             return 1;
         } catch (Exception e) {
@@ -380,6 +581,9 @@ public class VoteKickCommand {
     }
 
     private static int showHistory(CommandSourceStack source, int page) {
+        if (!checkRateLimit(source, RateLimitAction.HISTORY)) {
+            return 0;
+        }
         try {
             if (!VoteKickMod.getConfig().isHistoryEnabled()) {
                 sendInfo(source, "Vote history is disabled in config");
@@ -395,27 +599,73 @@ public class VoteKickCommand {
             int maxPage = history.getMaxPages(HISTORY_PAGE_SIZE);
             int targetPage = Math.min(Math.max(page, 1), maxPage);
 
-            source.sendSuccess(() -> Component.literal("=== Vote History (page " + targetPage + "/" + maxPage + ") ===")
-                    .setStyle(Style.EMPTY.withColor(HIGHLIGHT_COLOR)), false);
+            List<VoteHistoryEntry> entries = history.getEntriesPage(targetPage, HISTORY_PAGE_SIZE);
+            sendHistoryPage(source, "=== Vote History (page " + targetPage + "/" + maxPage + ") ===", entries);
+            return 1;
+        } catch (Exception e) {
+            LOGGER.error("Error showing history", e);
+            sendError(source, "An error occurred while showing vote history");
+            return 0;
+        }
+    }
+
+    private static int showPlayerHistory(CommandSourceStack source, String player, boolean asTarget, int page) {
+        if (!checkRateLimit(source, RateLimitAction.HISTORY)) {
+            return 0;
+        }
+        try {
+            if (!VoteKickMod.getConfig().isHistoryEnabled()) {
+                sendInfo(source, "Vote history is disabled in config");
+                return 0;
+            }
+
+            VoteHistoryManager history = VoteKickMod.getHistoryManager();
+            // online players by name first, then whoever history last saw under it
+            ServerPlayer online = source.getServer().getPlayerList().getPlayerByName(player);
+            String uuid = online != null ? online.getUUID().toString() : history.resolvePlayer(player);
+            VoteHistoryManager.Page result = asTarget
+                    ? history.getTargetPage(uuid, page, HISTORY_PAGE_SIZE)
+                    : history.getInitiatorPage(uuid, page, HISTORY_PAGE_SIZE);
+            if (result.total() == 0) {
+                sendInfo(source, asTarget ? "No votes against " + player + " in history" : "No votes started by " + player + " in history");
+                return 0;
+            }
+
+            String title = asTarget ? "Votes against " + player : "Votes started by " + player;
+            sendHistoryPage(source, "=== " + title + " (page " + result.page() + "/" + result.maxPage() + ") ===",
+                    result.entries());
+            return 1;
+        } catch (Exception e) {
+            LOGGER.error("Error showing history", e);
+            sendError(source, "An error occurred while showing vote history");
+            return 0;
+        }
+    }
 
-            for (VoteHistoryEntry entry : history.getEntriesPage(targetPage, HISTORY_PAGE_SIZE)) {
-                String time = HISTORY_TIME_FORMATTER.format(Instant.ofEpochMilli(entry.timestamp));
-                String outcomeLabel = entry.outcome != null ? entry.outcome.getLabel() : "Unknown";
-                String actorSuffix = entry.endedBy != null && !entry.endedBy.isBlank()
-                        ? " (by " + entry.endedBy + ")"
-                        : "";
-                String reason = truncate(sanitizeReason(entry.reason), 80);
-                String reasonPart = reason.isBlank() ? "" : " | reason: " + reason;
+    private static int showOutcomeHistory(CommandSourceStack source, String outcomeName, int page) {
+        if (!checkRateLimit(source, RateLimitAction.HISTORY)) {
+            return 0;
+        }
+        try {
+            if (!VoteKickMod.getConfig().isHistoryEnabled()) {
+                sendInfo(source, "Vote history is disabled in config");
+                return 0;
+            }
 
-                String line = "[" + time + "] " + outcomeLabel + actorSuffix +
-                        " | " + entry.initiatorName + " -> " + entry.targetName +
-                        " | yes:" + entry.yesVotes + " no:" + entry.noVotes +
-                        " needed:" + entry.votesNeeded +
-                        reasonPart;
+            VoteOutcome outcome = parseOutcome(outcomeName);
+            if (outcome == null) {
+                sendError(source, "Unknown outcome, use passed, failed, canceled or forced");
+                return 0;
+            }
 
-                source.sendSuccess(() -> Component.literal(line).setStyle(Style.EMPTY.withColor(INFO_COLOR)), false);
+            VoteHistoryManager.Page result = VoteKickMod.getHistoryManager().getOutcomePage(outcome, page, HISTORY_PAGE_SIZE);
+            if (result.total() == 0) {
+                sendInfo(source, "No " + outcome.getLabel().toLowerCase(Locale.ROOT) + " votes in history");
+                return 0;
             }
 
+            sendHistoryPage(source, "=== " + outcome.getLabel() + " Votes (page " + result.page() + "/" +
+                    result.maxPage() + ") ===", result.entries());
             return 1;
         } catch (Exception e) {
             LOGGER.error("Error showing history", e);
@@ -424,6 +674,329 @@ public class VoteKickCommand {
         }
     }
 
+    private static int showRecentHistory(CommandSourceStack source, String duration, int page) {
+        if (!checkRateLimit(source, RateLimitAction.HISTORY)) {
+            return 0;
+        }
+        try {
+            if (!VoteKickMod.getConfig().isHistoryEnabled()) {
+                sendInfo(source, "Vote history is disabled in config");
+                return 0;
+            }
+
+            long millis = parseDuration(duration);
+            if (millis <= 0) {
+                sendError(source, "Invalid duration, use something like 30m, 12h, 7d or 2w");
+                return 0;
+            }
+
+            long since = VoteKickMod.getClock().wallMillis() - millis;
+            VoteHistoryManager.Page result = VoteKickMod.getHistoryManager().getSincePage(since, page, HISTORY_PAGE_SIZE);
+            if (result.total() == 0) {
+                sendInfo(source, "No votes in the last " + duration);
+                return 0;
+            }
+
+            sendHistoryPage(source, "=== Votes in the last " + duration + " (page " + result.page() + "/" +
+                    result.maxPage() + ") ===", result.entries());
+            return 1;
+        } catch (Exception e) {
+            LOGGER.error("Error showing history", e);
+            sendError(source, "An error occurred while showing vote history");
+            return 0;
+        }
+    }
+
+    private static int showServerStats(CommandSourceStack source) {
+        if (!checkRateLimit(source, RateLimitAction.HISTORY)) {
+            return 0;
+        }
+        if (!VoteKickMod.getConfig().isHistoryEnabled()) {
+            sendInfo(source, "Vote history is disabled in config");
+            return 0;
+        }
+
+        VoteStatistics statistics = VoteKickMod.getHistoryManager().getStatistics();
+        VoteStatistics.PlayerStats totals = statistics.totals();
+        source.sendSuccess(() -> Component.literal("===== VoteKick Stats =====")
+                .setStyle(Style.EMPTY.withColor(HIGHLIGHT_COLOR)), false);
+        sendInfo(source, totals.targeted() + " votes: " + totals.targetedPassed() + " passed, " +
+                totals.targetedFailed() + " failed (" + formatPercent(totals.passRate()) + " pass rate)");
+        sendInfo(source, "Average yes share: " + formatPercent(totals.averageYesRatio()) + ", " +
+                statistics.playerCount() + " players involved");
+        return 1;
+    }
+
+    private static int showPlayerStats(CommandSourceStack source, String player) {
+        if (!checkRateLimit(source, RateLimitAction.HISTORY)) {
+            return 0;
+        }
+        try {
+            if (!VoteKickMod.getConfig().isHistoryEnabled()) {
+                sendInfo(source, "Vote history is disabled in config");
+                return 0;
+            }
+
+            VoteHistoryManager history = VoteKickMod.getHistoryManager();
+            ServerPlayer online = source.getServer().getPlayerList().getPlayerByName(player);
+            String uuid = online != null ? online.getUUID().toString() : history.resolvePlayer(player);
+            VoteStatistics.PlayerStats stats = history.getStatistics().get(uuid);
+            if (stats == null) {
+                sendInfo(source, "No votes involving " + player);
+                return 0;
+            }
+
+            String name = stats.name().isEmpty() ? player : stats.name();
+            source.sendSuccess(() -> Component.literal("===== Stats for " + name + " =====")
+                    .setStyle(Style.EMPTY.withColor(HIGHLIGHT_COLOR)), false);
+            sendInfo(source, "Targeted " + stats.targeted() + " times: " + stats.targetedPassed() + " passed, " +
+                    stats.targetedFailed() + " failed (" + formatPercent(stats.passRate()) + " pass rate)");
+            sendInfo(source, "Average yes share against them: " + formatPercent(stats.averageYesRatio()));
+            sendInfo(source, "Started " + stats.initiated() + " votes, " + stats.initiatedPassed() + " passed (" +
+                    formatPercent(stats.initiatedPassRate()) + ")");
+            return 1;
+        } catch (Exception e) {
+            LOGGER.error("Error showing stats", e);
+            sendError(source, "An error occurred while showing vote stats");
+            return 0;
+        }
+    }
+
+    private static int showTopStats(CommandSourceStack source, String ranking) {
+        if (!checkRateLimit(source, RateLimitAction.HISTORY)) {
+            return 0;
+        }
+        if (!VoteKickMod.getConfig().isHistoryEnabled()) {
+            sendInfo(source, "Vote history is disabled in config");
+            return 0;
+        }
+
+        boolean byInitiated;
+        if (ranking.equalsIgnoreCase("targeted")) {
+            byInitiated = false;
+        } else if (ranking.equalsIgnoreCase("initiated")) {
+            byInitiated = true;
+        } else {
+            sendError(source, "Unknown ranking, use targeted or initiated");
+            return 0;
+        }
+
+        List<VoteStatistics.PlayerStats> top = VoteKickMod.getHistoryManager().getStatistics().top(byInitiated, STATS_TOP_SIZE);
+        if (top.isEmpty()) {
+            sendInfo(source, "No votes recorded yet");
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal(byInitiated ? "===== Most Votes Started =====" : "===== Most Targeted =====")
+                .setStyle(Style.EMPTY.withColor(HIGHLIGHT_COLOR)), false);
+        for (int i = 0; i < top.size(); i++) {
+            VoteStatistics.PlayerStats stats = top.get(i);
+            String name = stats.name().isEmpty() ? stats.uuid() : stats.name();
+            String line = byInitiated
+                    ? (i + 1) + ". " + name + ": " + stats.initiated() + " started, " + formatPercent(stats.initiatedPassRate()) + " passed"
+                    : (i + 1) + ". " + name + ": " + stats.targeted() + " against, " + formatPercent(stats.passRate()) + " passed";
+            source.sendSuccess(() -> Component.literal(line), false);
+        }
+        return 1;
+    }
+
+    private static String formatPercent(double ratio) {
+        return String.format("%.0f%%", ratio * 100);
+    }
+
+    private static void sendHistoryPage(CommandSourceStack source, String title, List<VoteHistoryEntry> entries) {
+        source.sendSuccess(() -> Component.literal(title)
+                .setStyle(Style.EMPTY.withColor(HIGHLIGHT_COLOR)), false);
+
+        for (VoteHistoryEntry entry : entries) {
+            String time = HISTORY_TIME_FORMATTER.format(Instant.ofEpochMilli(entry.timestamp));
+            String outcomeLabel = entry.outcome != null ? entry.outcome.getLabel() : "Unknown";
+            String actorSuffix = entry.endedBy != null && !entry.endedBy.isBlank()
+                    ? " (by " + entry.endedBy + ")"
+                    : "";
+            String reason = truncate(sanitizeReason(entry.reason), 80);
+            String reasonPart = reason.isBlank() ? "" : " | reason: " + reason;
+
+            String line = "[" + time + "] " + outcomeLabel + actorSuffix +
+                    " | " + entry.initiatorName + " -> " + entry.targetName +
+                    " | yes:" + entry.yesVotes + " no:" + entry.noVotes +
+                    " needed:" + entry.votesNeeded +
+                    reasonPart;
+
+            source.sendSuccess(() -> Component.literal(line).setStyle(Style.EMPTY.withColor(INFO_COLOR)), false);
+        }
+    }
+
+    // "forced" is what history shows for FORCED_PASS, so take that too
+    private static VoteOutcome parseOutcome(String name) {
+        for (VoteOutcome outcome : VoteOutcome.values()) {
+            if (outcome.name().equalsIgnoreCase(name) || outcome.getLabel().equalsIgnoreCase(name)) {
+                return outcome;
+            }
+        }
+        return null;
+    }
+
+    // 90s, 30m, 12h, 7d, 2w; -1 if it isn't one of those
+    private static long parseDuration(String text) {
+        if (text == null || text.length() < 2) {
+            return -1;
+        }
+        long unit = switch (Character.toLowerCase(text.charAt(text.length() - 1))) {
+            case 's' -> 1000L;
+            case 'm' -> 60_000L;
+            case 'h' -> 3_600_000L;
+            case 'd' -> 86_400_000L;
+            case 'w' -> 7 * 86_400_000L;
+            default -> -1;
+        };
+        if (unit < 0) {
+            return -1;
+        }
+        try {
+            long amount = Long.parseLong(text.substring(0, text.length() - 1));
+            return amount > 0 && amount <= Long.MAX_VALUE / unit ? amount * unit : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int exportHistory(CommandSourceStack source) {
+        if (!checkRateLimit(source, RateLimitAction.HISTORY)) {
+            return 0;
+        }
+        try {
+            VoteHistoryManager history = VoteKickMod.getHistoryManager();
+            int count = history.size();
+            MinecraftServer server = source.getServer();
+
+            history.exportJson().whenComplete((file, error) -> server.execute(() -> {
+                if (error != null) {
+                    LOGGER.error("Error exporting history", error);
+                    sendError(source, "Failed to export vote history, check the server log");
+                } else {
+                    sendInfo(source, "Exported " + count + " vote history entries to " + file.getName());
+                }
+            }));
+            return 1;
+        } catch (Exception e) {
+            LOGGER.error("Error exporting history", e);
+            sendError(source, "An error occurred while exporting vote history");
+            return 0;
+        }
+    }
+
+    // the vote against target, or the only running vote when no target was given; reports why not otherwise
+    private static VoteSession findVote(CommandSourceStack source, ServerPlayer target) {
+        VoteEngine engine = VoteKickMod.getVoteEngine();
+        if (engine.isEmpty()) {
+            sendInfo(source, "There is no vote in progress");
+            return null;
+        }
+
+        if (target != null) {
+            VoteSession session = engine.get(target.getUUID());
+            if (session == null) {
+                sendInfo(source, "There is no vote against " + VoteKickMod.profileName(target.getGameProfile()));
+            }
+            return session;
+        }
+
+        if (engine.size() > 1) {
+            sendError(source, "Several votes are running, name the target player");
+            return null;
+        }
+        return engine.sessions().iterator().next();
+    }
+
+    // for a bare /vote: the one session this player can still vote on, else the only session if there's just one
+    private static VoteSession pickVoteFor(ServerPlayer player) {
+        VoteEngine engine = VoteKickMod.getVoteEngine();
+        // a client that shows one panel at a time votes on the one it's showing
+        VoteSession shown = engine.shownOnSinglePanel(player.getUUID());
+        if (shown != null) {
+            return shown;
+        }
+        if (engine.size() == 1) {
+            return engine.sessions().iterator().next();
+        }
+
+        VoteSession open = null;
+        for (VoteSession session : engine.sessions()) {
+            if (player.getUUID().equals(session.getTargetUUID()) || session.hasPlayerVoted(player.getUUID())
+                    || !session.getAudience().contains(player.getUUID())) {
+                continue;
+            }
+            if (open != null) {
+                return null;
+            }
+            open = session;
+        }
+        return open;
+    }
+
+    private static int showMetrics(CommandSourceStack source) {
+        source.sendSuccess(() -> Component.literal("===== VoteKick Rate Limits =====")
+                .setStyle(Style.EMPTY.withColor(HIGHLIGHT_COLOR)), false);
+        if (!VoteKickMod.getConfig().isRateLimitsEnabled()) {
+            sendInfo(source, "Rate limits are disabled in config");
+        }
+
+        for (RateLimitAction action : RateLimitAction.values()) {
+            VoteKickRateLimiter.Stats stats = VoteKickRateLimiter.stats(action);
+            String line = action.getConfigName() + ": " + stats.allowed() + " allowed, " +
+                    stats.rejected() + " rejected (" + stats.rejectedByPlayer() + " player, " +
+                    stats.rejectedByGlobal() + " global)";
+            source.sendSuccess(() -> Component.literal(line), false);
+        }
+        sendInfo(source, VoteKickRateLimiter.trackedPlayers() + " players tracked, " +
+                VoteKickRateLimiter.evictedPlayers() + " idle ones dropped so far");
+
+        PlayerProtectionManager.ExpiryStats expiry = VoteKickMod.getProtectionManager().getExpiryStats();
+        source.sendSuccess(() -> Component.literal("===== VoteKick Protection Expiry =====")
+                .setStyle(Style.EMPTY.withColor(HIGHLIGHT_COLOR)), false);
+        source.sendSuccess(() -> Component.literal("Last sweep: " + expiry.lastChecked() + " checked, " +
+                expiry.lastExpired() + " expired in " + formatMillis(expiry.lastSweepNanos()) +
+                " (worst " + formatMillis(expiry.worstSweepNanos()) + ")"), false);
+        sendInfo(source, expiry.backlog() + " due, " + expiry.indexed() + " indexed, " +
+                expiry.expiredTotal() + " expired so far");
+        source.sendSuccess(() -> Component.literal("Known players: " + expiry.knownPlayers() + ", last eviction step " +
+                formatMillis(expiry.lastEvictNanos()) + " (worst " + formatMillis(expiry.worstEvictNanos()) + "), " +
+                expiry.evictedTotal() + " forgotten so far"), false);
+        sendInfo(source, VoteKickMod.getProtectionManager().getLoadedRecordCount() + " protection records in memory");
+
+        VoteHistoryManager history = VoteKickMod.getHistoryManager();
+        sendInfo(source, history.size() + " vote history entries, " + history.cachedSize() + " in memory");
+        return 1;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+
+    // sends the error itself. only players are limited, the console never is
+    private static boolean checkRateLimit(CommandSourceStack source, RateLimitAction action) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            return true;
+        }
+
+        long waitMillis = VoteKickRateLimiter.tryAcquire(player.getUUID(), action);
+        if (waitMillis == 0) {
+            return true;
+        }
+        sendError(source, "You're doing that too often, try again in " + Math.max(1, (waitMillis + 999) / 1000) + "s");
+        return false;
+    }
+
+    private static boolean isInAnyVote(ServerPlayer player) {
+        for (VoteSession session : VoteKickMod.getVoteEngine().sessions()) {
+            if (session.getAudience().contains(player.getUUID())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static void sendError(CommandSourceStack source, String message) {
         source.sendFailure(Component.literal(message).setStyle(Style.EMPTY.withColor(ERROR_COLOR)));
     }
@@ -15,13 +15,12 @@ import sierra.thing.votekick.VoteKickMod;
 import sierra.thing.votekick.commands.VoteKickCommand;
 import sierra.thing.votekick.permissions.VoteKickPermissions;
 import sierra.thing.votekick.protection.PlayerProtectionManager;
+import sierra.thing.votekick.vote.VoteSession;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -36,13 +35,13 @@ public final class VoteKickDevCommand {
     private static final String NAME_PREFIX = "vk_test_";
     private static final int NAME_ATTEMPTS = 6;
     private static final String TEST_REASON = "devtest";
-    private static final int SPAWN_CHECK_INTERVAL_MS = 250;
+    private static final int SPAWN_CHECK_INTERVAL_TICKS = 5;
     private static final int SPAWN_CHECK_ATTEMPTS = 20;
-    private static final int SECOND_SPAWN_DELAY_MS = 500;
-    private static final int VOTE_START_DELAY_MS = 1500;
-    private static final int AUTO_VOTE_DELAY_MS = 2500;
-    private static final int CLEANUP_DELAY_MS = 8000;
-    private static final Timer CLEANUP_TIMER = new Timer("votekick-devtest-cleanup", true);
+    private static final int SECOND_SPAWN_DELAY_TICKS = 10;
+    private static final int VOTE_START_DELAY_TICKS = 30;
+    private static final int AUTO_VOTE_DELAY_TICKS = 50;
+    private static final int CLEANUP_DELAY_TICKS = 160;
+    private static final double TICKS_PER_SECOND = 20.0;
     private static final Set<String> ACTIVE_TEST_PLAYERS = ConcurrentHashMap.newKeySet();
 
     private VoteKickDevCommand() {
@@ -75,8 +74,8 @@ public final class VoteKickDevCommand {
             return 0;
         }
 
-        if (!VoteKickMod.getActiveVotes().isEmpty()) {
-            sendError(source, "A vote is already in progress. Finish it before running the dev test.");
+        if (VoteKickMod.getVoteEngine().isFull()) {
+            sendError(source, "Too many votes are running. Finish one before running the dev test.");
             return 0;
         }
 
@@ -91,9 +90,9 @@ public final class VoteKickDevCommand {
         spawnedPlayers.add(firstName);
         registerTestPlayer(firstName);
 
-        sendInfo(source, "Dev test scheduled: vote starts in " + (VOTE_START_DELAY_MS / 1000.0) + "s, " +
-                "auto-votes in " + (AUTO_VOTE_DELAY_MS / 1000.0) + "s, cleanup in " +
-                (CLEANUP_DELAY_MS / 1000.0) + "s.");
+        sendInfo(source, "Dev test scheduled: vote starts in " + (VOTE_START_DELAY_TICKS / TICKS_PER_SECOND) + "s, " +
+                "auto-votes in " + (AUTO_VOTE_DELAY_TICKS / TICKS_PER_SECOND) + "s, cleanup in " +
+                (CLEANUP_DELAY_TICKS / TICKS_PER_SECOND) + "s.");
 
         scheduleFirstJoinCheck(source, server, spawnedPlayers, firstName, secondName, SPAWN_CHECK_ATTEMPTS);
         return 1;
@@ -172,200 +171,172 @@ public final class VoteKickDevCommand {
             return;
         }
 
-        CLEANUP_TIMER.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                server.execute(() -> {
-                    if (shouldAbort(server)) {
-                        return;
-                    }
-                    cleanupNow(server, names);
-                });
+        VoteKickMod.getScheduler().schedule(CLEANUP_DELAY_TICKS, () -> {
+            if (shouldAbort(server)) {
+                return;
             }
-        }, CLEANUP_DELAY_MS);
+            cleanupNow(server, names);
+        });
     }
 
     private static void scheduleVoteStart(CommandSourceStack source, MinecraftServer server, ServerPlayer initiator,
                                           ServerPlayer target, List<String> spawnedPlayers, String targetName) {
-        CLEANUP_TIMER.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                server.execute(() -> {
-                    if (shouldAbort(server)) {
-                        return;
-                    }
-                    try {
-                        // Use direct API call instead of command string to prevent command injection
-                        int result = VoteKickCommand.startVoteKick(
-                            initiator.createCommandSourceStack(),
-                            target,
-                            TEST_REASON
-                        );
-                        if (result == 0) {
-                            sendError(source, "Failed to start vote kick from " + initiator.getScoreboardName() + ".");
-                            cleanupNow(server, spawnedPlayers);
-                            return;
-                        }
-                    } catch (Exception e) {
-                        LOGGER.warn("Error starting vote kick: {}", e.getMessage());
-                        sendError(source, "Failed to start vote kick from " + initiator.getScoreboardName() + ".");
-                        cleanupNow(server, spawnedPlayers);
-                        return;
-                    }
-
-                    if (VoteKickMod.getActiveVotes().isEmpty()) {
-                        sendError(source, "Vote kick did not start. Check permissions or protection settings.");
-                        cleanupNow(server, spawnedPlayers);
-                        return;
-                    }
-
-                    scheduleAutoVotes(source, server, initiator, target, spawnedPlayers, targetName);
-                });
+        VoteKickMod.getScheduler().schedule(VOTE_START_DELAY_TICKS, () -> {
+            if (shouldAbort(server)) {
+                return;
+            }
+            try {
+                // Use direct API call instead of command string to prevent command injection
+                int result = VoteKickCommand.startVoteKick(
+                    initiator.createCommandSourceStack(),
+                    target,
+                    TEST_REASON
+                );
+                if (result == 0) {
+                    sendError(source, "Failed to start vote kick from " + initiator.getScoreboardName() + ".");
+                    cleanupNow(server, spawnedPlayers);
+                    return;
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Error starting vote kick: {}", e.getMessage());
+                sendError(source, "Failed to start vote kick from " + initiator.getScoreboardName() + ".");
+                cleanupNow(server, spawnedPlayers);
+                return;
+            }
+
+            if (VoteKickMod.getVoteEngine().get(target.getUUID()) == null) {
+                sendError(source, "Vote kick did not start. Check permissions or protection settings.");
+                cleanupNow(server, spawnedPlayers);
+                return;
             }
-        }, VOTE_START_DELAY_MS);
+
+            scheduleAutoVotes(source, server, initiator, target, spawnedPlayers, targetName);
+        });
     }
 
     private static void scheduleAutoVotes(CommandSourceStack source, MinecraftServer server, ServerPlayer initiator,
                                           ServerPlayer target, List<String> spawnedPlayers, String targetName) {
-        CLEANUP_TIMER.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                server.execute(() -> {
-                    if (shouldAbort(server)) {
-                        return;
-                    }
-                    if (VoteKickMod.getActiveVotes().isEmpty()) {
-                        sendInfo(source, "No active vote found when auto-voting. Cleaning up test players.");
-                        cleanupNow(server, spawnedPlayers);
-                        return;
-                    }
-
-                    int votesCast = 0;
-                    for (ServerPlayer voter : server.getPlayerList().getPlayers()) {
-                        if (voter.getUUID().equals(target.getUUID()) || voter.getUUID().equals(initiator.getUUID())) {
-                            continue;
-                        }
-                        if (executeCommand(voter.createCommandSourceStack(), "vote yes")) {
-                            votesCast++;
-                        }
-                    }
-
-                    sendInfo(source, "Dev test started: " + initiator.getScoreboardName() + " -> " + targetName +
-                            ". Extra yes votes cast: " + votesCast + ".");
-                    sendSuccess(source, "Watch chat/UI for the vote result. Cleanup scheduled in " +
-                            (CLEANUP_DELAY_MS / 1000) + "s.");
-
-                    scheduleCleanup(server, spawnedPlayers);
-                });
+        VoteKickMod.getScheduler().schedule(AUTO_VOTE_DELAY_TICKS, () -> {
+            if (shouldAbort(server)) {
+                return;
             }
-        }, AUTO_VOTE_DELAY_MS);
+            VoteSession session = VoteKickMod.getVoteEngine().get(target.getUUID());
+            if (session == null) {
+                sendInfo(source, "No active vote found when auto-voting. Cleaning up test players.");
+                cleanupNow(server, spawnedPlayers);
+                return;
+            }
+
+            int votesCast = 0;
+            for (ServerPlayer voter : server.getPlayerList().getPlayers()) {
+                if (voter.getUUID().equals(target.getUUID()) || voter.getUUID().equals(initiator.getUUID())) {
+                    continue;
+                }
+                // other votes may be running, so vote on this session by id
+                if (VoteKickCommand.castVote(voter, true, session.getSessionId()) == 1) {
+                    votesCast++;
+                }
+            }
+
+            sendInfo(source, "Dev test started: " + initiator.getScoreboardName() + " -> " + targetName +
+                    ". Extra yes votes cast: " + votesCast + ".");
+            sendSuccess(source, "Watch chat/UI for the vote result. Cleanup scheduled in " +
+                    (int) (CLEANUP_DELAY_TICKS / TICKS_PER_SECOND) + "s.");
+
+            scheduleCleanup(server, spawnedPlayers);
+        });
     }
 
     private static void scheduleFirstJoinCheck(CommandSourceStack source, MinecraftServer server,
                                                List<String> spawnedPlayers, String firstName,
                                                String secondName, int remainingChecks) {
-        CLEANUP_TIMER.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                server.execute(() -> {
-                    if (shouldAbort(server)) {
-                        return;
-                    }
-                    ServerPlayer firstPlayer = findPlayerByName(server, firstName);
-                    if (firstPlayer != null) {
-                        scheduleSecondSpawn(source, server, spawnedPlayers, firstName, secondName);
-                        return;
-                    }
-
-                    if (remainingChecks <= 1) {
-                        sendError(source, "First Carpet test player did not spawn in time. Check server logs for details.");
-                        cleanupNow(server, spawnedPlayers);
-                        return;
-                    }
-
-                    scheduleFirstJoinCheck(source, server, spawnedPlayers, firstName, secondName, remainingChecks - 1);
-                });
+        VoteKickMod.getScheduler().schedule(SPAWN_CHECK_INTERVAL_TICKS, () -> {
+            if (shouldAbort(server)) {
+                return;
+            }
+            ServerPlayer firstPlayer = findPlayerByName(server, firstName);
+            if (firstPlayer != null) {
+                scheduleSecondSpawn(source, server, spawnedPlayers, firstName, secondName);
+                return;
             }
-        }, SPAWN_CHECK_INTERVAL_MS);
+
+            if (remainingChecks <= 1) {
+                sendError(source, "First Carpet test player did not spawn in time. Check server logs for details.");
+                cleanupNow(server, spawnedPlayers);
+                return;
+            }
+
+            scheduleFirstJoinCheck(source, server, spawnedPlayers, firstName, secondName, remainingChecks - 1);
+        });
     }
 
     private static void scheduleSecondSpawn(CommandSourceStack source, MinecraftServer server,
                                             List<String> spawnedPlayers, String firstName,
                                             String secondName) {
-        CLEANUP_TIMER.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                server.execute(() -> {
-                    if (shouldAbort(server)) {
-                        return;
-                    }
-
-                    if (!spawnFakePlayer(server, source, secondName)) {
-                        sendError(source, "Failed to spawn Carpet test player " + secondName + ".");
-                        cleanupNow(server, spawnedPlayers);
-                        return;
-                    }
-
-                    if (!spawnedPlayers.contains(secondName)) {
-                        spawnedPlayers.add(secondName);
-                        registerTestPlayer(secondName);
-                    }
-
-                    scheduleSecondJoinCheck(source, server, spawnedPlayers, firstName, secondName, SPAWN_CHECK_ATTEMPTS);
-                });
+        VoteKickMod.getScheduler().schedule(SECOND_SPAWN_DELAY_TICKS, () -> {
+            if (shouldAbort(server)) {
+                return;
+            }
+
+            if (!spawnFakePlayer(server, source, secondName)) {
+                sendError(source, "Failed to spawn Carpet test player " + secondName + ".");
+                cleanupNow(server, spawnedPlayers);
+                return;
+            }
+
+            if (!spawnedPlayers.contains(secondName)) {
+                spawnedPlayers.add(secondName);
+                registerTestPlayer(secondName);
             }
-        }, SECOND_SPAWN_DELAY_MS);
+
+            scheduleSecondJoinCheck(source, server, spawnedPlayers, firstName, secondName, SPAWN_CHECK_ATTEMPTS);
+        });
     }
 
     private static void scheduleSecondJoinCheck(CommandSourceStack source, MinecraftServer server,
                                                 List<String> spawnedPlayers, String firstName,
                                                 String secondName, int remainingChecks) {
-        CLEANUP_TIMER.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                server.execute(() -> {
-                    if (shouldAbort(server)) {
-                        return;
-                    }
-
-                    ServerPlayer firstPlayer = findPlayerByName(server, firstName);
-                    ServerPlayer secondPlayer = findPlayerByName(server, secondName);
-                    if (firstPlayer != null && secondPlayer != null) {
-                        PlayerProtectionManager protectionManager = VoteKickMod.getProtectionManager();
-                        protectionManager.clearProtection(firstPlayer.getUUID());
-                        protectionManager.clearProtection(secondPlayer.getUUID());
-
-                        ServerPlayer initiator = pickInitiator(source, server, firstPlayer, secondPlayer);
-                        if (initiator == null) {
-                            sendError(source, "No player with permission to start a vote was found.");
-                            cleanupNow(server, spawnedPlayers);
-                            return;
-                        }
-
-                        ServerPlayer target = initiator.getUUID().equals(firstPlayer.getUUID()) ? secondPlayer : firstPlayer;
-
-                        int playerCount = server.getPlayerList().getPlayerCount();
-                        int minPlayers = VoteKickMod.getConfig().getMinimumPlayers();
-                        if (playerCount < minPlayers) {
-                            sendError(source, "Need at least " + minPlayers + " players online. Currently " + playerCount + ".");
-                            cleanupNow(server, spawnedPlayers);
-                            return;
-                        }
-
-                        scheduleVoteStart(source, server, initiator, target, spawnedPlayers, target.getScoreboardName());
-                        return;
-                    }
-
-                    if (remainingChecks <= 1) {
-                        sendError(source, "Second Carpet test player did not spawn in time. Check server logs for details.");
-                        cleanupNow(server, spawnedPlayers);
-                        return;
-                    }
-
-                    scheduleSecondJoinCheck(source, server, spawnedPlayers, firstName, secondName, remainingChecks - 1);
-                });
+        VoteKickMod.getScheduler().schedule(SPAWN_CHECK_INTERVAL_TICKS, () -> {
+            if (shouldAbort(server)) {
+                return;
+            }
+
+            ServerPlayer firstPlayer = findPlayerByName(server, firstName);
+            ServerPlayer secondPlayer = findPlayerByName(server, secondName);
+            if (firstPlayer != null && secondPlayer != null) {
+                PlayerProtectionManager protectionManager = VoteKickMod.getProtectionManager();
+                protectionManager.clearProtection(firstPlayer.getUUID());
+                protectionManager.clearProtection(secondPlayer.getUUID());
+
+                ServerPlayer initiator = pickInitiator(source, server, firstPlayer, secondPlayer);
+                if (initiator == null) {
+                    sendError(source, "No player with permission to start a vote was found.");
+                    cleanupNow(server, spawnedPlayers);
+                    return;
+                }
+
+                ServerPlayer target = initiator.getUUID().equals(firstPlayer.getUUID()) ? secondPlayer : firstPlayer;
+
+                int playerCount = server.getPlayerList().getPlayerCount();
+                int minPlayers = VoteKickMod.getConfig().getMinimumPlayers();
+                if (playerCount < minPlayers) {
+                    sendError(source, "Need at least " + minPlayers + " players online. Currently " + playerCount + ".");
+                    cleanupNow(server, spawnedPlayers);
+                    return;
+                }
+
+                scheduleVoteStart(source, server, initiator, target, spawnedPlayers, target.getScoreboardName());
+                return;
             }
-        }, SPAWN_CHECK_INTERVAL_MS);
+
+            if (remainingChecks <= 1) {
+                sendError(source, "Second Carpet test player did not spawn in time. Check server logs for details.");
+                cleanupNow(server, spawnedPlayers);
+                return;
+            }
+
+            scheduleSecondJoinCheck(source, server, spawnedPlayers, firstName, secondName, remainingChecks - 1);
+        });
     }
 
     private static ServerPlayer findPlayerByName(MinecraftServer server, String name) {
@@ -4,7 +4,13 @@ package sierra.thing.votekick.config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sierra.thing.votekick.VoteKickMod;
+import sierra.thing.votekick.ratelimit.RateLimit;
+import sierra.thing.votekick.ratelimit.RateLimitAction;
+import sierra.thing.votekick.vote.VoteScope;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Properties;
 
 public class VoteKickConfig {
@@ -18,6 +24,11 @@ public class VoteKickConfig {
     private static final boolean DEFAULT_REQUIRE_REASON = true;
     private static final int DEFAULT_MAX_REASON_LENGTH = 100;
     private static final int DEFAULT_TARGET_COOLDOWN = 300;
+    private static final int DEFAULT_MAX_CONCURRENT_VOTES = 3;
+    private static final VoteScope DEFAULT_VOTE_SCOPE = VoteScope.GLOBAL;
+    private static final int DEFAULT_VOTE_SCOPE_RADIUS = 128;
+    private static final boolean DEFAULT_DIGEST_VOTE_ANNOUNCEMENTS = true;
+    private static final int DEFAULT_VOTE_DIGEST_SECONDS = 2;
 
     // protection system defaults
     private static final boolean DEFAULT_NEW_PLAYER_PROTECTION = true;
@@ -34,6 +45,8 @@ public class VoteKickConfig {
     private static final int DEFAULT_LIGHT_MODIFIER_THRESHOLD = 3;
     private static final int DEFAULT_HEAVY_MODIFIER_THRESHOLD = 5;
     private static final int DEFAULT_DATA_CLEANUP_DAYS = 30;
+    private static final int DEFAULT_KNOWN_PLAYERS_EVICTION_DAYS = 0; // 0 = remember forever
+    private static final int MAX_KNOWN_PLAYERS_EVICTION_DAYS = 3650;
 
     // permissions + history defaults
     private static final boolean DEFAULT_PERMISSIONS_ENABLED = true;
@@ -44,20 +57,37 @@ public class VoteKickConfig {
     private static final boolean DEFAULT_HISTORY_ENABLED = true;
     private static final int DEFAULT_HISTORY_MAX_ENTRIES = 200;
     private static final int DEFAULT_HISTORY_RETENTION_DAYS = 90;
+    private static final int DEFAULT_HISTORY_CACHED_ENTRIES = 200;
+
+    // rate limit defaults, per action ones live on RateLimitAction
+    private static final boolean DEFAULT_RATE_LIMITS_ENABLED = true;
+    private static final RateLimit DEFAULT_GLOBAL_RATE_LIMIT = new RateLimit(200, 6000);
 
     // limits
     private static final int MIN_VOTE_DURATION = 5;
     private static final int MAX_VOTE_DURATION = 300;
     private static final int MIN_COOLDOWN = 0;
     private static final int MAX_COOLDOWN = 3600;
+    private static final int MIN_CONCURRENT_VOTES = 1;
+    private static final int MAX_CONCURRENT_VOTES = 16;
+    private static final int MIN_VOTE_SCOPE_RADIUS = 8;
+    private static final int MAX_VOTE_SCOPE_RADIUS = 4096;
+    private static final int MIN_VOTE_DIGEST_SECONDS = 1;
+    private static final int MAX_VOTE_DIGEST_SECONDS = 30;
     private static final int MIN_REASON_LENGTH = 10;
     private static final int MAX_REASON_LENGTH = 500;
     private static final int MIN_HISTORY_ENTRIES = 10;
-    private static final int MAX_HISTORY_ENTRIES = 10000;
+    // only the cached tail lives in memory, the rest is read back from disk
+    private static final int MAX_HISTORY_ENTRIES = 1000000;
     private static final int MIN_HISTORY_RETENTION_DAYS = 1;
     private static final int MAX_HISTORY_RETENTION_DAYS = 3650;
+    private static final int MIN_HISTORY_CACHED_ENTRIES = 10;
+    private static final int MAX_HISTORY_CACHED_ENTRIES = 10000;
     private static final int MIN_PERMISSION_LEVEL = 0;
     private static final int MAX_PERMISSION_LEVEL = 4;
+    private static final int MIN_RATE_BURST = 1;
+    private static final int MAX_RATE_BURST = 10000;
+    private static final int MAX_RATE_PER_MINUTE = 600000;
 
     // basic vote config
     private final int voteDurationSeconds;
@@ -69,6 +99,11 @@ public class VoteKickConfig {
     private final boolean requireKickReason;
     private final int maxReasonLength;
     private final int targetCooldownSeconds;
+    private final int maxConcurrentVotes;
+    private final VoteScope voteScope;
+    private final int voteScopeRadius;
+    private final boolean digestVoteAnnouncements;
+    private final int voteDigestSeconds;
 
     // protection system config
     private final boolean newPlayerProtectionEnabled;
@@ -85,6 +120,7 @@ public class VoteKickConfig {
     private final int lightModifierThreshold;
     private final int heavyModifierThreshold;
     private final int dataCleanupDays;
+    private final int knownPlayersEvictionDays;
 
     // permissions + history config
     private final boolean permissionsEnabled;
@@ -95,6 +131,12 @@ public class VoteKickConfig {
     private final boolean historyEnabled;
     private final int historyMaxEntries;
     private final int historyRetentionDays;
+    private final int historyCachedEntries;
+
+    // rate limit config
+    private final boolean rateLimitsEnabled;
+    private final Map<RateLimitAction, RateLimit> rateLimits;
+    private final RateLimit globalRateLimit;
 
     public VoteKickConfig() {
         this.voteDurationSeconds = DEFAULT_VOTE_DURATION;
@@ -106,6 +148,11 @@ public class VoteKickConfig {
         this.requireKickReason = DEFAULT_REQUIRE_REASON;
         this.maxReasonLength = DEFAULT_MAX_REASON_LENGTH;
         this.targetCooldownSeconds = DEFAULT_TARGET_COOLDOWN;
+        this.maxConcurrentVotes = DEFAULT_MAX_CONCURRENT_VOTES;
+        this.voteScope = DEFAULT_VOTE_SCOPE;
+        this.voteScopeRadius = DEFAULT_VOTE_SCOPE_RADIUS;
+        this.digestVoteAnnouncements = DEFAULT_DIGEST_VOTE_ANNOUNCEMENTS;
+        this.voteDigestSeconds = DEFAULT_VOTE_DIGEST_SECONDS;
 
         this.newPlayerProtectionEnabled = DEFAULT_NEW_PLAYER_PROTECTION;
         this.newPlayerProtectionDuration = DEFAULT_NEW_PLAYER_DURATION;
@@ -121,6 +168,7 @@ public class VoteKickConfig {
         this.lightModifierThreshold = DEFAULT_LIGHT_MODIFIER_THRESHOLD;
         this.heavyModifierThreshold = DEFAULT_HEAVY_MODIFIER_THRESHOLD;
         this.dataCleanupDays = DEFAULT_DATA_CLEANUP_DAYS;
+        this.knownPlayersEvictionDays = DEFAULT_KNOWN_PLAYERS_EVICTION_DAYS;
 
         this.permissionsEnabled = DEFAULT_PERMISSIONS_ENABLED;
         this.permissionStartDefaultLevel = DEFAULT_PERMISSION_START_LEVEL;
@@ -130,6 +178,15 @@ public class VoteKickConfig {
         this.historyEnabled = DEFAULT_HISTORY_ENABLED;
         this.historyMaxEntries = DEFAULT_HISTORY_MAX_ENTRIES;
         this.historyRetentionDays = DEFAULT_HISTORY_RETENTION_DAYS;
+        this.historyCachedEntries = DEFAULT_HISTORY_CACHED_ENTRIES;
+
+        this.rateLimitsEnabled = DEFAULT_RATE_LIMITS_ENABLED;
+        Map<RateLimitAction, RateLimit> limits = new EnumMap<>(RateLimitAction.class);
+        for (RateLimitAction action : RateLimitAction.values()) {
+            limits.put(action, action.getDefaultLimit());
+        }
+        this.rateLimits = Collections.unmodifiableMap(limits);
+        this.globalRateLimit = DEFAULT_GLOBAL_RATE_LIMIT;
     }
 
     public VoteKickConfig(Properties props) {
@@ -170,6 +227,53 @@ public class VoteKickConfig {
         }
         this.targetCooldownSeconds = targetCooldown;
 
+        int concurrentVotes = DEFAULT_MAX_CONCURRENT_VOTES;
+        try {
+            concurrentVotes = Integer.parseInt(props.getProperty("max_concurrent_votes", String.valueOf(DEFAULT_MAX_CONCURRENT_VOTES)));
+            if (concurrentVotes < MIN_CONCURRENT_VOTES || concurrentVotes > MAX_CONCURRENT_VOTES) {
+                LOGGER.warn("Invalid max_concurrent_votes ({}), using default: {}", concurrentVotes, DEFAULT_MAX_CONCURRENT_VOTES);
+                concurrentVotes = DEFAULT_MAX_CONCURRENT_VOTES;
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid max_concurrent_votes format, using default: {}", DEFAULT_MAX_CONCURRENT_VOTES);
+        }
+        this.maxConcurrentVotes = concurrentVotes;
+
+        String scopeName = props.getProperty("vote_scope", DEFAULT_VOTE_SCOPE.getConfigName());
+        VoteScope scope = VoteScope.fromConfigName(scopeName);
+        if (scope == null) {
+            LOGGER.warn("Invalid vote_scope ({}), using default: {}", scopeName, DEFAULT_VOTE_SCOPE.getConfigName());
+            scope = DEFAULT_VOTE_SCOPE;
+        }
+        this.voteScope = scope;
+
+        int scopeRadius = DEFAULT_VOTE_SCOPE_RADIUS;
+        try {
+            scopeRadius = Integer.parseInt(props.getProperty("vote_scope_radius", String.valueOf(DEFAULT_VOTE_SCOPE_RADIUS)));
+            if (scopeRadius < MIN_VOTE_SCOPE_RADIUS || scopeRadius > MAX_VOTE_SCOPE_RADIUS) {
+                LOGGER.warn("Invalid vote_scope_radius ({}), using default: {}", scopeRadius, DEFAULT_VOTE_SCOPE_RADIUS);
+                scopeRadius = DEFAULT_VOTE_SCOPE_RADIUS;
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid vote_scope_radius format, using default: {}", DEFAULT_VOTE_SCOPE_RADIUS);
+        }
+        this.voteScopeRadius = scopeRadius;
+
+        this.digestVoteAnnouncements = Boolean.parseBoolean(props.getProperty("digest_vote_announcements",
+                String.valueOf(DEFAULT_DIGEST_VOTE_ANNOUNCEMENTS)));
+
+        int digestSeconds = DEFAULT_VOTE_DIGEST_SECONDS;
+        try {
+            digestSeconds = Integer.parseInt(props.getProperty("vote_digest_seconds", String.valueOf(DEFAULT_VOTE_DIGEST_SECONDS)));
+            if (digestSeconds < MIN_VOTE_DIGEST_SECONDS || digestSeconds > MAX_VOTE_DIGEST_SECONDS) {
+                LOGGER.warn("Invalid vote_digest_seconds ({}), using default: {}", digestSeconds, DEFAULT_VOTE_DIGEST_SECONDS);
+                digestSeconds = DEFAULT_VOTE_DIGEST_SECONDS;
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid vote_digest_seconds format, using default: {}", DEFAULT_VOTE_DIGEST_SECONDS);
+        }
+        this.voteDigestSeconds = digestSeconds;
+
         double percentage = DEFAULT_PASS_PERCENTAGE;
         try {
             percentage = Double.parseDouble(props.getProperty("vote_pass_percentage", String.valueOf(DEFAULT_PASS_PERCENTAGE)));
@@ -329,6 +433,17 @@ public class VoteKickConfig {
         }
         this.dataCleanupDays = cleanupDays;
 
+        int evictionDays = DEFAULT_KNOWN_PLAYERS_EVICTION_DAYS;
+        try {
+            evictionDays = Integer.parseInt(props.getProperty("known_players_eviction_days", String.valueOf(DEFAULT_KNOWN_PLAYERS_EVICTION_DAYS)));
+            if (evictionDays < 0 || evictionDays > MAX_KNOWN_PLAYERS_EVICTION_DAYS) {
+                evictionDays = DEFAULT_KNOWN_PLAYERS_EVICTION_DAYS;
+            }
+        } catch (NumberFormatException e) {
+            evictionDays = DEFAULT_KNOWN_PLAYERS_EVICTION_DAYS;
+        }
+        this.knownPlayersEvictionDays = evictionDays;
+
         this.permissionsEnabled = Boolean.parseBoolean(props.getProperty("permissions_enabled", "true"));
 
         int startLevel = DEFAULT_PERMISSION_START_LEVEL;
@@ -398,6 +513,55 @@ public class VoteKickConfig {
             historyRetention = DEFAULT_HISTORY_RETENTION_DAYS;
         }
         this.historyRetentionDays = historyRetention;
+
+        int historyCached = DEFAULT_HISTORY_CACHED_ENTRIES;
+        try {
+            historyCached = Integer.parseInt(props.getProperty("vote_history_cached_entries", String.valueOf(DEFAULT_HISTORY_CACHED_ENTRIES)));
+            if (historyCached < MIN_HISTORY_CACHED_ENTRIES || historyCached > MAX_HISTORY_CACHED_ENTRIES) {
+                historyCached = DEFAULT_HISTORY_CACHED_ENTRIES;
+            }
+        } catch (NumberFormatException e) {
+            historyCached = DEFAULT_HISTORY_CACHED_ENTRIES;
+        }
+        this.historyCachedEntries = historyCached;
+
+        this.rateLimitsEnabled = Boolean.parseBoolean(props.getProperty("rate_limits_enabled",
+                String.valueOf(DEFAULT_RATE_LIMITS_ENABLED)));
+        Map<RateLimitAction, RateLimit> limits = new EnumMap<>(RateLimitAction.class);
+        for (RateLimitAction action : RateLimitAction.values()) {
+            limits.put(action, readRateLimit(props, "rate_limit_" + action.getConfigName(), action.getDefaultLimit()));
+        }
+        this.rateLimits = Collections.unmodifiableMap(limits);
+        this.globalRateLimit = readRateLimit(props, "rate_limit_global", DEFAULT_GLOBAL_RATE_LIMIT);
+    }
+
+    // <prefix>_burst and <prefix>_per_minute, each falling back to the default on its own
+    private static RateLimit readRateLimit(Properties props, String prefix, RateLimit defaults) {
+        String burstKey = prefix + "_burst";
+        int burst = defaults.burst();
+        try {
+            burst = Integer.parseInt(props.getProperty(burstKey, String.valueOf(defaults.burst())));
+            if (burst < MIN_RATE_BURST || burst > MAX_RATE_BURST) {
+                LOGGER.warn("Invalid {} ({}), using default: {}", burstKey, burst, defaults.burst());
+                burst = defaults.burst();
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid {} format, using default: {}", burstKey, defaults.burst());
+        }
+
+        String rateKey = prefix + "_per_minute";
+        int perMinute = defaults.perMinute();
+        try {
+            perMinute = Integer.parseInt(props.getProperty(rateKey, String.valueOf(defaults.perMinute())));
+            if (perMinute < 0 || perMinute > MAX_RATE_PER_MINUTE) {
+                LOGGER.warn("Invalid {} ({}), using default: {}", rateKey, perMinute, defaults.perMinute());
+                perMinute = defaults.perMinute();
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid {} format, using default: {}", rateKey, defaults.perMinute());
+        }
+
+        return new RateLimit(burst, perMinute);
     }
 
     public void updateProperties(Properties props) {
@@ -410,6 +574,11 @@ public class VoteKickConfig {
         props.setProperty("require_kick_reason", Boolean.toString(requireKickReason));
         props.setProperty("max_reason_length", Integer.toString(maxReasonLength));
         props.setProperty("target_cooldown_seconds", Integer.toString(targetCooldownSeconds));
+        props.setProperty("max_concurrent_votes", Integer.toString(maxConcurrentVotes));
+        props.setProperty("vote_scope", voteScope.getConfigName());
+        props.setProperty("vote_scope_radius", Integer.toString(voteScopeRadius));
+        props.setProperty("digest_vote_announcements", Boolean.toString(digestVoteAnnouncements));
+        props.setProperty("vote_digest_seconds", Integer.toString(voteDigestSeconds));
 
         props.setProperty("new_player_protection_enabled", Boolean.toString(newPlayerProtectionEnabled));
         props.setProperty("new_player_protection_duration", Integer.toString(newPlayerProtectionDuration));
@@ -425,6 +594,7 @@ public class VoteKickConfig {
         props.setProperty("light_modifier_threshold", Integer.toString(lightModifierThreshold));
         props.setProperty("heavy_modifier_threshold", Integer.toString(heavyModifierThreshold));
         props.setProperty("data_cleanup_days", Integer.toString(dataCleanupDays));
+        props.setProperty("known_players_eviction_days", Integer.toString(knownPlayersEvictionDays));
 
         props.setProperty("permissions_enabled", Boolean.toString(permissionsEnabled));
         props.setProperty("permissions_start_default_level", Integer.toString(permissionStartDefaultLevel));
@@ -434,6 +604,18 @@ public class VoteKickConfig {
         props.setProperty("vote_history_enabled", Boolean.toString(historyEnabled));
         props.setProperty("vote_history_max_entries", Integer.toString(historyMaxEntries));
         props.setProperty("vote_history_retention_days", Integer.toString(historyRetentionDays));
+        props.setProperty("vote_history_cached_entries", Integer.toString(historyCachedEntries));
+
+        props.setProperty("rate_limits_enabled", Boolean.toString(rateLimitsEnabled));
+        for (Map.Entry<RateLimitAction, RateLimit> entry : rateLimits.entrySet()) {
+            writeRateLimit(props, "rate_limit_" + entry.getKey().getConfigName(), entry.getValue());
+        }
+        writeRateLimit(props, "rate_limit_global", globalRateLimit);
+    }
+
+    private static void writeRateLimit(Properties props, String prefix, RateLimit limit) {
+        props.setProperty(prefix + "_burst", Integer.toString(limit.burst()));
+        props.setProperty(prefix + "_per_minute", Integer.toString(limit.perMinute()));
     }
 
     // basic vote getters
@@ -446,6 +628,11 @@ public class VoteKickConfig {
     public boolean isRequireKickReason() { return requireKickReason; }
     public int getMaxReasonLength() { return maxReasonLength; }
     public int getTargetCooldownSeconds() { return targetCooldownSeconds; }
+    public int getMaxConcurrentVotes() { return maxConcurrentVotes; }
+    public VoteScope getVoteScope() { return voteScope; }
+    public int getVoteScopeRadius() { return voteScopeRadius; }
+    public boolean isDigestVoteAnnouncements() { return digestVoteAnnouncements; }
+    public int getVoteDigestSeconds() { return voteDigestSeconds; }
 
     // protection system getters
     public boolean isNewPlayerProtectionEnabled() { return newPlayerProtectionEnabled; }
@@ -462,6 +649,7 @@ public class VoteKickConfig {
     public int getLightModifierThreshold() { return lightModifierThreshold; }
     public int getHeavyModifierThreshold() { return heavyModifierThreshold; }
     public int getDataCleanupDays() { return dataCleanupDays; }
+    public int getKnownPlayersEvictionDays() { return knownPlayersEvictionDays; }
 
     public boolean isPermissionsEnabled() { return permissionsEnabled; }
     public int getPermissionStartDefaultLevel() { return permissionStartDefaultLevel; }
@@ -471,4 +659,9 @@ public class VoteKickConfig {
     public boolean isHistoryEnabled() { return historyEnabled; }
     public int getHistoryMaxEntries() { return historyMaxEntries; }
     public int getHistoryRetentionDays() { return historyRetentionDays; }
+    public int getHistoryCachedEntries() { return historyCachedEntries; }
+
+    public boolean isRateLimitsEnabled() { return rateLimitsEnabled; }
+    public RateLimit getRateLimit(RateLimitAction action) { return rateLimits.get(action); }
+    public RateLimit getGlobalRateLimit() { return globalRateLimit; }
 }
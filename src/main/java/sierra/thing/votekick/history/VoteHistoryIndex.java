@@ -0,0 +1,200 @@
+package sierra.thing.votekick.history;
+
+import sierra.thing.votekick.vote.VoteOutcome;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lookups into the history list by target, initiator, outcome and time, kept up to date as
+ * entries are recorded and pruned.
+ *
+ * Entries are addressed by sequence number: the n-th entry ever recorded is n, and the oldest
+ * one still held is {@link #firstSeq()}. Per-key lists hold sequence numbers in recording order,
+ * so the newest matches are at the end and pruning only ever trims their fronts. Player lists are
+ * trimmed when looked up, plus a sweep now and then for players nobody asks about, so pruning
+ * never needs the dropped entries themselves. Time is indexed by hour: the first entry recorded
+ * in each hour. Server thread only.
+ */
+final class VoteHistoryIndex {
+    static final long TIME_BUCKET_MS = 60 * 60 * 1000L;
+    private static final int MIN_SWEEP_INTERVAL = 1024;
+
+    private final Map<String, Postings> byTarget = new HashMap<>();
+    private final Map<String, Postings> byInitiator = new HashMap<>();
+    private final Map<VoteOutcome, Postings> byOutcome = new EnumMap<>(VoteOutcome.class);
+    // hour -> first entry recorded in it
+    private final TreeMap<Long, Long> byHour = new TreeMap<>();
+    // lowercase name -> uuid, latest wins, so offline players can be named in commands
+    private final Map<String, String> uuidByName = new HashMap<>();
+
+    private long firstSeq;
+    private long nextSeq;
+    // firstSeq at the last sweep of the player lists
+    private long sweptAt;
+
+    long firstSeq() {
+        return firstSeq;
+    }
+
+    long nextSeq() {
+        return nextSeq;
+    }
+
+    void add(VoteHistoryEntry entry) {
+        long seq = nextSeq++;
+        if (entry.targetUuid != null) {
+            byTarget.computeIfAbsent(entry.targetUuid, k -> new Postings()).add(seq);
+            rememberName(entry.targetName, entry.targetUuid);
+        }
+        if (entry.initiatorUuid != null) {
+            byInitiator.computeIfAbsent(entry.initiatorUuid, k -> new Postings()).add(seq);
+            rememberName(entry.initiatorName, entry.initiatorUuid);
+        }
+        if (entry.outcome != null) {
+            byOutcome.computeIfAbsent(entry.outcome, k -> new Postings()).add(seq);
+        }
+        byHour.putIfAbsent(Math.floorDiv(entry.timestamp, TIME_BUCKET_MS), seq);
+    }
+
+    /**
+     * Forgets every entry before {@code seq}.
+     */
+    void dropOldest(long seq) {
+        if (seq <= firstSeq) {
+            return;
+        }
+        firstSeq = Math.min(seq, nextSeq);
+        // once as much was dropped as is left, so it's paid for by the drops
+        if (firstSeq - sweptAt >= Math.max(MIN_SWEEP_INTERVAL, nextSeq - firstSeq)) {
+            sweep(byTarget);
+            sweep(byInitiator);
+            sweptAt = firstSeq;
+        }
+        for (Postings postings : byOutcome.values()) {
+            postings.dropBefore(firstSeq);
+        }
+        // a bucket can go once the next one starts at or before the oldest entry
+        while (byHour.size() > 1) {
+            Map.Entry<Long, Long> second = byHour.higherEntry(byHour.firstKey());
+            if (second.getValue() > firstSeq) {
+                break;
+            }
+            byHour.pollFirstEntry();
+        }
+    }
+
+    void clear() {
+        byTarget.clear();
+        byInitiator.clear();
+        byOutcome.clear();
+        byHour.clear();
+        uuidByName.clear();
+        firstSeq = 0;
+        nextSeq = 0;
+        sweptAt = 0;
+    }
+
+    Postings target(String uuid) {
+        return live(byTarget, uuid);
+    }
+
+    Postings initiator(String uuid) {
+        return live(byInitiator, uuid);
+    }
+
+    Postings outcome(VoteOutcome outcome) {
+        return byOutcome.get(outcome);
+    }
+
+    /**
+     * Where to start looking for entries at or after {@code since}: the first entry of that hour
+     * (or the next one with any), {@link #nextSeq()} if there's none.
+     */
+    long firstSeqAround(long since) {
+        Map.Entry<Long, Long> bucket = byHour.ceilingEntry(Math.floorDiv(since, TIME_BUCKET_MS));
+        if (bucket == null) {
+            return nextSeq;
+        }
+        return Math.max(bucket.getValue(), firstSeq);
+    }
+
+    String uuidForName(String name) {
+        return name == null ? null : uuidByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    private void rememberName(String name, String uuid) {
+        if (name != null && !name.isEmpty()) {
+            uuidByName.put(name.toLowerCase(Locale.ROOT), uuid);
+        }
+    }
+
+    private Postings live(Map<String, Postings> index, String key) {
+        if (key == null) {
+            return null;
+        }
+        Postings postings = index.get(key);
+        if (postings != null && postings.dropBefore(firstSeq) == 0) {
+            index.remove(key);
+            return null;
+        }
+        return postings;
+    }
+
+    // the names may point at players no longer in history, that's fine: lookups find nothing
+    private void sweep(Map<String, Postings> index) {
+        index.values().removeIf(postings -> postings.dropBefore(firstSeq) == 0);
+    }
+
+    /**
+     * Sequence numbers of one key's entries, oldest first.
+     */
+    static final class Postings {
+        private long[] seqs = new long[4];
+        private int head;
+        private int tail;
+
+        void add(long seq) {
+            if (tail == seqs.length) {
+                if (head > seqs.length / 2) {
+                    // mostly pruned front, slide down instead of growing
+                    System.arraycopy(seqs, head, seqs, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                } else {
+                    seqs = Arrays.copyOf(seqs, seqs.length << 1);
+                }
+            }
+            seqs[tail++] = seq;
+        }
+
+        /**
+         * @return how many are left
+         */
+        int dropBefore(long seq) {
+            while (head < tail && seqs[head] < seq) {
+                head++;
+            }
+            if (head == tail) {
+                head = 0;
+                tail = 0;
+            }
+            return tail - head;
+        }
+
+        int size() {
+            return tail - head;
+        }
+
+        /**
+         * @param index 0 for the newest
+         */
+        long newest(int index) {
+            return seqs[tail - 1 - index];
+        }
+    }
+}
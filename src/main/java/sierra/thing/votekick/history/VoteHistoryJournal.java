@@ -0,0 +1,716 @@
+package sierra.thing.votekick.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sierra.thing.votekick.VoteKickMod;
+import sierra.thing.votekick.vote.VoteOutcome;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Vote history on disk, as numbered segment files in one directory.
+ *
+ * Each segment is a 5 byte header (magic + format version), then one record per vote:
+ * {@code int length, int crc32, payload}. Records are addressed by sequence number, counted
+ * across segments in file order from 0 at {@link #open}. For every segment the server thread
+ * keeps the offset of each {@value #OFFSET_STRIDE}th record, so reading any one entry is a
+ * single positional read of the small block holding it. History is dropped a whole segment at
+ * a time, once every record in it is pruned.
+ *
+ * Records also have a position, segment id and index within it, which unlike sequence numbers
+ * doesn't change when older segments go, so it can be saved (see {@link #endPosition()}).
+ *
+ * Appends and deletes run on a single background thread, in submission order, so the server
+ * thread only hands over bytes and moves on. Reads run on the caller's thread and must stay
+ * below {@link #durableSeq()}.
+ */
+final class VoteHistoryJournal {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
+
+    private static final int MAGIC = 0x564B484A; // "VKHJ"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 5;
+    // length + crc in front of every payload
+    private static final int RECORD_OVERHEAD = 8;
+    // reasons are capped well below this, anything bigger is garbage
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+    private static final long FLUSH_TIMEOUT_SECONDS = 10;
+
+    static final int SEGMENT_RECORDS = 4096;
+    static final int OFFSET_STRIDE = 32;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final int HAS_INITIATOR_UUID = 1;
+    private static final int HAS_TARGET_UUID = 1 << 1;
+    private static final int HAS_ENDED_BY = 1 << 2;
+    private static final int HAS_OUTCOME = 1 << 3;
+
+    private final Path dir;
+    private final ExecutorService io;
+
+    // server thread only. keyed by first sequence number
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private int nextSegmentId;
+    private long nextSeq;
+    // set by the io thread: every record below this is on disk
+    private volatile long durableSeq;
+    // set by the io thread when a record couldn't be written even after a retry. nothing after
+    // it is written and no more entries are taken until the next open
+    private volatile boolean broken;
+
+    VoteHistoryJournal(Path dir) {
+        this.dir = dir;
+        this.io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "votekick-history-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    boolean exists() {
+        return Files.isDirectory(dir);
+    }
+
+    long durableSeq() {
+        return durableSeq;
+    }
+
+    /**
+     * Moves a single-file journal from older versions in as the first segment. It has the same
+     * header and records, just more of them.
+     */
+    void adopt(Path oldJournal) throws IOException {
+        flush();
+        Files.createDirectories(dir);
+        moveIntoPlace(oldJournal, segmentFile(0));
+    }
+
+    /**
+     * Scans every segment front to back, handing each entry and its position to {@code sink} in
+     * sequence order, and rebuilds the offsets. A torn or corrupt tail is cut off the segment it's in; the next
+     * segment carries on from there. Runs on the caller's thread since the index is needed before
+     * the server starts anyway.
+     */
+    void open(ObjLongConsumer<VoteHistoryEntry> sink) throws IOException {
+        flush();
+        segments.clear();
+        nextSegmentId = 0;
+        nextSeq = 0;
+        durableSeq = 0;
+        broken = false;
+        if (!exists()) {
+            return;
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                if (segmentId(file) >= 0) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparingInt(VoteHistoryJournal::segmentId));
+
+        for (Path file : files) {
+            int id = segmentId(file);
+            nextSegmentId = Math.max(nextSegmentId, id + 1);
+
+            Segment segment = new Segment(id, file, nextSeq);
+            long good = readSegment(file, (entry, recordBytes) -> {
+                long position = position(id, segment.count);
+                segment.added(recordBytes);
+                sink.accept(entry, position);
+            });
+
+            if (good < 0) {
+                // not ours, or from a newer build. keep it around instead of appending to it
+                Path aside = file.resolveSibling(file.getFileName() + ".unreadable");
+                LOGGER.error("Vote history segment {} has an unknown header, moving it to {}", file, aside);
+                Files.move(file, aside, StandardCopyOption.REPLACE_EXISTING);
+                continue;
+            }
+            if (segment.count == 0) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            if (good < Files.size(file)) {
+                LOGGER.warn("Vote history segment {} is damaged after {} records, dropping the rest",
+                        file.getFileName(), segment.count);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(good);
+                }
+            }
+            segments.put(segment.firstSeq, segment);
+            nextSeq += segment.count;
+        }
+        durableSeq = nextSeq;
+    }
+
+    /**
+     * Queues an entry for the end of the newest segment, starting a new one when it's full.
+     * A failed write is cut back off the segment and tried once more; if that fails too the
+     * journal stops taking entries, since everything after the hole would be unreadable.
+     *
+     * @return false if the entry can't be stored at all; it doesn't get a sequence number then
+     */
+    boolean append(VoteHistoryEntry entry) {
+        if (broken) {
+            return false;
+        }
+
+        byte[] record;
+        try {
+            record = encodeRecord(entry);
+        } catch (IOException e) {
+            LOGGER.error("Failed to encode vote history entry", e);
+            return false;
+        }
+
+        long seq = nextSeq++;
+        Segment segment = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (segment == null || segment.count >= SEGMENT_RECORDS) {
+            int id = nextSegmentId++;
+            segment = new Segment(id, segmentFile(id), seq);
+            segments.put(seq, segment);
+        }
+        long at = segment.bytes;
+        segment.added(record.length);
+
+        Path file = segment.file;
+        io.execute(() -> {
+            if (broken) {
+                return;
+            }
+            try {
+                writeRecord(file, at, record);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to append to vote history segment {}, retrying", file.getFileName(), e);
+                try {
+                    writeRecord(file, at, record);
+                } catch (IOException retry) {
+                    broken = true;
+                    LOGGER.error("Failed to append to vote history segment {} again, no more votes will be "
+                            + "recorded until history is reloaded", file.getFileName(), retry);
+                    return;
+                }
+            }
+            if (durableSeq == seq) {
+                durableSeq = seq + 1;
+            }
+        });
+        return true;
+    }
+
+    // writes a record at its offset, cutting off whatever an earlier failed try left there
+    private void writeRecord(Path file, long at, byte[] record) throws IOException {
+        ByteBuffer buffer;
+        long position;
+        if (at == HEADER_BYTES) {
+            Files.createDirectories(dir);
+            buffer = ByteBuffer.allocate(HEADER_BYTES + record.length);
+            buffer.putInt(MAGIC);
+            buffer.put((byte) FORMAT_VERSION);
+            buffer.put(record);
+            buffer.flip();
+            position = 0;
+        } else {
+            buffer = ByteBuffer.wrap(record);
+            position = at;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(position);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+        }
+    }
+
+    /**
+     * Position the next appended record will be at or after, so everything from here on was
+     * appended later.
+     */
+    long endPosition() {
+        if (segments.isEmpty()) {
+            return position(nextSegmentId, 0);
+        }
+        Segment newest = segments.lastEntry().getValue();
+        return position(newest.id, newest.count);
+    }
+
+    /**
+     * @return whether {@link #dropBefore} would delete anything
+     */
+    boolean canDropBefore(long seq) {
+        return segments.size() > 1 && droppable(segments.firstEntry().getValue(), seq);
+    }
+
+    /**
+     * Deletes the segments holding nothing at or after {@code seq}. The newest one always stays,
+     * so segment ids, and with them positions, don't start over on the next open.
+     */
+    void dropBefore(long seq) {
+        while (segments.size() > 1) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (!droppable(oldest, seq)) {
+                break;
+            }
+            segments.pollFirstEntry();
+            io.execute(() -> {
+                try {
+                    Files.deleteIfExists(oldest.file);
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to delete old vote history segment {}", oldest.file.getFileName(), e);
+                }
+            });
+        }
+    }
+
+    private static boolean droppable(Segment segment, long seq) {
+        return segment.firstSeq + segment.count <= seq;
+    }
+
+    /**
+     * A reader for looking up entries by sequence number. Server thread, and only for entries
+     * below {@link #durableSeq()}. Opens files lazily, so it's free if nothing is read.
+     */
+    Reader reader() {
+        return new Reader();
+    }
+
+    /**
+     * The files holding {@code [from, to)}, captured now so the range can be streamed later on
+     * the journal thread (see {@link #submit}), after everything appended so far has landed.
+     */
+    Range range(long from, long to) {
+        List<Path> files = new ArrayList<>();
+        long skip = 0;
+        for (Segment segment : segments.values()) {
+            if (segment.firstSeq + segment.count <= from) {
+                continue;
+            }
+            if (segment.firstSeq >= to) {
+                break;
+            }
+            if (files.isEmpty()) {
+                skip = Math.max(0, from - segment.firstSeq);
+            }
+            files.add(segment.file);
+        }
+        return new Range(files, skip, Math.max(0, to - from));
+    }
+
+    /**
+     * Runs {@code task} on the journal thread, after everything queued so far.
+     */
+    <T> CompletableFuture<T> submit(IoTask<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        io.execute(() -> {
+            try {
+                future.complete(task.run());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Blocks until every queued write has hit the file.
+     */
+    void flush() {
+        try {
+            submit(() -> null).get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            LOGGER.error("Timed out waiting for vote history writes", e);
+        }
+    }
+
+    static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path segmentFile(int id) {
+        return dir.resolve(String.format("%08d", id) + SEGMENT_SUFFIX);
+    }
+
+    private static long position(int segmentId, int index) {
+        return (long) segmentId << 32 | index;
+    }
+
+    private static int segmentId(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reads one segment front to back, stopping at the first bad record.
+     *
+     * @return bytes of the file that hold good records (header included), 0 if even the header
+     * is torn, -1 if the header isn't ours
+     */
+    private static long readSegment(Path file, RecordSink sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            try {
+                if (in.readInt() != MAGIC || in.readUnsignedByte() != FORMAT_VERSION) {
+                    return -1;
+                }
+            } catch (EOFException e) {
+                return 0;
+            }
+
+            long good = HEADER_BYTES;
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return good;
+                }
+
+                VoteHistoryEntry entry;
+                try {
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        throw new IOException("bad record length " + length);
+                    }
+                    int expectedCrc = in.readInt();
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    entry = decodeChecked(payload, expectedCrc, crc);
+                } catch (IOException e) {
+                    LOGGER.debug("Vote history segment {} ends in a bad record: {}", file.getFileName(), e.getMessage());
+                    return good;
+                }
+                sink.accept(entry, RECORD_OVERHEAD + length);
+                good += RECORD_OVERHEAD + length;
+            }
+        }
+    }
+
+    private static VoteHistoryEntry decodeChecked(byte[] payload, int expectedCrc, CRC32 crc) throws IOException {
+        crc.reset();
+        crc.update(payload, 0, payload.length);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("checksum mismatch");
+        }
+        return decode(payload);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("vote history segment is truncated");
+            }
+        }
+    }
+
+    private static byte[] encodeRecord(VoteHistoryEntry entry) throws IOException {
+        byte[] payload = encode(entry);
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + payload.length);
+        record.putInt(payload.length);
+        record.putInt((int) crc.getValue());
+        record.put(payload);
+        return record.array();
+    }
+
+    private static byte[] encode(VoteHistoryEntry entry) throws IOException {
+        UUID initiator = parseUuid(entry.initiatorUuid);
+        UUID target = parseUuid(entry.targetUuid);
+
+        int flags = 0;
+        if (initiator != null) flags |= HAS_INITIATOR_UUID;
+        if (target != null) flags |= HAS_TARGET_UUID;
+        if (entry.endedBy != null) flags |= HAS_ENDED_BY;
+        if (entry.outcome != null) flags |= HAS_OUTCOME;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(flags);
+        out.writeLong(entry.timestamp);
+        writeVarInt(out, entry.yesVotes);
+        writeVarInt(out, entry.noVotes);
+        writeVarInt(out, entry.votesNeeded);
+        writeVarInt(out, entry.totalEligible);
+        if (initiator != null) {
+            out.writeLong(initiator.getMostSignificantBits());
+            out.writeLong(initiator.getLeastSignificantBits());
+        }
+        if (target != null) {
+            out.writeLong(target.getMostSignificantBits());
+            out.writeLong(target.getLeastSignificantBits());
+        }
+        out.writeUTF(nullToEmpty(entry.initiatorName));
+        out.writeUTF(nullToEmpty(entry.targetName));
+        out.writeUTF(nullToEmpty(entry.reason));
+        if (entry.outcome != null) {
+            // by name so reordering the enum can't rewrite old history
+            out.writeUTF(entry.outcome.name());
+        }
+        if (entry.endedBy != null) {
+            out.writeUTF(entry.endedBy);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static VoteHistoryEntry decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int flags = in.readUnsignedByte();
+
+        VoteHistoryEntry entry = new VoteHistoryEntry();
+        entry.timestamp = in.readLong();
+        entry.yesVotes = readVarInt(in);
+        entry.noVotes = readVarInt(in);
+        entry.votesNeeded = readVarInt(in);
+        entry.totalEligible = readVarInt(in);
+        if ((flags & HAS_INITIATOR_UUID) != 0) {
+            entry.initiatorUuid = new UUID(in.readLong(), in.readLong()).toString();
+        }
+        if ((flags & HAS_TARGET_UUID) != 0) {
+            entry.targetUuid = new UUID(in.readLong(), in.readLong()).toString();
+        }
+        entry.initiatorName = in.readUTF();
+        entry.targetName = in.readUTF();
+        entry.reason = in.readUTF();
+        if ((flags & HAS_OUTCOME) != 0) {
+            entry.outcome = parseOutcome(in.readUTF());
+        }
+        if ((flags & HAS_ENDED_BY) != 0) {
+            entry.endedBy = in.readUTF();
+        }
+        return entry;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("varint too long");
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static VoteOutcome parseOutcome(String name) {
+        try {
+            return VoteOutcome.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    @FunctionalInterface
+    interface IoTask<T> {
+        T run() throws Exception;
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(VoteHistoryEntry entry) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RecordSink {
+        void accept(VoteHistoryEntry entry, int recordBytes) throws IOException;
+    }
+
+    // one file, with the offset of every OFFSET_STRIDE-th record
+    private static final class Segment {
+        final int id;
+        final Path file;
+        final long firstSeq;
+        int count;
+        // end of the last record, queued or written
+        long bytes = HEADER_BYTES;
+        long[] offsets = new long[SEGMENT_RECORDS / OFFSET_STRIDE];
+
+        Segment(int id, Path file, long firstSeq) {
+            this.id = id;
+            this.file = file;
+            this.firstSeq = firstSeq;
+        }
+
+        void added(int recordBytes) {
+            if (count % OFFSET_STRIDE == 0) {
+                int block = count / OFFSET_STRIDE;
+                if (block == offsets.length) {
+                    // adopted journals can run past SEGMENT_RECORDS
+                    offsets = Arrays.copyOf(offsets, offsets.length << 1);
+                }
+                offsets[block] = bytes;
+            }
+            count++;
+            bytes += recordBytes;
+        }
+
+        int blocks() {
+            return (count + OFFSET_STRIDE - 1) / OFFSET_STRIDE;
+        }
+    }
+
+    final class Reader implements Closeable {
+        private final CRC32 crc = new CRC32();
+        private Segment segment;
+        private FileChannel channel;
+        // last block read, pages mostly hit the same one
+        private int block = -1;
+        private ByteBuffer data;
+
+        VoteHistoryEntry read(long seq) throws IOException {
+            Map.Entry<Long, Segment> found = segments.floorEntry(seq);
+            if (found == null || seq >= found.getKey() + found.getValue().count) {
+                throw new IOException("vote history has no record " + seq);
+            }
+            if (found.getValue() != segment) {
+                close();
+                segment = found.getValue();
+                channel = FileChannel.open(segment.file, StandardOpenOption.READ);
+            }
+
+            int local = (int) (seq - segment.firstSeq);
+            int wanted = local / OFFSET_STRIDE;
+            if (wanted != block) {
+                long start = segment.offsets[wanted];
+                long end = wanted + 1 < segment.blocks() ? segment.offsets[wanted + 1] : segment.bytes;
+                // the tail of the last block may still be queued
+                end = Math.min(end, channel.size());
+                data = ByteBuffer.allocate((int) Math.max(0, end - start));
+                readFully(channel, data, start);
+                data.flip();
+                block = wanted;
+            }
+
+            try {
+                ByteBuffer view = data.duplicate();
+                for (int skip = local % OFFSET_STRIDE; skip > 0; skip--) {
+                    int length = view.getInt();
+                    view.position(view.position() + 4 + length);
+                }
+                int length = view.getInt();
+                int expectedCrc = view.getInt();
+                if (length <= 0 || length > view.remaining()) {
+                    throw new IOException("bad record length " + length);
+                }
+                byte[] payload = new byte[length];
+                view.get(payload);
+                return decodeChecked(payload, expectedCrc, crc);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("vote history record " + seq + " is truncated", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            segment = null;
+            block = -1;
+            data = null;
+            if (channel != null) {
+                FileChannel open = channel;
+                channel = null;
+                open.close();
+            }
+        }
+    }
+
+    /**
+     * Some records, in order, spread over a run of segment files.
+     */
+    static final class Range {
+        private final List<Path> files;
+        private final long skip;
+        private final long limit;
+
+        private Range(List<Path> files, long skip, long limit) {
+            this.files = files;
+            this.skip = skip;
+            this.limit = limit;
+        }
+
+        /**
+         * Streams the records from disk. For the journal thread.
+         */
+        void forEach(EntryConsumer consumer) throws IOException {
+            long[] seen = {0};
+            for (Path file : files) {
+                if (seen[0] >= skip + limit) {
+                    break;
+                }
+                readSegment(file, (entry, recordBytes) -> {
+                    long index = seen[0]++;
+                    if (index >= skip && index < skip + limit) {
+                        consumer.accept(entry);
+                    }
+                });
+            }
+        }
+    }
+}
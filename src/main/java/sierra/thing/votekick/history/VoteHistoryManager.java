@@ -3,31 +3,63 @@ package sierra.thing.votekick.history;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sierra.thing.votekick.VoteKickMod;
 import sierra.thing.votekick.vote.VoteOutcome;
 import sierra.thing.votekick.vote.VoteSession;
+import sierra.thing.votekick.vote.VoteTally;
 
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntToLongFunction;
 
+/**
+ * Vote history: every entry lives in the on-disk journal, the index says where to find them,
+ * and only the newest few are kept in memory. Older pages are read back from disk. Running
+ * per-player totals are kept beside it in {@link VoteStatistics}.
+ */
 public class VoteHistoryManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
+    // entries kept in memory past the cache size while the journal catches up
+    private static final int MAX_UNWRITTEN_ENTRIES = 1024;
 
     private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-    private final File dataFile;
-    private final List<VoteHistoryEntry> entries = new ArrayList<>();
+    private final File legacyFile;
+    private final Path oldJournalFile;
+    private final File exportFile;
+    private final VoteHistoryJournal journal;
+    private final VoteHistoryIndex index = new VoteHistoryIndex();
+    private final VoteStatistics statistics;
+    // newest entries, from recentFirstSeq on
+    private final List<VoteHistoryEntry> recent = new ArrayList<>();
+    private long recentFirstSeq;
+    // segments before dropSegmentsBefore go once the statistics snapshot dropSegmentsAfter is on
+    // disk, since they can't be recounted from history that's gone. 0 when nothing is waiting
+    private long dropSegmentsBefore;
+    private long dropSegmentsAfter;
 
     public VoteHistoryManager() {
-        File configDir = VoteKickMod.platform().getConfigDir().toFile();
-        this.dataFile = new File(configDir, "votekick_history.json");
+        this(VoteKickMod.platform().getConfigDir().toFile());
+    }
+
+    public VoteHistoryManager(File configDir) {
+        this.legacyFile = new File(configDir, "votekick_history.json");
+        this.oldJournalFile = new File(configDir, "votekick_history.journal").toPath();
+        this.exportFile = new File(configDir, "votekick_history_export.json");
+        this.journal = new VoteHistoryJournal(new File(configDir, "votekick_history").toPath());
+        this.statistics = new VoteStatistics(configDir);
     }
 
     public void recordSession(VoteSession session, VoteOutcome outcome, String endedBy) {
@@ -35,15 +67,16 @@ public class VoteHistoryManager {
             return;
         }
 
+        VoteTally.Snapshot counts = session.getTallySnapshot();
         VoteHistoryEntry entry = new VoteHistoryEntry(
-                System.currentTimeMillis(),
+                VoteKickMod.getClock().wallMillis(),
                 session.getInitiatorName(),
                 session.getInitiatorUUID().toString(),
                 session.getTargetName(),
                 session.getTargetUUID().toString(),
                 session.getKickReason(),
-                session.getYesVotes(),
-                session.getNoVotes(),
+                counts.yesVotes(),
+                counts.noVotes(),
                 session.getTotalVotesNeeded(),
                 session.getTotalEligibleVoters(),
                 outcome,
@@ -58,93 +91,305 @@ public class VoteHistoryManager {
             return;
         }
 
-        entries.add(entry);
+        if (add(entry)) {
+            statistics.record(entry, journal.endPosition());
+        }
         prune();
-        save();
+        trimRecent();
     }
 
+    /**
+     * Scans the journal to rebuild the index and the in-memory tail. Older formats are
+     * imported the first time.
+     */
     public void load() {
-        entries.clear();
+        index.clear();
+        recent.clear();
+        recentFirstSeq = 0;
+        dropSegmentsAfter = 0;
 
-        if (!dataFile.exists()) {
-            return;
-        }
-
-        try (FileReader reader = new FileReader(dataFile)) {
-            Type type = new TypeToken<List<VoteHistoryEntry>>() {}.getType();
-            List<VoteHistoryEntry> loaded = gson.fromJson(reader, type);
-            if (loaded != null) {
-                entries.addAll(loaded);
-                entries.sort((a, b) -> Long.compare(a.timestamp, b.timestamp));
+        // votes the saved statistics haven't counted yet, all of history without any
+        long countFrom = statistics.load();
+        int[] counted = {0};
+        List<VoteHistoryEntry> imported = null;
+        try {
+            if (!journal.exists()) {
+                if (Files.exists(oldJournalFile)) {
+                    journal.adopt(oldJournalFile);
+                    LOGGER.info("Moved {} into the segmented vote history", oldJournalFile.getFileName());
+                } else if (legacyFile.exists()) {
+                    imported = loadLegacy();
+                }
             }
 
-            if (VoteKickMod.getConfig().isHistoryEnabled()) {
-                prune();
-            }
+            int cached = VoteKickMod.getConfig().getHistoryCachedEntries();
+            journal.open((entry, position) -> {
+                index.add(entry);
+                recent.add(entry);
+                if (position >= countFrom) {
+                    statistics.record(entry, position + 1);
+                    counted[0]++;
+                }
+                // everything scanned is already on disk
+                dropRecentBefore(index.nextSeq() - cached);
+            });
         } catch (IOException e) {
             LOGGER.error("Failed to load vote history", e);
+            return;
         }
+
+        if (imported != null) {
+            for (VoteHistoryEntry entry : imported) {
+                if (add(entry) && journal.endPosition() > countFrom) {
+                    statistics.record(entry, journal.endPosition());
+                    counted[0]++;
+                }
+            }
+        }
+        if (counted[0] > 0) {
+            LOGGER.info("Counted {} votes from history into the statistics", counted[0]);
+        }
+        applyConfig();
     }
 
-    public void save() {
-        if (!VoteKickMod.getConfig().isHistoryEnabled()) {
-            return;
+    /**
+     * Applies changed history limits without rescanning the journal.
+     */
+    public void applyConfig() {
+        prune();
+        trimRecent();
+    }
+
+    // one-time import of the old pretty-printed json. the file itself is left alone
+    private List<VoteHistoryEntry> loadLegacy() throws IOException {
+        List<VoteHistoryEntry> loaded;
+        try (FileReader reader = new FileReader(legacyFile)) {
+            Type type = new TypeToken<List<VoteHistoryEntry>>() {}.getType();
+            loaded = gson.fromJson(reader, type);
+        }
+        if (loaded == null) {
+            loaded = new ArrayList<>();
         }
+        loaded.sort((a, b) -> Long.compare(a.timestamp, b.timestamp));
+        LOGGER.info("Imported {} vote history entries from {}", loaded.size(), legacyFile.getName());
+        return loaded;
+    }
 
-        try (FileWriter writer = new FileWriter(dataFile)) {
-            gson.toJson(entries, writer);
-        } catch (IOException e) {
-            LOGGER.error("Failed to save vote history", e);
+    private boolean add(VoteHistoryEntry entry) {
+        if (!journal.append(entry)) {
+            return false;
         }
+        index.add(entry);
+        recent.add(entry);
+        return true;
     }
 
+    public void tick() {
+        statistics.tick();
+        dropSegments();
+    }
+
+    /**
+     * Waits for queued journal writes and saves the statistics. Every vote is already on its
+     * way to disk when it's recorded, so this is only needed before shutdown.
+     */
+    public void save() {
+        journal.flush();
+        statistics.save();
+    }
+
+    public VoteStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Drops entries past the entry cap, or from hours wholly before the retention window.
+     * Journal segments go once nothing in them is left and the statistics counting them are
+     * saved, on this or a later tick.
+     */
     public void prune() {
         if (!VoteKickMod.getConfig().isHistoryEnabled()) {
             return;
         }
 
         long retentionMs = VoteKickMod.getConfig().getHistoryRetentionDays() * 24L * 60 * 60 * 1000;
-        long cutoff = System.currentTimeMillis() - retentionMs;
+        long cutoff = VoteKickMod.getClock().wallMillis() - retentionMs;
+
+        // entries are in timestamp order, so expired ones are all at the front
+        long expiredBefore = index.firstSeqAround(cutoff);
+        long overCapBefore = index.nextSeq() - VoteKickMod.getConfig().getHistoryMaxEntries();
+        long dropBefore = Math.max(expiredBefore, overCapBefore);
+        if (dropBefore > index.firstSeq()) {
+            index.dropOldest(dropBefore);
+        }
+        dropSegments();
+    }
+
+    private void dropSegments() {
+        if (dropSegmentsAfter == 0) {
+            if (journal.canDropBefore(index.firstSeq())) {
+                dropSegmentsBefore = index.firstSeq();
+                dropSegmentsAfter = statistics.requestSave();
+            }
+            return;
+        }
+        if (statistics.isSaved(dropSegmentsAfter)) {
+            journal.dropBefore(dropSegmentsBefore);
+            dropSegmentsAfter = 0;
+        }
+    }
 
-        entries.removeIf(entry -> entry.timestamp < cutoff);
+    // keeps the newest cached entries, plus any the journal hasn't written yet, up to a point:
+    // a journal that's stuck or far behind mustn't grow this without end
+    private void trimRecent() {
+        long newest = index.nextSeq() - VoteKickMod.getConfig().getHistoryCachedEntries();
+        long keepFrom = Math.max(Math.min(newest, journal.durableSeq()), newest - MAX_UNWRITTEN_ENTRIES);
+        dropRecentBefore(Math.max(keepFrom, index.firstSeq()));
+    }
 
-        int maxEntries = VoteKickMod.getConfig().getHistoryMaxEntries();
-        if (entries.size() > maxEntries) {
-            entries.subList(0, entries.size() - maxEntries).clear();
+    private void dropRecentBefore(long seq) {
+        int drop = (int) Math.min(recent.size(), seq - recentFirstSeq);
+        // in batches of at least half, so it stays cheap per entry
+        if (drop > 0 && drop * 2 >= recent.size()) {
+            recent.subList(0, drop).clear();
+            recentFirstSeq += drop;
         }
     }
 
+    /**
+     * Writes the current history as pretty-printed json for humans, streamed from disk off the
+     * server thread.
+     */
+    public CompletableFuture<File> exportJson() {
+        VoteHistoryJournal.Range range = journal.range(index.firstSeq(), index.nextSeq());
+        Path target = exportFile.toPath();
+        Path temp = target.resolveSibling(exportFile.getName() + ".tmp");
+
+        return journal.submit(() -> {
+            try (JsonWriter json = gson.newJsonWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+                json.beginArray();
+                range.forEach(entry -> gson.toJson(entry, VoteHistoryEntry.class, json));
+                json.endArray();
+            }
+            VoteHistoryJournal.moveIntoPlace(temp, target);
+            return exportFile;
+        });
+    }
+
     public int size() {
-        return entries.size();
+        return (int) (index.nextSeq() - index.firstSeq());
+    }
+
+    /**
+     * Entries held in memory, the rest are on disk only.
+     */
+    public int cachedSize() {
+        return recent.size();
     }
 
     public int getMaxPages(int pageSize) {
         if (pageSize <= 0) {
             return 1;
         }
-        int total = entries.size();
-        return Math.max(1, (int) Math.ceil(total / (double) pageSize));
+        return Math.max(1, (int) Math.ceil(size() / (double) pageSize));
     }
 
     public List<VoteHistoryEntry> getEntriesPage(int page, int pageSize) {
-        if (pageSize <= 0 || entries.isEmpty()) {
+        if (pageSize <= 0 || size() == 0) {
             return Collections.emptyList();
         }
+        long newest = index.nextSeq() - 1;
+        return page(size(), i -> newest - i, page, pageSize).entries();
+    }
+
+    /**
+     * Votes against this player, newest first.
+     */
+    public Page getTargetPage(String targetUuid, int page, int pageSize) {
+        return page(index.target(targetUuid), page, pageSize);
+    }
+
+    /**
+     * Votes this player started, newest first.
+     */
+    public Page getInitiatorPage(String initiatorUuid, int page, int pageSize) {
+        return page(index.initiator(initiatorUuid), page, pageSize);
+    }
+
+    public Page getOutcomePage(VoteOutcome outcome, int page, int pageSize) {
+        return page(index.outcome(outcome), page, pageSize);
+    }
 
-        int total = entries.size();
-        int maxPage = getMaxPages(pageSize);
+    /**
+     * Votes recorded at or after {@code since} (wall time), newest first.
+     */
+    public Page getSincePage(long since, int page, int pageSize) {
+        long end = index.nextSeq();
+        long start = index.firstSeqAround(since);
+        // only the first hour can be partly before since
+        try (VoteHistoryJournal.Reader reader = journal.reader()) {
+            while (start < end && entryAt(reader, start).timestamp < since) {
+                start++;
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to read vote history", e);
+        }
+        long first = start;
+        return page((int) (end - first), i -> end - 1 - i, page, pageSize);
+    }
+
+    /**
+     * A UUID as is, or the UUID last seen in history under this name (or in the statistics,
+     * which outlive history).
+     *
+     * @return the uuid string, null if neither
+     */
+    public String resolvePlayer(String nameOrUuid) {
+        try {
+            return UUID.fromString(nameOrUuid).toString();
+        } catch (IllegalArgumentException e) {
+            String uuid = index.uuidForName(nameOrUuid);
+            return uuid != null ? uuid : statistics.uuidForName(nameOrUuid);
+        }
+    }
+
+    private Page page(VoteHistoryIndex.Postings postings, int page, int pageSize) {
+        if (postings == null) {
+            return page(0, i -> 0, page, pageSize);
+        }
+        return page(postings.size(), postings::newest, page, pageSize);
+    }
+
+    // newestSeq maps 0..total-1 (newest first) to sequence numbers; only the requested page is touched
+    private Page page(int total, IntToLongFunction newestSeq, int page, int pageSize) {
+        int size = Math.max(1, pageSize);
+        int maxPage = Math.max(1, (total + size - 1) / size);
         int pageIndex = Math.min(Math.max(page, 1), maxPage) - 1;
+        int from = pageIndex * size;
+        int to = Math.min(total, from + size);
 
-        int endExclusive = total - (pageIndex * pageSize);
-        int startInclusive = Math.max(0, endExclusive - pageSize);
+        List<VoteHistoryEntry> result = new ArrayList<>(Math.max(0, to - from));
+        try (VoteHistoryJournal.Reader reader = journal.reader()) {
+            for (int i = from; i < to; i++) {
+                result.add(entryAt(reader, newestSeq.applyAsLong(i)));
+            }
+        } catch (IOException e) {
+            // whatever was read still shows
+            LOGGER.error("Failed to read vote history", e);
+        }
+        return new Page(result, pageIndex + 1, maxPage, total);
+    }
 
-        if (startInclusive >= endExclusive) {
-            return Collections.emptyList();
+    private VoteHistoryEntry entryAt(VoteHistoryJournal.Reader reader, long seq) throws IOException {
+        if (seq >= recentFirstSeq) {
+            return recent.get((int) (seq - recentFirstSeq));
         }
+        return reader.read(seq);
+    }
 
-        List<VoteHistoryEntry> slice = entries.subList(startInclusive, endExclusive);
-        List<VoteHistoryEntry> result = new ArrayList<>(slice);
-        Collections.reverse(result);
-        return result;
+    /**
+     * One page of a query, with the page number clamped into range.
+     */
+    public record Page(List<VoteHistoryEntry> entries, int page, int maxPage, int total) {
     }
 }
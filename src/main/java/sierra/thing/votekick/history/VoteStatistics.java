@@ -0,0 +1,368 @@
+package sierra.thing.votekick.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sierra.thing.votekick.VoteKickMod;
+import sierra.thing.votekick.persistence.WriteBehindFile;
+import sierra.thing.votekick.vote.VoteOutcome;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Running vote counts per player and for the whole server, bumped as each vote is recorded so
+ * nothing ever has to scan history. They cover every vote since they started, not just what
+ * history still holds.
+ *
+ * Players are also kept in two rankings, by votes against them and by votes they started, so a
+ * top list is a walk over the first few. Saved to votekick_history_stats.bin together with the
+ * journal position they've counted up to; on load whatever history came after it gets counted,
+ * or all of it when the file is missing or unreadable. Server thread only.
+ */
+public class VoteStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
+
+    private static final int MAGIC = 0x564B5354; // "VKST"
+    private static final int FORMAT_VERSION = 2;
+    // votes end a few times a minute at most
+    private static final int SAVE_INTERVAL_TICKS = 200;
+
+    private static final Comparator<Counters> BY_TARGETED = Comparator
+            .comparingInt((Counters c) -> -c.targeted)
+            .thenComparing(c -> c.uuid);
+    private static final Comparator<Counters> BY_INITIATED = Comparator
+            .comparingInt((Counters c) -> -c.initiated)
+            .thenComparing(c -> c.uuid);
+
+    private final File dataFile;
+    private final WriteBehindFile<Snapshot> persistence;
+    private final Map<String, Counters> players = new HashMap<>();
+    // only players with a nonzero count, so re-sort on every change: out, update, back in
+    private final TreeSet<Counters> byTargeted = new TreeSet<>(BY_TARGETED);
+    private final TreeSet<Counters> byInitiated = new TreeSet<>(BY_INITIATED);
+    // lowercase name -> uuid, latest wins
+    private final Map<String, String> uuidByName = new HashMap<>();
+    private final Counters totals = new Counters("", "");
+    // journal position of the first vote not counted yet
+    private long historyPosition;
+
+    public VoteStatistics(File configDir) {
+        this.dataFile = new File(configDir, "votekick_history_stats.bin");
+        this.persistence = new WriteBehindFile<>("history-stats", dataFile.toPath(), SAVE_INTERVAL_TICKS,
+                this::snapshot, VoteStatistics::write);
+    }
+
+    /**
+     * Counts a finished vote against its target and initiator.
+     *
+     * @param historyPosition journal position just past the vote's record
+     */
+    void record(VoteHistoryEntry entry, long historyPosition) {
+        if (entry == null) {
+            return;
+        }
+        this.historyPosition = historyPosition;
+
+        boolean passed = entry.outcome != null && entry.outcome.shouldKick();
+        boolean failed = entry.outcome == VoteOutcome.FAILED;
+        int ballots = entry.yesVotes + entry.noVotes;
+        double yesRatio = ballots > 0 ? entry.yesVotes / (double) ballots : 0;
+
+        totals.countTargeted(passed, failed, ballots, yesRatio);
+        totals.initiated++;
+
+        if (entry.targetUuid != null) {
+            Counters target = player(entry.targetUuid, entry.targetName);
+            byTargeted.remove(target);
+            target.countTargeted(passed, failed, ballots, yesRatio);
+            byTargeted.add(target);
+        }
+        if (entry.initiatorUuid != null) {
+            Counters initiator = player(entry.initiatorUuid, entry.initiatorName);
+            byInitiated.remove(initiator);
+            initiator.initiated++;
+            if (passed) {
+                initiator.initiatedPassed++;
+            }
+            byInitiated.add(initiator);
+        }
+        persistence.markDirty();
+    }
+
+    /**
+     * @return the player's counts, null if they were never part of a vote
+     */
+    public PlayerStats get(String uuid) {
+        Counters counters = uuid == null ? null : players.get(uuid);
+        return counters == null ? null : counters.toStats();
+    }
+
+    public PlayerStats totals() {
+        return totals.toStats();
+    }
+
+    /**
+     * The {@code limit} players with the most votes against them, or started by them.
+     */
+    public List<PlayerStats> top(boolean byInitiated, int limit) {
+        List<PlayerStats> result = new ArrayList<>(Math.max(0, limit));
+        for (Counters counters : byInitiated ? this.byInitiated : byTargeted) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(counters.toStats());
+        }
+        return result;
+    }
+
+    public int playerCount() {
+        return players.size();
+    }
+
+    String uuidForName(String name) {
+        return name == null ? null : uuidByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return journal position the saved counts run up to, the caller counts history from there.
+     * 0 without a usable file, so everything gets counted
+     */
+    long load() {
+        clear();
+        if (!dataFile.exists()) {
+            return 0;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dataFile.toPath())))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != FORMAT_VERSION) {
+                LOGGER.warn("Ignoring {}, unknown format. Counting vote history again", dataFile.getName());
+                return 0;
+            }
+            long position = in.readLong();
+            totals.read(in);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String uuid = new UUID(in.readLong(), in.readLong()).toString();
+                Counters counters = player(uuid, in.readUTF());
+                counters.read(in);
+                index(counters);
+            }
+            LOGGER.info("Loaded vote statistics for {} players", players.size());
+            historyPosition = position;
+            return position;
+        } catch (IOException e) {
+            // partial counts would be off for good, start over instead
+            LOGGER.error("Failed to load vote statistics, counting vote history again", e);
+            clear();
+            return 0;
+        }
+    }
+
+    void tick() {
+        persistence.tick();
+    }
+
+    /**
+     * Asks for the counts to be written on a later tick.
+     *
+     * @return the snapshot that will hold everything counted so far, see {@link #isSaved}
+     */
+    long requestSave() {
+        persistence.markDirty();
+        return persistence.takenSnapshots() + 1;
+    }
+
+    boolean isSaved(long snapshot) {
+        return persistence.writtenSnapshot() >= snapshot;
+    }
+
+    /**
+     * @return false if the counts couldn't be written
+     */
+    boolean save() {
+        return persistence.flush();
+    }
+
+    private void clear() {
+        players.clear();
+        byTargeted.clear();
+        byInitiated.clear();
+        uuidByName.clear();
+        totals.reset();
+        historyPosition = 0;
+    }
+
+    private Counters player(String uuid, String name) {
+        Counters counters = players.computeIfAbsent(uuid, key -> new Counters(key, ""));
+        if (name != null && !name.isEmpty()) {
+            counters.name = name;
+            uuidByName.put(name.toLowerCase(Locale.ROOT), uuid);
+        }
+        return counters;
+    }
+
+    private void index(Counters counters) {
+        if (counters.targeted > 0) {
+            byTargeted.add(counters);
+        }
+        if (counters.initiated > 0) {
+            byInitiated.add(counters);
+        }
+    }
+
+    private Snapshot snapshot() {
+        List<Counters> copies = new ArrayList<>(players.size());
+        for (Counters counters : players.values()) {
+            copies.add(counters.copy());
+        }
+        return new Snapshot(historyPosition, totals.copy(), copies);
+    }
+
+    private static void write(Snapshot snapshot, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(FORMAT_VERSION);
+        data.writeLong(snapshot.historyPosition);
+        snapshot.totals.write(data);
+
+        List<Counters> valid = new ArrayList<>(snapshot.players.size());
+        for (Counters counters : snapshot.players) {
+            if (parseUuid(counters.uuid) != null) {
+                valid.add(counters);
+            }
+        }
+        data.writeInt(valid.size());
+        for (Counters counters : valid) {
+            UUID uuid = parseUuid(counters.uuid);
+            data.writeLong(uuid.getMostSignificantBits());
+            data.writeLong(uuid.getLeastSignificantBits());
+            data.writeUTF(counters.name);
+            counters.write(data);
+        }
+        data.flush();
+    }
+
+    private static UUID parseUuid(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * One player's counts, or the server's (no uuid or name then). Canceled votes count as
+     * targeted but neither passed nor failed. The yes ratio is averaged over votes that got at
+     * least one ballot.
+     */
+    public record PlayerStats(String uuid, String name, int targeted, int targetedPassed, int targetedFailed,
+                              int initiated, int initiatedPassed, double averageYesRatio) {
+        /**
+         * Share of the votes against this player that passed.
+         */
+        public double passRate() {
+            return targeted == 0 ? 0 : targetedPassed / (double) targeted;
+        }
+
+        /**
+         * Share of the votes this player started that passed.
+         */
+        public double initiatedPassRate() {
+            return initiated == 0 ? 0 : initiatedPassed / (double) initiated;
+        }
+    }
+
+    private static final class Counters {
+        final String uuid;
+        String name;
+        int targeted;
+        int targetedPassed;
+        int targetedFailed;
+        // targeted votes with any ballots, what yesRatioSum is averaged over
+        int rated;
+        double yesRatioSum;
+        int initiated;
+        int initiatedPassed;
+
+        Counters(String uuid, String name) {
+            this.uuid = uuid;
+            this.name = name;
+        }
+
+        void countTargeted(boolean passed, boolean failed, int ballots, double yesRatio) {
+            targeted++;
+            if (passed) {
+                targetedPassed++;
+            } else if (failed) {
+                targetedFailed++;
+            }
+            if (ballots > 0) {
+                rated++;
+                yesRatioSum += yesRatio;
+            }
+        }
+
+        PlayerStats toStats() {
+            return new PlayerStats(uuid, name, targeted, targetedPassed, targetedFailed,
+                    initiated, initiatedPassed, rated == 0 ? 0 : yesRatioSum / rated);
+        }
+
+        Counters copy() {
+            Counters copy = new Counters(uuid, name);
+            copy.targeted = targeted;
+            copy.targetedPassed = targetedPassed;
+            copy.targetedFailed = targetedFailed;
+            copy.rated = rated;
+            copy.yesRatioSum = yesRatioSum;
+            copy.initiated = initiated;
+            copy.initiatedPassed = initiatedPassed;
+            return copy;
+        }
+
+        void reset() {
+            targeted = 0;
+            targetedPassed = 0;
+            targetedFailed = 0;
+            rated = 0;
+            yesRatioSum = 0;
+            initiated = 0;
+            initiatedPassed = 0;
+        }
+
+        void write(DataOutputStream data) throws IOException {
+            data.writeInt(targeted);
+            data.writeInt(targetedPassed);
+            data.writeInt(targetedFailed);
+            data.writeInt(rated);
+            data.writeDouble(yesRatioSum);
+            data.writeInt(initiated);
+            data.writeInt(initiatedPassed);
+        }
+
+        void read(DataInputStream in) throws IOException {
+            targeted = in.readInt();
+            targetedPassed = in.readInt();
+            targetedFailed = in.readInt();
+            rated = in.readInt();
+            yesRatioSum = in.readDouble();
+            initiated = in.readInt();
+            initiatedPassed = in.readInt();
+        }
+    }
+
+    private record Snapshot(long historyPosition, Counters totals, List<Counters> players) {
+    }
+}
@@ -17,8 +17,9 @@ import net.minecraft.network.codec.StreamCodec;
 
 /**
  * Payload sent from client to server when a player casts a vote.
+ * Only sent compact once the server acked it, since old servers read the first byte as a boolean.
  */
-public record CastVotePayload(boolean voteYes)
+public record CastVotePayload(boolean voteYes, int sessionId, int wireVersion)
         //? if >=1.20.2 {
         /*implements CustomPacketPayload
         *///?}
@@ -17,9 +17,9 @@ import net.minecraft.network.codec.StreamCodec;
 
 /**
  * Simple packet to tell the client to close the vote UI.
- * Sent when votes finish or are cancelled.
+ * Sent when votes finish or are cancelled. Legacy peers get an empty body and close whatever is open.
  */
-public record HideVotePanelPayload()
+public record HideVotePanelPayload(int sessionId, int wireVersion)
         //? if >=1.20.2 {
         /*implements CustomPacketPayload
         *///?}
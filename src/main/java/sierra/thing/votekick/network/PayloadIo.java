@@ -2,21 +2,81 @@ package sierra.thing.votekick.network;
 
 import net.minecraft.network.FriendlyByteBuf;
 
+/**
+ * Reads and writes every payload, in whichever {@link WireFormat} the payload (or the connection) uses.
+ *
+ * Compact layouts:
+ * <pre>
+ * show:   flags, varint session, title, subtitle, varint time, yes, no, needed
+ * update: varint session, varint time, yes, no
+ * hide:   varint session
+ * cast:   0x80 | yes bit, varint session
+ * </pre>
+ * Counters are tiny, so varints bring an update down from 12 bytes to about 4.
+ */
 public final class PayloadIo {
     private static final int MAX_STRING_LENGTH = 256;
 
+    private static final int FLAG_TARGET = 1;
+
+    // legacy cast votes are a plain boolean byte (0 or 1), so the high bit
+    // marks the compact layout without needing to know who sent it
+    private static final int CAST_COMPACT = 0x80;
+    private static final int CAST_YES = 1;
+
     private PayloadIo() {
     }
 
+    public static void writePresence(FriendlyByteBuf buf, PresencePayload payload) {
+        buf.writeVarInt(payload.wireVersion());
+        buf.writeBoolean(payload.acknowledged());
+    }
+
+    public static PresencePayload readPresence(FriendlyByteBuf buf) {
+        return new PresencePayload(buf.readVarInt(), buf.readBoolean());
+    }
+
+    /**
+     * Client-side read of the server's reply. Switching here rather than in the handler means the
+     * panel packets queued right behind this one already decode with the new layout.
+     */
+    public static PresencePayload readPresenceFromServer(FriendlyByteBuf buf) {
+        PresencePayload payload = readPresence(buf);
+        if (payload.acknowledged()) {
+            WireFormat.acceptServerVersion(payload.wireVersion());
+        }
+        return payload;
+    }
+
     public static void writeCastVote(FriendlyByteBuf buf, CastVotePayload payload) {
+        if (payload.wireVersion() >= WireFormat.COMPACT) {
+            buf.writeByte(CAST_COMPACT | (payload.voteYes() ? CAST_YES : 0));
+            buf.writeVarInt(payload.sessionId());
+            return;
+        }
         buf.writeBoolean(payload.voteYes());
     }
 
     public static CastVotePayload readCastVote(FriendlyByteBuf buf) {
-        return new CastVotePayload(buf.readBoolean());
+        int header = buf.readUnsignedByte();
+        if ((header & CAST_COMPACT) != 0) {
+            return new CastVotePayload((header & CAST_YES) != 0, buf.readVarInt(), WireFormat.COMPACT);
+        }
+        return new CastVotePayload(header != 0, 0, WireFormat.LEGACY);
     }
 
     public static void writeShowVotePanel(FriendlyByteBuf buf, ShowVotePanelPayload payload) {
+        if (payload.wireVersion() >= WireFormat.COMPACT) {
+            buf.writeByte(payload.isTarget() ? FLAG_TARGET : 0);
+            buf.writeVarInt(payload.sessionId());
+            writeString(buf, payload.title());
+            writeString(buf, payload.subtitle());
+            writeCount(buf, payload.time());
+            writeCount(buf, payload.yesVotes());
+            writeCount(buf, payload.noVotes());
+            writeCount(buf, payload.votesNeeded());
+            return;
+        }
         writeString(buf, payload.title());
         writeString(buf, payload.subtitle());
         buf.writeInt(payload.time());
@@ -27,36 +87,84 @@ public final class PayloadIo {
     }
 
     public static ShowVotePanelPayload readShowVotePanel(FriendlyByteBuf buf) {
+        int version = WireFormat.clientVersion();
+        if (version >= WireFormat.COMPACT) {
+            int flags = buf.readUnsignedByte();
+            return new ShowVotePanelPayload(
+                    buf.readVarInt(),
+                    readString(buf),
+                    readString(buf),
+                    buf.readVarInt(),
+                    buf.readVarInt(),
+                    buf.readVarInt(),
+                    buf.readVarInt(),
+                    (flags & FLAG_TARGET) != 0,
+                    version
+            );
+        }
         return new ShowVotePanelPayload(
+                0,
                 readString(buf),
                 readString(buf),
                 buf.readInt(),
                 buf.readInt(),
                 buf.readInt(),
                 buf.readInt(),
-                buf.readBoolean()
+                buf.readBoolean(),
+                WireFormat.LEGACY
         );
     }
 
     public static void writeUpdateVotePanel(FriendlyByteBuf buf, UpdateVotePanelPayload payload) {
+        if (payload.wireVersion() >= WireFormat.COMPACT) {
+            buf.writeVarInt(payload.sessionId());
+            writeCount(buf, payload.time());
+            writeCount(buf, payload.yesVotes());
+            writeCount(buf, payload.noVotes());
+            return;
+        }
         buf.writeInt(payload.time());
         buf.writeInt(payload.yesVotes());
         buf.writeInt(payload.noVotes());
     }
 
     public static UpdateVotePanelPayload readUpdateVotePanel(FriendlyByteBuf buf) {
+        int version = WireFormat.clientVersion();
+        if (version >= WireFormat.COMPACT) {
+            return new UpdateVotePanelPayload(
+                    buf.readVarInt(),
+                    buf.readVarInt(),
+                    buf.readVarInt(),
+                    buf.readVarInt(),
+                    version
+            );
+        }
         return new UpdateVotePanelPayload(
+                0,
                 buf.readInt(),
                 buf.readInt(),
-                buf.readInt()
+                buf.readInt(),
+                WireFormat.LEGACY
         );
     }
 
     public static void writeHideVotePanel(FriendlyByteBuf buf, HideVotePanelPayload payload) {
+        if (payload.wireVersion() >= WireFormat.COMPACT) {
+            buf.writeVarInt(payload.sessionId());
+        }
     }
 
     public static HideVotePanelPayload readHideVotePanel(FriendlyByteBuf buf) {
-        return new HideVotePanelPayload();
+        int version = WireFormat.clientVersion();
+        if (version >= WireFormat.COMPACT) {
+            return new HideVotePanelPayload(buf.readVarInt(), version);
+        }
+        return new HideVotePanelPayload(0, WireFormat.LEGACY);
+    }
+
+    // varints don't do negatives well (always 5 bytes), and none of these should ever be negative anyway
+    private static void writeCount(FriendlyByteBuf buf, int value) {
+        buf.writeVarInt(Math.max(0, value));
     }
 
     private static void writeString(FriendlyByteBuf buf, String str) {
@@ -28,6 +28,8 @@ public final class PayloadRegistry {
         PayloadTypeRegistry<RegistryFriendlyByteBuf> serverToClient = PayloadTypeRegistry.playS2C();
 
         clientToServer.register(CastVotePayload.TYPE, CastVotePayload.STREAM_CODEC);
+        clientToServer.register(PresencePayload.TYPE, PresencePayload.STREAM_CODEC);
+        serverToClient.register(PresencePayload.TYPE, PresencePayload.CLIENTBOUND_STREAM_CODEC);
         serverToClient.register(ShowVotePanelPayload.TYPE, ShowVotePanelPayload.STREAM_CODEC);
         serverToClient.register(UpdateVotePanelPayload.TYPE, UpdateVotePanelPayload.STREAM_CODEC);
         serverToClient.register(HideVotePanelPayload.TYPE, HideVotePanelPayload.STREAM_CODEC);
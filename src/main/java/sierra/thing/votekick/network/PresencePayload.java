@@ -0,0 +1,55 @@
+package sierra.thing.votekick.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+//? if >=1.21.11 {
+/*import net.minecraft.resources.Identifier;
+*///?} else {
+import net.minecraft.resources.ResourceLocation;
+//?}
+import sierra.thing.votekick.VoteKickMod;
+//? if >=1.20.2 {
+/*import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+//? if >=1.20.6 {
+/^import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+^///?}
+*///?}
+
+/**
+ * Handshake on the presence channel. The client sends the newest wire format it can read,
+ * the server replies with {@code acknowledged} set and the version it settled on.
+ */
+public record PresencePayload(int wireVersion, boolean acknowledged)
+        //? if >=1.20.2 {
+        /*implements CustomPacketPayload
+        *///?}
+{
+    //? if >=1.21.11 {
+    /*public static final Identifier ID = VoteKickMod.MOD_PRESENCE_CHANNEL;
+    *///?} else {
+    public static final ResourceLocation ID = VoteKickMod.MOD_PRESENCE_CHANNEL;
+    //?}
+
+    //? if >=1.20.6 {
+    /*public static final CustomPacketPayload.Type<PresencePayload> TYPE = new CustomPacketPayload.Type<>(ID);
+    public static final StreamCodec<RegistryFriendlyByteBuf, PresencePayload> STREAM_CODEC =
+            StreamCodec.of(PayloadIo::writePresence, PayloadIo::readPresence);
+    public static final StreamCodec<RegistryFriendlyByteBuf, PresencePayload> CLIENTBOUND_STREAM_CODEC =
+            StreamCodec.of(PayloadIo::writePresence, PayloadIo::readPresenceFromServer);
+
+    @Override
+    public CustomPacketPayload.Type<?> type() {
+        return TYPE;
+    }
+    *///?} else if >=1.20.2 {
+    /*@Override
+    public ResourceLocation id() {
+        return ID;
+    }
+
+    @Override
+    public void write(FriendlyByteBuf buf) {
+        PayloadIo.writePresence(buf, this);
+    }
+    *///?}
+}
@@ -17,15 +17,18 @@ import net.minecraft.network.codec.StreamCodec;
 
 /**
  * Payload sent from server to client to show the vote panel with initial data.
+ * {@code wireVersion} picks the layout {@link PayloadIo} writes; see {@link WireFormat}.
  */
 public record ShowVotePanelPayload(
+        int sessionId,
         String title,
         String subtitle,
         int time,
         int yesVotes,
         int noVotes,
         int votesNeeded,
-        boolean isTarget
+        boolean isTarget,
+        int wireVersion
 )
         //? if >=1.20.2 {
         /*implements CustomPacketPayload
@@ -17,11 +17,15 @@ import net.minecraft.network.codec.StreamCodec;
 
 /**
  * Payload sent from server to client to update vote panel with current vote counts.
+ * {@code sessionId} points back at the panel opened by {@link ShowVotePanelPayload};
+ * it's 0 when the peer speaks the legacy format, which just means "the open panel".
  */
 public record UpdateVotePanelPayload(
+        int sessionId,
         int time,
         int yesVotes,
-        int noVotes
+        int noVotes,
+        int wireVersion
 )
         //? if >=1.20.2 {
         /*implements CustomPacketPayload
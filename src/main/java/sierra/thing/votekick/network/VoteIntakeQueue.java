@@ -0,0 +1,108 @@
+package sierra.thing.votekick.network;
+
+import net.minecraft.server.level.ServerPlayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sierra.thing.votekick.VoteKickMod;
+import sierra.thing.votekick.commands.VoteKickCommand;
+import sierra.thing.votekick.ratelimit.RateLimitAction;
+import sierra.thing.votekick.ratelimit.VoteKickRateLimiter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Votes cast from the panel, on their way from the network threads to the server thread.
+ *
+ * Packet handlers call {@link #offer} right where the payload is decoded, which rate limits and
+ * drops the obviously useless ones without scheduling anything on the server. The server thread
+ * takes everything in one batch per tick with {@link #drain()}, before {@link
+ * sierra.thing.votekick.vote.VoteEngine#tick} sends one panel update per session for the lot.
+ * Many producers, one consumer.
+ */
+public final class VoteIntakeQueue {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
+
+    // far more than a server can produce in a tick; past this something is flooding us
+    private static final int MAX_PENDING = 4096;
+
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile boolean accepting = true;
+
+    /**
+     * Queues a vote from any thread.
+     *
+     * @return false if it was dropped (no player, rate limited, queue full, server stopping)
+     */
+    public boolean offer(ServerPlayer player, CastVotePayload payload) {
+        if (!accepting || player == null || payload == null || payload.sessionId() < 0) {
+            return false;
+        }
+        if (!VoteKickRateLimiter.allow(player, RateLimitAction.CAST_VOTE)) {
+            return false;
+        }
+        if (size.incrementAndGet() > MAX_PENDING) {
+            size.decrementAndGet();
+            LOGGER.warn("Vote intake queue is full, dropping vote from {}", player.getScoreboardName());
+            return false;
+        }
+
+        pending.add(new Entry(player, payload.voteYes(), payload.sessionId()));
+        return true;
+    }
+
+    /**
+     * Casts every vote queued so far. Server thread only. Votes that arrive while this runs
+     * wait for the next tick.
+     *
+     * @return how many were taken off the queue
+     */
+    public int drain() {
+        int count = size.get();
+        for (int i = 0; i < count; i++) {
+            Entry entry = pending.poll();
+            if (entry == null) {
+                break;
+            }
+            size.decrementAndGet();
+
+            // they may have left between the packet and this tick
+            if (entry.player.hasDisconnected()) {
+                continue;
+            }
+            try {
+                VoteKickCommand.castVote(entry.player, entry.voteYes, entry.sessionId);
+            } catch (Exception e) {
+                LOGGER.error("Error casting queued vote for {}", entry.player.getScoreboardName(), e);
+            }
+        }
+        return count;
+    }
+
+    public void open() {
+        accepting = true;
+    }
+
+    /**
+     * Stops taking votes and drops whatever is still queued.
+     */
+    public void close() {
+        accepting = false;
+        clear();
+    }
+
+    public void clear() {
+        while (pending.poll() != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private record Entry(ServerPlayer player, boolean voteYes, int sessionId) {
+    }
+}
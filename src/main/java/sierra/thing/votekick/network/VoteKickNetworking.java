@@ -9,12 +9,15 @@ import net.minecraft.network.FriendlyByteBuf;
 /*//? if >=1.21.8 {
 /^import net.neoforged.neoforge.client.network.ClientPacketDistributor;
 ^///?}
+import net.minecraft.network.protocol.common.ClientboundCustomPayloadPacket;
 import net.neoforged.neoforge.network.PacketDistributor;
 *///?}
+import net.minecraft.network.protocol.Packet;
 import net.minecraft.server.level.ServerPlayer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sierra.thing.votekick.VoteKickMod;
+import sierra.thing.votekick.vote.VoteEngine;
 
 import java.util.UUID;
 
@@ -25,9 +28,9 @@ import java.util.UUID;
 public class VoteKickNetworking {
     private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
 
-    public static void sendCastVote(boolean voteYes) {
+    public static void sendCastVote(boolean voteYes, int sessionId) {
         try {
-            CastVotePayload payload = new CastVotePayload(voteYes);
+            CastVotePayload payload = new CastVotePayload(voteYes, sessionId, WireFormat.clientVersion());
             //? if fabric {
             //? if >=1.20.6 {
             /*ClientPlayNetworking.send(payload);
@@ -52,10 +55,87 @@ public class VoteKickNetworking {
         }
     }
 
+    /**
+     * Tells the server which wire format this client can read.
+     * Safe to call more than once per connection, only the first call that can reach the server sends.
+     */
+    public static void sendPresence() {
+        try {
+            //? if fabric {
+            //? if >=1.20.6 {
+            /*if (!ClientPlayNetworking.canSend(PresencePayload.TYPE)) {
+                return;
+            }
+            *///?} else {
+            if (!ClientPlayNetworking.canSend(PresencePayload.ID)) {
+                return;
+            }
+            //?}
+            //?}
+            if (!WireFormat.markClientAnnounced()) {
+                return;
+            }
+
+            PresencePayload payload = new PresencePayload(WireFormat.LATEST, false);
+            //? if fabric {
+            //? if >=1.20.6 {
+            /*ClientPlayNetworking.send(payload);
+            *///?} else {
+            FriendlyByteBuf buf = PacketByteBufs.create();
+            PayloadIo.writePresence(buf, payload);
+            ClientPlayNetworking.send(PresencePayload.ID, buf);
+            //?}
+            //?} else if neoforge {
+            /*//? if >=1.21.8 {
+            /^ClientPacketDistributor.sendToServer(payload);
+            ^///?} else {
+            //? if >=1.20.6 {
+            /^PacketDistributor.sendToServer(payload);
+            ^///?} else {
+            PacketDistributor.SERVER.noArg().send(payload);
+            //?}
+            //?}
+            *///?}
+        } catch (Exception e) {
+            LOGGER.error("Error sending Presence payload", e);
+        }
+    }
+
+    /**
+     * Server side of the handshake: settle on a format, ack it, then start using it.
+     * The ack is queued before the version switches so the client always sees it first.
+     */
+    public static void handlePresence(ServerPlayer player, PresencePayload payload) {
+        if (player == null || payload.acknowledged()) return;
+
+        int version = WireFormat.negotiate(payload.wireVersion());
+        VoteEngine engine = VoteKickMod.getVoteEngine();
+        // a legacy panel only held one vote; clear it in the old format, then show them all in the new one
+        boolean reshow = version != WireFormat.LEGACY && engine.releaseSinglePanel(player.getUUID());
+        if (reshow) {
+            sendHideVotePanel(player, 0);
+        }
+        try {
+            player.connection.send(encodePresence(new PresencePayload(version, true)));
+        } catch (Exception e) {
+            LOGGER.error("Error acknowledging Presence from {}", player.getScoreboardName(), e);
+            if (reshow) {
+                engine.showPanels(player.getUUID());
+            }
+            return;
+        }
+        WireFormat.setPlayerVersion(player.getUUID(), version);
+        LOGGER.debug("{} negotiated wire format {}", player.getScoreboardName(), version);
+        if (reshow) {
+            engine.showPanels(player.getUUID());
+        }
+    }
+
     /**
      * Shows the vote UI on a client.
      *
      * @param player     Target player
+     * @param sessionId  Vote session the panel belongs to
      * @param title      Main vote question
      * @param subtitle   Details about the vote
      * @param time       Time left in seconds
@@ -64,29 +144,15 @@ public class VoteKickNetworking {
      * @param needed     Votes needed to pass
      * @param isTarget   If this player is being voted on - changes their UI
      */
-    public static void sendShowVotePanel(ServerPlayer player, String title, String subtitle,
+    public static void sendShowVotePanel(ServerPlayer player, int sessionId, String title, String subtitle,
                                          int time, int yes, int no, int needed, boolean isTarget) {
         if (player == null) return;
 
         try {
             ShowVotePanelPayload payload = new ShowVotePanelPayload(
-                    title, subtitle, time, yes, no, needed, isTarget
+                    sessionId, title, subtitle, time, yes, no, needed, isTarget, WireFormat.forPlayer(player)
             );
-            //? if fabric {
-            //? if >=1.20.6 {
-            /*ServerPlayNetworking.send(player, payload);
-            *///?} else {
-            FriendlyByteBuf buf = PacketByteBufs.create();
-            PayloadIo.writeShowVotePanel(buf, payload);
-            ServerPlayNetworking.send(player, ShowVotePanelPayload.ID, buf);
-            //?}
-            //?} else if neoforge {
-            /*//? if >=1.20.6 {
-            /^PacketDistributor.sendToPlayer(player, payload);
-            ^///?} else {
-            PacketDistributor.PLAYER.with(player).send(payload);
-            //?}
-            *///?}
+            player.connection.send(encodeShowVotePanel(payload));
             LOGGER.debug("Sent ShowVotePanel to {}, isTarget={}", player.getScoreboardName(), isTarget);
         } catch (Exception e) {
             LOGGER.error("Error sending ShowVotePanel to {}", player.getScoreboardName(), e);
@@ -97,26 +163,13 @@ public class VoteKickNetworking {
      * Updates an existing vote UI with new counts/time.
      * Much smaller packet than sending the full UI again.
      */
-    public static void sendUpdateVotePanel(ServerPlayer player, int time, int yes, int no) {
+    public static void sendUpdateVotePanel(ServerPlayer player, int sessionId, int time, int yes, int no) {
         if (player == null) return;
 
         try {
-            UpdateVotePanelPayload payload = new UpdateVotePanelPayload(time, yes, no);
-            //? if fabric {
-            //? if >=1.20.6 {
-            /*ServerPlayNetworking.send(player, payload);
-            *///?} else {
-            FriendlyByteBuf buf = PacketByteBufs.create();
-            PayloadIo.writeUpdateVotePanel(buf, payload);
-            ServerPlayNetworking.send(player, UpdateVotePanelPayload.ID, buf);
-            //?}
-            //?} else if neoforge {
-            /*//? if >=1.20.6 {
-            /^PacketDistributor.sendToPlayer(player, payload);
-            ^///?} else {
-            PacketDistributor.PLAYER.with(player).send(payload);
-            //?}
-            *///?}
+            player.connection.send(encodeUpdateVotePanel(new UpdateVotePanelPayload(
+                    sessionId, time, yes, no, WireFormat.forPlayer(player)
+            )));
             LOGGER.trace("Sent UpdateVotePanel to {}: time={}, yes={}, no={}",
                     player.getScoreboardName(), time, yes, no);
         } catch (Exception e) {
@@ -128,26 +181,11 @@ public class VoteKickNetworking {
      * Tells client to close their vote UI.
      * TODO: might make separate class for this idk
      */
-    public static void sendHideVotePanel(ServerPlayer player) {
+    public static void sendHideVotePanel(ServerPlayer player, int sessionId) {
         if (player == null) return;
 
         try {
-            HideVotePanelPayload payload = new HideVotePanelPayload();
-            //? if fabric {
-            //? if >=1.20.6 {
-            /*ServerPlayNetworking.send(player, payload);
-            *///?} else {
-            FriendlyByteBuf buf = PacketByteBufs.create();
-            PayloadIo.writeHideVotePanel(buf, payload);
-            ServerPlayNetworking.send(player, HideVotePanelPayload.ID, buf);
-            //?}
-            //?} else if neoforge {
-            /*//? if >=1.20.6 {
-            /^PacketDistributor.sendToPlayer(player, payload);
-            ^///?} else {
-            PacketDistributor.PLAYER.with(player).send(payload);
-            //?}
-            *///?}
+            player.connection.send(encodeHideVotePanel(new HideVotePanelPayload(sessionId, WireFormat.forPlayer(player))));
             LOGGER.debug("Sent HideVotePanel to {}", player.getScoreboardName());
         } catch (Exception e) {
             LOGGER.error("Error sending HideVotePanel to {}", player.getScoreboardName(), e);
@@ -156,22 +194,36 @@ public class VoteKickNetworking {
 
     /**
      * Shows vote UI to all players. Target player gets special UI.
-     *
-     * TODO: this doesn't get called rn, but i will make it work later
+     * Everyone except the target shares one encoded packet per wire format; the isTarget
+     * variant is only built if the target is actually in the list.
      */
-    public static void broadcastShowVotePanel(Iterable<ServerPlayer> players, String title,
+    public static void broadcastShowVotePanel(Iterable<ServerPlayer> players, int sessionId, String title,
                                               String subtitle, int time, int yes, int no, int needed,
                                               UUID targetUUID) {
         if (players == null || targetUUID == null) return;
 
         try {
+            Packet<?>[] shared = new Packet<?>[WireFormat.LATEST + 1];
+
             int count = 0;
             for (ServerPlayer player : players) {
-                if (player != null) {
-                    boolean isTarget = player.getUUID().equals(targetUUID);
-                    sendShowVotePanel(player, title, subtitle, time, yes, no, needed, isTarget);
-                    count++;
+                if (player == null) {
+                    continue;
+                }
+                if (player.getUUID().equals(targetUUID)) {
+                    sendShowVotePanel(player, sessionId, title, subtitle, time, yes, no, needed, true);
+                } else {
+                    int version = WireFormat.forPlayer(player);
+                    Packet<?> packet = shared[version];
+                    if (packet == null) {
+                        packet = encodeShowVotePanel(new ShowVotePanelPayload(
+                                sessionId, title, subtitle, time, yes, no, needed, false, version
+                        ));
+                        shared[version] = packet;
+                    }
+                    player.connection.send(packet);
                 }
+                count++;
             }
             LOGGER.debug("Broadcast ShowVotePanel to {} players", count);
         } catch (Exception e) {
@@ -181,17 +233,24 @@ public class VoteKickNetworking {
 
     /**
      * Updates vote counters/timer for all players.
-     * Happens every tick during active votes - keeps UI current.
-     * TODO: doesn't get called rn lol
+     * Encoded at most once per wire format, then the same packet goes out to every recipient on it.
      */
-    public static void broadcastUpdateVotePanel(Iterable<ServerPlayer> players, int time, int yes, int no) {
+    public static void broadcastUpdateVotePanel(Iterable<ServerPlayer> players, int sessionId, int time, int yes, int no) {
         if (players == null) return;
 
         try {
+            Packet<?>[] shared = new Packet<?>[WireFormat.LATEST + 1];
+
             int count = 0;
             for (ServerPlayer player : players) {
                 if (player != null) {
-                    sendUpdateVotePanel(player, time, yes, no);
+                    int version = WireFormat.forPlayer(player);
+                    Packet<?> packet = shared[version];
+                    if (packet == null) {
+                        packet = encodeUpdateVotePanel(new UpdateVotePanelPayload(sessionId, time, yes, no, version));
+                        shared[version] = packet;
+                    }
+                    player.connection.send(packet);
                     count++;
                 }
             }
@@ -206,14 +265,22 @@ public class VoteKickNetworking {
      * Closes vote UI for all players.
      * Called when votes end or are cancelled.
      */
-    public static void broadcastHideVotePanel(Iterable<ServerPlayer> players) {
+    public static void broadcastHideVotePanel(Iterable<ServerPlayer> players, int sessionId) {
         if (players == null) return;
 
         try {
+            Packet<?>[] shared = new Packet<?>[WireFormat.LATEST + 1];
+
             int count = 0;
             for (ServerPlayer player : players) {
                 if (player != null) {
-                    sendHideVotePanel(player);
+                    int version = WireFormat.forPlayer(player);
+                    Packet<?> packet = shared[version];
+                    if (packet == null) {
+                        packet = encodeHideVotePanel(new HideVotePanelPayload(sessionId, version));
+                        shared[version] = packet;
+                    }
+                    player.connection.send(packet);
                     count++;
                 }
             }
@@ -223,4 +290,63 @@ public class VoteKickNetworking {
             LOGGER.error("Error broadcasting HideVotePanel", e);
         }
     }
+
+    // packets built here are safe to hand to several connections, same as vanilla's broadcastAll.
+    // on legacy fabric the payload bytes are written exactly once; on payload-based versions the
+    // shared payload instance is handed to each connection's encoder.
+    private static Packet<?> encodeShowVotePanel(ShowVotePanelPayload payload) {
+        //? if fabric {
+        //? if >=1.20.6 {
+        /*return ServerPlayNetworking.createS2CPacket(payload);
+        *///?} else {
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        PayloadIo.writeShowVotePanel(buf, payload);
+        return ServerPlayNetworking.createS2CPacket(ShowVotePanelPayload.ID, buf);
+        //?}
+        //?} else if neoforge {
+        /*return new ClientboundCustomPayloadPacket(payload);
+        *///?}
+    }
+
+    private static Packet<?> encodeUpdateVotePanel(UpdateVotePanelPayload payload) {
+        //? if fabric {
+        //? if >=1.20.6 {
+        /*return ServerPlayNetworking.createS2CPacket(payload);
+        *///?} else {
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        PayloadIo.writeUpdateVotePanel(buf, payload);
+        return ServerPlayNetworking.createS2CPacket(UpdateVotePanelPayload.ID, buf);
+        //?}
+        //?} else if neoforge {
+        /*return new ClientboundCustomPayloadPacket(payload);
+        *///?}
+    }
+
+    private static Packet<?> encodeHideVotePanel(HideVotePanelPayload payload) {
+        //? if fabric {
+        //? if >=1.20.6 {
+        /*return ServerPlayNetworking.createS2CPacket(payload);
+        *///?} else {
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        PayloadIo.writeHideVotePanel(buf, payload);
+        return ServerPlayNetworking.createS2CPacket(HideVotePanelPayload.ID, buf);
+        //?}
+        //?} else if neoforge {
+        /*return new ClientboundCustomPayloadPacket(payload);
+        *///?}
+    }
+
+    private static Packet<?> encodePresence(PresencePayload payload) {
+        //? if fabric {
+        //? if >=1.20.6 {
+        /*return ServerPlayNetworking.createS2CPacket(payload);
+        *///?} else {
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        PayloadIo.writePresence(buf, payload);
+        return ServerPlayNetworking.createS2CPacket(PresencePayload.ID, buf);
+        //?}
+        //?} else if neoforge {
+        /*return new ClientboundCustomPayloadPacket(payload);
+        *///?}
+    }
 }
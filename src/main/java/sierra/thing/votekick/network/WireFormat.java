@@ -0,0 +1,87 @@
+package sierra.thing.votekick.network;
+
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which panel payload encoding each side of a connection understands.
+ *
+ * Clients announce the newest format they can read over the presence channel when they join,
+ * the server answers with the one it is going to use. Anyone who never announces - older clients,
+ * or a server without the mod - stays on {@link #LEGACY}, so the old layout keeps working both ways.
+ */
+public final class WireFormat {
+    /** fixed-width ints, no session ids. what every release before this one speaks */
+    public static final int LEGACY = 0;
+    /** varint counters, flag byte, session ids so updates point back at the panel they belong to */
+    public static final int COMPACT = 1;
+    public static final int LATEST = COMPACT;
+
+    // server side: negotiated version per connected player
+    private static final Map<UUID, Integer> playerVersions = new ConcurrentHashMap<>();
+
+    // client side: version the server acked for the current connection.
+    // written while decoding the server's presence reply, which netty handles in order with
+    // the panel packets behind it, so the first compact panel never gets read with the old layout
+    private static volatile int clientVersion = LEGACY;
+    private static volatile boolean clientAnnounced;
+
+    private WireFormat() {
+    }
+
+    public static int negotiate(int requested) {
+        return Math.max(LEGACY, Math.min(requested, LATEST));
+    }
+
+    public static int forPlayer(ServerPlayer player) {
+        return forPlayer(player.getUUID());
+    }
+
+    public static int forPlayer(UUID playerId) {
+        return playerVersions.getOrDefault(playerId, LEGACY);
+    }
+
+    public static void setPlayerVersion(UUID playerId, int version) {
+        if (version <= LEGACY) {
+            playerVersions.remove(playerId);
+        } else {
+            playerVersions.put(playerId, version);
+        }
+    }
+
+    public static void forgetPlayer(UUID playerId) {
+        playerVersions.remove(playerId);
+    }
+
+    public static void clearPlayers() {
+        playerVersions.clear();
+    }
+
+    public static int clientVersion() {
+        return clientVersion;
+    }
+
+    static void acceptServerVersion(int version) {
+        clientVersion = negotiate(version);
+    }
+
+    /**
+     * @return true the first time it's called on a connection, so join and channel
+     * registration events don't both send a presence packet
+     */
+    static boolean markClientAnnounced() {
+        if (clientAnnounced) {
+            return false;
+        }
+        clientAnnounced = true;
+        return true;
+    }
+
+    public static void resetClient() {
+        clientVersion = LEGACY;
+        clientAnnounced = false;
+    }
+}
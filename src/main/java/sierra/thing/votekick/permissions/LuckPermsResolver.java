@@ -0,0 +1,162 @@
+package sierra.thing.votekick.permissions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sierra.thing.votekick.VoteKickMod;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * LuckPerms lookups without a compile-time dependency.
+ *
+ * Every step of the API chain is looked up once by its exact signature against the public API
+ * interfaces and kept as a {@link MethodHandle}, so a check is a handful of direct calls instead
+ * of a {@code getMethods()} scan per step. Only these signatures can ever be invoked.
+ */
+final class LuckPermsResolver {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
+
+    private static final String PROVIDER_CLASS = "net.luckperms.api.LuckPermsProvider";
+    private static final String API_CLASS = "net.luckperms.api.LuckPerms";
+    private static final String USER_MANAGER_CLASS = "net.luckperms.api.model.user.UserManager";
+    private static final String USER_CLASS = "net.luckperms.api.model.user.User";
+    private static final String CACHED_DATA_CLASS = "net.luckperms.api.cacheddata.CachedDataManager";
+    private static final String PERMISSION_DATA_CLASS = "net.luckperms.api.cacheddata.CachedPermissionData";
+    private static final String TRISTATE_CLASS = "net.luckperms.api.util.Tristate";
+    private static final String EVENT_BUS_CLASS = "net.luckperms.api.event.EventBus";
+    private static final String EVENT_SUBSCRIPTION_CLASS = "net.luckperms.api.event.EventSubscription";
+    private static final String USER_RECALCULATE_EVENT_CLASS = "net.luckperms.api.event.user.UserDataRecalculateEvent";
+    private static final String GROUP_RECALCULATE_EVENT_CLASS = "net.luckperms.api.event.group.GroupDataRecalculateEvent";
+
+    private final MethodHandle getApi;
+    private final MethodHandle getUserManager;
+    private final MethodHandle getUser;
+    private final MethodHandle getCachedData;
+    private final MethodHandle getPermissionData;
+    private final MethodHandle checkPermission;
+    private final MethodHandle asBoolean;
+    private final Consumer<UUID> onUserChanged;
+    private final Runnable onGroupChanged;
+
+    // the provider throws until luckperms has finished enabling, so the api itself is bound on first use
+    private volatile Object userManager;
+
+    private LuckPermsResolver(MethodHandle getApi, MethodHandle getUserManager, MethodHandle getUser,
+                              MethodHandle getCachedData, MethodHandle getPermissionData,
+                              MethodHandle checkPermission, MethodHandle asBoolean,
+                              Consumer<UUID> onUserChanged, Runnable onGroupChanged) {
+        this.getApi = getApi;
+        this.getUserManager = getUserManager;
+        this.getUser = getUser;
+        this.getCachedData = getCachedData;
+        this.getPermissionData = getPermissionData;
+        this.checkPermission = checkPermission;
+        this.asBoolean = asBoolean;
+        this.onUserChanged = onUserChanged;
+        this.onGroupChanged = onGroupChanged;
+    }
+
+    /**
+     * Looks up every handle. Throws if any class or signature is missing, in which case
+     * LuckPerms support stays off.
+     *
+     * @param onUserChanged called, from LuckPerms' threads, when one user's permissions are recalculated
+     * @param onGroupChanged called, from LuckPerms' threads, when a group changes and anyone may be affected
+     */
+    static LuckPermsResolver bind(Consumer<UUID> onUserChanged, Runnable onGroupChanged)
+            throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        Class<?> provider = Class.forName(PROVIDER_CLASS);
+        Class<?> api = Class.forName(API_CLASS);
+        Class<?> userManager = Class.forName(USER_MANAGER_CLASS);
+        Class<?> user = Class.forName(USER_CLASS);
+        Class<?> cachedData = Class.forName(CACHED_DATA_CLASS);
+        Class<?> permissionData = Class.forName(PERMISSION_DATA_CLASS);
+        Class<?> tristate = Class.forName(TRISTATE_CLASS);
+
+        return new LuckPermsResolver(
+                generic(lookup.findStatic(provider, "get", MethodType.methodType(api))),
+                generic(lookup.findVirtual(api, "getUserManager", MethodType.methodType(userManager))),
+                generic(lookup.findVirtual(userManager, "getUser", MethodType.methodType(user, UUID.class))),
+                generic(lookup.findVirtual(user, "getCachedData", MethodType.methodType(cachedData))),
+                generic(lookup.findVirtual(cachedData, "getPermissionData", MethodType.methodType(permissionData))),
+                generic(lookup.findVirtual(permissionData, "checkPermission", MethodType.methodType(tristate, String.class))),
+                lookup.findVirtual(tristate, "asBoolean", MethodType.methodType(boolean.class))
+                        .asType(MethodType.methodType(boolean.class, Object.class)),
+                onUserChanged,
+                onGroupChanged
+        );
+    }
+
+    /**
+     * @return the permission value, or null if the user isn't loaded in LuckPerms
+     */
+    Boolean check(UUID playerUuid, String node) throws Throwable {
+        Object manager = userManager();
+        Object user = (Object) getUser.invokeExact(manager, (Object) playerUuid);
+        if (user == null) {
+            return null;
+        }
+
+        Object cachedData = (Object) getCachedData.invokeExact(user);
+        Object permissionData = (Object) getPermissionData.invokeExact(cachedData);
+        Object result = (Object) checkPermission.invokeExact(permissionData, (Object) node);
+        return (boolean) asBoolean.invokeExact(result);
+    }
+
+    // best effort: if anything here is missing, cached results just wait out their ttl
+    private void subscribe(Object api) throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        Class<?> apiType = Class.forName(API_CLASS);
+        Class<?> eventBus = Class.forName(EVENT_BUS_CLASS);
+        Class<?> user = Class.forName(USER_CLASS);
+        Class<?> userEvent = Class.forName(USER_RECALCULATE_EVENT_CLASS);
+        Class<?> groupEvent = Class.forName(GROUP_RECALCULATE_EVENT_CLASS);
+        Class<?> subscription = Class.forName(EVENT_SUBSCRIPTION_CLASS);
+
+        MethodHandle getEventBus = lookup.findVirtual(apiType, "getEventBus", MethodType.methodType(eventBus));
+        MethodHandle subscribe = lookup.findVirtual(eventBus, "subscribe",
+                MethodType.methodType(subscription, Class.class, Consumer.class));
+        MethodHandle eventUser = generic(lookup.findVirtual(userEvent, "getUser", MethodType.methodType(user)));
+        MethodHandle userId = lookup.findVirtual(user, "getUniqueId", MethodType.methodType(UUID.class))
+                .asType(MethodType.methodType(UUID.class, Object.class));
+
+        Object bus = getEventBus.invoke(api);
+        Consumer<Object> userListener = event -> {
+            try {
+                onUserChanged.accept((UUID) userId.invokeExact((Object) eventUser.invokeExact(event)));
+            } catch (Throwable t) {
+                onGroupChanged.run();
+            }
+        };
+        Consumer<Object> groupListener = event -> onGroupChanged.run();
+
+        subscribe.invoke(bus, userEvent, userListener);
+        subscribe.invoke(bus, groupEvent, groupListener);
+    }
+
+    private Object userManager() throws Throwable {
+        Object manager = userManager;
+        if (manager == null) {
+            Object api = (Object) getApi.invokeExact();
+            manager = (Object) getUserManager.invokeExact(api);
+            try {
+                subscribe(api);
+            } catch (Throwable t) {
+                LOGGER.warn("Could not listen for LuckPerms changes, permission results may lag by a few seconds", t);
+            }
+            userManager = manager;
+        }
+        return manager;
+    }
+
+    private static MethodHandle generic(MethodHandle handle) {
+        return handle.asType(handle.type().generic());
+    }
+}
@@ -0,0 +1,77 @@
+package sierra.thing.votekick.permissions;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived per-player memo of resolved permission checks.
+ *
+ * Results are only trusted for a few seconds, so op changes and permission plugins without
+ * change events still show up quickly. LuckPerms changes drop entries right away.
+ * Written from the server thread, invalidated from any thread.
+ */
+final class PermissionCache {
+    static final long TTL_MS = 5_000;
+
+    private static final byte UNKNOWN = 0;
+    private static final byte NO_ANSWER = 1;
+    private static final byte GRANTED = 2;
+    private static final byte DENIED = 3;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final int nodeCount;
+
+    PermissionCache(int nodeCount) {
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * @return true if {@code node} has a fresh result for the player; read it with {@link #get}
+     */
+    boolean has(UUID player, int node, long now) {
+        Entry entry = entries.get(player);
+        return entry != null && entry.results[node] != UNKNOWN && entry.expiresAt[node] > now;
+    }
+
+    /**
+     * @return the cached result, where null means no permission provider had an answer
+     */
+    Boolean get(UUID player, int node) {
+        Entry entry = entries.get(player);
+        if (entry == null) {
+            return null;
+        }
+        return switch (entry.results[node]) {
+            case GRANTED -> Boolean.TRUE;
+            case DENIED -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    void put(UUID player, int node, Boolean result, long now) {
+        Entry entry = entries.computeIfAbsent(player, uuid -> new Entry(nodeCount));
+        entry.results[node] = result == null ? NO_ANSWER : result ? GRANTED : DENIED;
+        entry.expiresAt[node] = now + TTL_MS;
+    }
+
+    void invalidate(UUID player) {
+        if (player != null) {
+            entries.remove(player);
+        }
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private static final class Entry {
+        final byte[] results;
+        final long[] expiresAt;
+
+        Entry(int nodeCount) {
+            this.results = new byte[nodeCount];
+            this.expiresAt = new long[nodeCount];
+        }
+    }
+}
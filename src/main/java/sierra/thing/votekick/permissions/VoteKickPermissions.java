@@ -16,6 +16,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 //? if neoforge {
 import net.minecraft.network.chat.Component;
@@ -41,10 +42,12 @@ public final class VoteKickPermissions {
     private static final String FABRIC_PERMISSIONS_MOD = "fabric-permissions-api-v0";
     private static final String FABRIC_PERMISSIONS_CLASS = "me.lucko.fabric.api.permissions.v0.Permissions";
     private static final String LUCKPERMS_MOD_ID = "luckperms";
-    private static final String LUCKPERMS_PROVIDER_CLASS = "net.luckperms.api.LuckPermsProvider";
-    private static final String LUCKPERMS_USER_CLASS = "net.luckperms.api.model.user.User";
-    private static final String LUCKPERMS_CONTEXT_MANAGER_CLASS = "net.luckperms.api.context.ContextManager";
-    private static final String LUCKPERMS_QUERY_OPTIONS_CLASS = "net.luckperms.api.query.QueryOptions";
+
+    private static final int NODE_START_INDEX = 0;
+    private static final int NODE_VOTE_INDEX = 1;
+    private static final int NODE_ADMIN_INDEX = 2;
+    private static final int NODE_EXEMPT_INDEX = 3;
+    private static final int NODE_COUNT = 4;
 
     /**
      * Validates method signatures to prevent reflection-based exploits.
@@ -104,9 +107,11 @@ public final class VoteKickPermissions {
     private static boolean fabricAvailable;
     private static boolean loggedFabricError;
     private static boolean luckPermsChecked;
-    private static boolean luckPermsAvailable;
+    private static LuckPermsResolver luckPerms;
     private static boolean loggedLuckPermsError;
 
+    private static final PermissionCache cache = new PermissionCache(NODE_COUNT);
+
     //? if neoforge {
     private static final PermissionNode<Boolean> START_NODE = createBooleanNode("start",
             (player, uuid, ctx) -> defaultHasPermission(player, VoteKickMod.getConfig().getPermissionStartDefaultLevel()),
@@ -161,6 +166,20 @@ public final class VoteKickPermissions {
         return checkPlayerPermission(player, NODE_EXEMPT, defaultHasPermission(player, defaultLevel), defaultLevel);
     }
 
+    /**
+     * Drops cached results for one player, e.g. when they leave.
+     */
+    public static void invalidate(UUID playerUUID) {
+        cache.invalidate(playerUUID);
+    }
+
+    /**
+     * Drops every cached result. Call after config changes that affect the default levels.
+     */
+    public static void invalidateAll() {
+        cache.clear();
+    }
+
     //? if neoforge {
     public static void registerNeoForgeNodes(PermissionGatherEvent.Nodes event) {
         if (event == null) {
@@ -179,6 +198,26 @@ public final class VoteKickPermissions {
             return defaultValue;
         }
 
+        UUID playerUUID = player.getUUID();
+        int index = nodeIndex(node);
+        long now = VoteKickMod.getClock().millis();
+        if (index >= 0 && cache.has(playerUUID, index, now)) {
+            Boolean cached = cache.get(playerUUID, index);
+            return cached != null ? cached : defaultValue;
+        }
+
+        Boolean result = resolvePermission(player, node, defaultLevel);
+        if (index >= 0) {
+            cache.put(playerUUID, index, result, now);
+        }
+        return result != null ? result : defaultValue;
+    }
+
+    /**
+     * Asks the available permission providers in order.
+     * @return the first provider's answer, or null if none of them know
+     */
+    private static Boolean resolvePermission(ServerPlayer player, String node, int defaultLevel) {
         Boolean fabricResult = checkFabricPermission(player, node, defaultLevel);
         if (fabricResult != null) {
             return fabricResult;
@@ -196,7 +235,17 @@ public final class VoteKickPermissions {
         }
         //?}
 
-        return defaultValue;
+        return null;
+    }
+
+    private static int nodeIndex(String node) {
+        return switch (node) {
+            case NODE_START -> NODE_START_INDEX;
+            case NODE_VOTE -> NODE_VOTE_INDEX;
+            case NODE_ADMIN -> NODE_ADMIN_INDEX;
+            case NODE_EXEMPT -> NODE_EXEMPT_INDEX;
+            default -> -1;
+        };
     }
 
     private static boolean defaultHasPermission(ServerPlayer player, int defaultLevel) {
@@ -255,161 +304,13 @@ public final class VoteKickPermissions {
         }
 
         try {
-            // Validate that the LuckPerms API class exists before invoking methods
-            Class<?> luckPermsProviderClass = Class.forName(LUCKPERMS_PROVIDER_CLASS);
-
-            // Whitelisted signature: LuckPermsProvider.get() -> LuckPermsAPI
-            MethodSignature getApiSig = new MethodSignature("get", Object.class);
-            Method getApi = findValidatedMethod(luckPermsProviderClass, getApiSig);
-            if (getApi == null) {
-                return null;
-            }
-
-            Object api = getApi.invoke(null);
-            if (api == null) {
-                return null;
-            }
-
-            // getUserManager() -> UserManager
-            MethodSignature getUserManagerSig = new MethodSignature("getUserManager", Object.class);
-            Method getUserManager = findValidatedMethod(api.getClass(), getUserManagerSig);
-            if (getUserManager == null) {
-                return null;
-            }
-
-            Object userManager = getUserManager.invoke(api);
-            if (userManager == null) {
-                return null;
-            }
-
-            // getUser(UUID) -> User
-            MethodSignature getUserSig = new MethodSignature("getUser", Object.class, java.util.UUID.class);
-            Method getUser = findValidatedMethod(userManager.getClass(), getUserSig);
-            if (getUser == null) {
-                return null;
-            }
-
-            Object user = getUser.invoke(userManager, player.getUUID());
-            if (user == null) {
-                return null;
-            }
-
-            // getContextManager() -> ContextManager
-            MethodSignature getContextManagerSig = new MethodSignature("getContextManager", Object.class);
-            Method getContextManager = findValidatedMethod(api.getClass(), getContextManagerSig);
-            if (getContextManager == null) {
-                return null;
-            }
-
-            Object contextManager = getContextManager.invoke(api);
-            Object queryOptions = resolveLuckPermsQueryOptions(contextManager, user);
-
-            // getCachedData() -> CachedData
-            MethodSignature getCachedDataSig = new MethodSignature("getCachedData", Object.class);
-            Method getCachedData = findValidatedMethod(user.getClass(), getCachedDataSig);
-            if (getCachedData == null) {
-                return null;
-            }
-
-            Object cachedData = getCachedData.invoke(user);
-            if (cachedData == null) {
-                return null;
-            }
-
-            Object permissionData = resolveLuckPermsPermissionData(cachedData, queryOptions);
-            if (permissionData == null) {
-                return null;
-            }
-
-            // checkPermission(String) -> TriState/boolean
-            MethodSignature checkPermissionSig = new MethodSignature("checkPermission", Object.class, String.class);
-            Method checkPermission = findValidatedMethod(permissionData.getClass(), checkPermissionSig);
-            if (checkPermission == null) {
-                return null;
-            }
-
-            Object result = checkPermission.invoke(permissionData, node);
-            return coerceLuckPermsResult(result);
+            return luckPerms.check(player.getUUID(), node);
         } catch (Throwable t) {
             logLuckPermsErrorOnce(t);
             return false;
         }
     }
 
-    private static Object resolveLuckPermsQueryOptions(Object contextManager, Object user) throws Exception {
-        if (contextManager == null) {
-            return null;
-        }
-
-        Method queryOptionsMethod = findMethod(contextManager.getClass(), "getQueryOptions", 1, user.getClass());
-        if (queryOptionsMethod != null) {
-            return queryOptionsMethod.invoke(contextManager, user);
-        }
-
-        Method noArgQueryOptions = findMethod(contextManager.getClass(), "getQueryOptions", 0);
-        if (noArgQueryOptions != null) {
-            return noArgQueryOptions.invoke(contextManager);
-        }
-
-        return null;
-    }
-
-    private static Object resolveLuckPermsPermissionData(Object cachedData, Object queryOptions) throws Exception {
-        Method permissionDataMethod = null;
-        if (queryOptions != null) {
-            permissionDataMethod = findMethod(cachedData.getClass(), "getPermissionData", 1, queryOptions.getClass());
-        }
-
-        if (permissionDataMethod != null) {
-            return permissionDataMethod.invoke(cachedData, queryOptions);
-        }
-
-        Method noArgPermissionData = findMethod(cachedData.getClass(), "getPermissionData", 0);
-        if (noArgPermissionData != null) {
-            return noArgPermissionData.invoke(cachedData);
-        }
-
-        return null;
-    }
-
-    private static Boolean coerceLuckPermsResult(Object result) throws Exception {
-        if (result == null) {
-            return null;
-        }
-
-        if (result instanceof Boolean booleanResult) {
-            return booleanResult;
-        }
-
-        Method asBoolean = findMethod(result.getClass(), "asBoolean", 0);
-        if (asBoolean != null) {
-            Object value = asBoolean.invoke(result);
-            if (value instanceof Boolean booleanValue) {
-                return booleanValue;
-            }
-        }
-
-        Method getValue = findMethod(result.getClass(), "getValue", 0);
-        if (getValue != null) {
-            Object value = getValue.invoke(result);
-            if (value instanceof Boolean booleanValue) {
-                return booleanValue;
-            }
-        }
-
-        if (result.getClass().isEnum()) {
-            String name = ((Enum<?>) result).name();
-            if ("TRUE".equalsIgnoreCase(name)) {
-                return true;
-            }
-            if ("FALSE".equalsIgnoreCase(name)) {
-                return false;
-            }
-        }
-
-        return null;
-    }
-
     private static Object invokeFabricCheck(Method method, boolean hasDefault, Object target, String node, int defaultLevel) throws Exception {
         if (hasDefault) {
             return method.invoke(null, target, node, defaultLevel);
@@ -504,76 +405,22 @@ public final class VoteKickPermissions {
 
     private static boolean isLuckPermsAvailable() {
         if (luckPermsChecked) {
-            return luckPermsAvailable;
+            return luckPerms != null;
         }
 
         luckPermsChecked = true;
         if (!VoteKickMod.platform().isModLoaded(LUCKPERMS_MOD_ID)) {
-            luckPermsAvailable = false;
             return false;
         }
 
         try {
-            Class.forName(LUCKPERMS_PROVIDER_CLASS);
-            luckPermsAvailable = true;
+            luckPerms = LuckPermsResolver.bind(cache::invalidate, cache::clear);
         } catch (Throwable t) {
-            luckPermsAvailable = false;
+            luckPerms = null;
             logLuckPermsErrorOnce(t);
         }
 
-        return luckPermsAvailable;
-    }
-
-    /**
-     * Find a method matching one of the provided whitelisted signatures.
-     * This safely restricts reflection to approved method signatures only.
-     * @param type the class to search
-     * @param whitelist acceptable method signatures
-     * @return the first method matching a signature, or null if none found
-     */
-    private static Method findValidatedMethod(Class<?> type, MethodSignature... whitelist) {
-        if (type == null || whitelist == null || whitelist.length == 0) {
-            return null;
-        }
-
-        for (Method method : type.getMethods()) {
-            for (MethodSignature sig : whitelist) {
-                if (sig.matches(method)) {
-                    return method;
-                }
-            }
-        }
-
-        LOGGER.warn("No whitelisted method found in {} matching any allowed signatures", type.getName());
-        return null;
-    }
-
-    private static Method findMethod(Class<?> type, String name, int paramCount) {
-        return findMethod(type, name, paramCount, null);
-    }
-
-    private static Method findMethod(Class<?> type, String name, int paramCount, Class<?> paramType) {
-        if (type == null) {
-            return null;
-        }
-
-        for (Method method : type.getMethods()) {
-            if (!method.getName().equals(name)) {
-                continue;
-            }
-            if (method.getParameterCount() != paramCount) {
-                continue;
-            }
-            if (paramType != null && paramCount > 0) {
-                Class<?> methodParam = method.getParameterTypes()[0];
-                if (!methodParam.equals(paramType) && !methodParam.isAssignableFrom(paramType)) {
-                    continue;
-                }
-            }
-            return method;
-        }
-
-        return null;
+        return luckPerms != null;
     }
 
     private static void logFabricErrorOnce(Exception e) {
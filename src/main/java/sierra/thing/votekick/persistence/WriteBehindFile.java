@@ -0,0 +1,183 @@
+package sierra.thing.votekick.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sierra.thing.votekick.VoteKickMod;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind persistence for a single file.
+ *
+ * Callers mark the data dirty whenever it changes; {@link #tick()} (server thread) takes one
+ * snapshot per interval no matter how many changes piled up, then a background thread serializes
+ * it to a temp file and renames it over the real one. A crash mid-write leaves the previous
+ * file intact.
+ *
+ * @param <S> snapshot type. must be a copy the server thread won't touch again
+ */
+public final class WriteBehindFile<S> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
+    private static final long FLUSH_TIMEOUT_SECONDS = 10;
+
+    private final String name;
+    private final Path target;
+    private final Path tempFile;
+    private final Supplier<S> snapshotter;
+    private final SnapshotWriter<S> writer;
+    private final int minIntervalTicks;
+    private final ExecutorService io;
+
+    // server thread only
+    private boolean dirty;
+    private int ticksSinceWrite;
+    private Future<?> inFlight;
+    // snapshots are numbered from 1 in the order they're taken
+    private long taken;
+    // set by the io thread so the next tick retries
+    private volatile boolean writeFailed;
+    // newest snapshot known to be on disk
+    private volatile long written;
+
+    public WriteBehindFile(String name, Path target, int minIntervalTicks,
+                           Supplier<S> snapshotter, SnapshotWriter<S> writer) {
+        this.name = name;
+        this.target = target;
+        this.tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        this.minIntervalTicks = Math.max(1, minIntervalTicks);
+        this.snapshotter = snapshotter;
+        this.writer = writer;
+        this.ticksSinceWrite = this.minIntervalTicks;
+        this.io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "votekick-" + name + "-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void markDirty() {
+        dirty = true;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Number of the snapshot being taken while the snapshotter runs, or of the last one taken.
+     */
+    public long takenSnapshots() {
+        return taken;
+    }
+
+    /**
+     * Number of the newest snapshot that made it to disk, 0 if none yet. Everything that
+     * snapshot held is safe to drop from memory.
+     */
+    public long writtenSnapshot() {
+        return written;
+    }
+
+    /**
+     * Called once per server tick. Starts a write if something changed, the interval has passed,
+     * and the previous write is done; otherwise the changes just wait for a later tick.
+     */
+    public void tick() {
+        if (writeFailed) {
+            writeFailed = false;
+            dirty = true;
+        }
+        if (ticksSinceWrite < minIntervalTicks) {
+            ticksSinceWrite++;
+        }
+        if (!dirty || ticksSinceWrite < minIntervalTicks) {
+            return;
+        }
+        if (inFlight != null && !inFlight.isDone()) {
+            return;
+        }
+        submitSnapshot();
+    }
+
+    /**
+     * Writes any pending changes and waits for the file to land, trying once more if the write
+     * fails. For shutdown.
+     *
+     * @return false if the changes still aren't on disk; the next tick keeps trying then
+     */
+    public boolean flush() {
+        waitForInFlight();
+        if (writeFailed) {
+            writeFailed = false;
+            dirty = true;
+        }
+        if (dirty) {
+            submitSnapshot();
+            waitForInFlight();
+            if (writeFailed) {
+                LOGGER.warn("Writing {} data failed, trying once more", name);
+                writeFailed = false;
+                submitSnapshot();
+                waitForInFlight();
+            }
+        }
+
+        if (written != taken) {
+            LOGGER.error("{} data couldn't be saved to {}, recent changes may be lost", name, target);
+            return false;
+        }
+        return true;
+    }
+
+    private void submitSnapshot() {
+        dirty = false;
+        ticksSinceWrite = 0;
+        long sequence = ++taken;
+        S snapshot = snapshotter.get();
+        inFlight = io.submit(() -> write(snapshot, sequence));
+    }
+
+    private void write(S snapshot, long sequence) {
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                writer.write(snapshot, out);
+            }
+            try {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            written = sequence;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Failed to write {} data to {}", name, target, e);
+            writeFailed = true;
+        }
+    }
+
+    private void waitForInFlight() {
+        if (inFlight == null) {
+            return;
+        }
+        try {
+            inFlight.get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            LOGGER.error("Timed out waiting for {} data to be written", name, e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface SnapshotWriter<S> {
+        void write(S snapshot, OutputStream out) throws IOException;
+    }
+}
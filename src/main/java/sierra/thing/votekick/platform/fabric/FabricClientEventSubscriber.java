@@ -2,9 +2,13 @@ package sierra.thing.votekick.platform.fabric;
 
 //? if fabric {
 
+import net.fabricmc.fabric.api.client.networking.v1.C2SPlayChannelEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
 import sierra.thing.votekick.client.VoteKickHud;
+import sierra.thing.votekick.network.PresencePayload;
+import sierra.thing.votekick.network.VoteKickNetworking;
+import sierra.thing.votekick.network.WireFormat;
 
 public final class FabricClientEventSubscriber {
     private FabricClientEventSubscriber() {
@@ -14,6 +18,15 @@ public final class FabricClientEventSubscriber {
         ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
             VoteKickHud.onClientDisconnect();
             VoteKickHud.resetVoteState();
+            WireFormat.resetClient();
+        });
+
+        // the server's channel list can land before or after join depending on version, so try both
+        ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> VoteKickNetworking.sendPresence());
+        C2SPlayChannelEvents.REGISTER.register((handler, sender, client, channels) -> {
+            if (channels.contains(PresencePayload.ID)) {
+                VoteKickNetworking.sendPresence();
+            }
         });
 
         //? if >=1.21 {
@@ -3,6 +3,8 @@ package sierra.thing.votekick.platform.fabric;
 //? if fabric {
 
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.entity.event.v1.ServerEntityWorldChangeEvents;
+import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
@@ -28,6 +30,14 @@ public final class FabricEventSubscriber {
         ServerPlayConnectionEvents.DISCONNECT.register((handler, server) ->
                 VoteKickMod.onPlayerDisconnect(handler.getPlayer(), server)
         );
+
+        ServerEntityWorldChangeEvents.AFTER_PLAYER_CHANGE_WORLD.register((player, origin, destination) ->
+                VoteKickMod.onPlayerChangedDimension(player)
+        );
+
+        ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) ->
+                VoteKickMod.onPlayerRespawn(newPlayer)
+        );
     }
 }
 //?}
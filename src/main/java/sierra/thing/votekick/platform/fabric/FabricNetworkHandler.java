@@ -4,15 +4,16 @@ package sierra.thing.votekick.platform.fabric;
 
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import sierra.thing.votekick.VoteKickMod;
 import sierra.thing.votekick.client.VoteKickHud;
-import sierra.thing.votekick.commands.VoteKickCommand;
 import sierra.thing.votekick.network.CastVotePayload;
 import sierra.thing.votekick.network.HideVotePanelPayload;
 import sierra.thing.votekick.network.PayloadIo;
 import sierra.thing.votekick.network.PayloadRegistry;
+import sierra.thing.votekick.network.PresencePayload;
 import sierra.thing.votekick.network.ShowVotePanelPayload;
 import sierra.thing.votekick.network.UpdateVotePanelPayload;
-import sierra.thing.votekick.network.VoteKickRateLimiter;
+import sierra.thing.votekick.network.VoteKickNetworking;
 
 public final class FabricNetworkHandler {
     private FabricNetworkHandler() {
@@ -22,28 +23,33 @@ public final class FabricNetworkHandler {
         PayloadRegistry.register();
 
         //? if >=1.20.6 {
-        /*ServerPlayNetworking.registerGlobalReceiver(CastVotePayload.TYPE, (payload, context) -> {
-            if (VoteKickRateLimiter.allowCastVote(context.player())) {
-                VoteKickCommand.castVote(context.player(), payload.voteYes());
-            }
-        });
+        /*ServerPlayNetworking.registerGlobalReceiver(CastVotePayload.TYPE, (payload, context) ->
+                VoteKickMod.getVoteIntake().offer(context.player(), payload)
+        );
+        ServerPlayNetworking.registerGlobalReceiver(PresencePayload.TYPE, (payload, context) ->
+                VoteKickNetworking.handlePresence(context.player(), payload)
+        );
         *///?} else {
         ServerPlayNetworking.registerGlobalReceiver(CastVotePayload.ID, (server, player, handler, buf, responseSender) -> {
+            // still on the netty thread here, the queue hands it to the next server tick
             CastVotePayload payload = PayloadIo.readCastVote(buf);
-            server.execute(() -> {
-                if (!VoteKickRateLimiter.allowCastVote(player)) {
-                    return;
-                }
-                VoteKickCommand.castVote(player, payload.voteYes());
-            });
+            VoteKickMod.getVoteIntake().offer(player, payload);
+        });
+        ServerPlayNetworking.registerGlobalReceiver(PresencePayload.ID, (server, player, handler, buf, responseSender) -> {
+            PresencePayload payload = PayloadIo.readPresence(buf);
+            server.execute(() -> VoteKickNetworking.handlePresence(player, payload));
         });
         //?}
     }
 
     public static void registerClient() {
         //? if >=1.20.6 {
-        /*ClientPlayNetworking.registerGlobalReceiver(ShowVotePanelPayload.TYPE, (payload, context) -> {
+        // the ack is applied while decoding (PayloadIo.readPresenceFromServer), registering just opens the channel
+        /*ClientPlayNetworking.registerGlobalReceiver(PresencePayload.TYPE, (payload, context) -> {
+        });
+        ClientPlayNetworking.registerGlobalReceiver(ShowVotePanelPayload.TYPE, (payload, context) -> {
             VoteKickHud.showVotePanel(
+                    payload.sessionId(),
                     payload.title(),
                     payload.subtitle(),
                     payload.time(),
@@ -54,15 +60,19 @@ public final class FabricNetworkHandler {
             );
         });
         ClientPlayNetworking.registerGlobalReceiver(UpdateVotePanelPayload.TYPE, (payload, context) -> {
-            VoteKickHud.updateVotePanel(payload.time(), payload.yesVotes(), payload.noVotes());
+            VoteKickHud.updateVotePanel(payload.sessionId(), payload.time(), payload.yesVotes(), payload.noVotes());
         });
         ClientPlayNetworking.registerGlobalReceiver(HideVotePanelPayload.TYPE, (payload, context) -> {
-            VoteKickHud.hideVotePanel();
+            VoteKickHud.hideVotePanel(payload.sessionId());
         });
         *///?} else {
+        ClientPlayNetworking.registerGlobalReceiver(PresencePayload.ID, (client, handler, buf, responseSender) ->
+                PayloadIo.readPresenceFromServer(buf)
+        );
         ClientPlayNetworking.registerGlobalReceiver(ShowVotePanelPayload.ID, (client, handler, buf, responseSender) -> {
             ShowVotePanelPayload payload = PayloadIo.readShowVotePanel(buf);
             client.execute(() -> VoteKickHud.showVotePanel(
+                    payload.sessionId(),
                     payload.title(),
                     payload.subtitle(),
                     payload.time(),
@@ -74,10 +84,11 @@ public final class FabricNetworkHandler {
         });
         ClientPlayNetworking.registerGlobalReceiver(UpdateVotePanelPayload.ID, (client, handler, buf, responseSender) -> {
             UpdateVotePanelPayload payload = PayloadIo.readUpdateVotePanel(buf);
-            client.execute(() -> VoteKickHud.updateVotePanel(payload.time(), payload.yesVotes(), payload.noVotes()));
+            client.execute(() -> VoteKickHud.updateVotePanel(payload.sessionId(), payload.time(), payload.yesVotes(), payload.noVotes()));
         });
         ClientPlayNetworking.registerGlobalReceiver(HideVotePanelPayload.ID, (client, handler, buf, responseSender) -> {
-            client.execute(VoteKickHud::hideVotePanel);
+            HideVotePanelPayload payload = PayloadIo.readHideVotePanel(buf);
+            client.execute(() -> VoteKickHud.hideVotePanel(payload.sessionId()));
         });
         //?}
     }
@@ -13,6 +13,8 @@ import net.neoforged.neoforge.client.event.ClientPlayerNetworkEvent;
 import net.neoforged.neoforge.client.event.RenderGuiEvent;
 import sierra.thing.votekick.VoteKickMod;
 import sierra.thing.votekick.client.VoteKickHud;
+import sierra.thing.votekick.network.VoteKickNetworking;
+import sierra.thing.votekick.network.WireFormat;
 
 //? if >=1.21.6 {
 /^@EventBusSubscriber(modid = VoteKickMod.MOD_ID, value = Dist.CLIENT)
@@ -37,10 +39,16 @@ public final class NeoforgeClientEventSubscriber {
         VoteKickHud.onHudRender(event.getGuiGraphics(), tickDelta);
     }
 
+    @SubscribeEvent
+    public static void onClientLogin(ClientPlayerNetworkEvent.LoggingIn event) {
+        VoteKickNetworking.sendPresence();
+    }
+
     @SubscribeEvent
     public static void onClientLogout(ClientPlayerNetworkEvent.LoggingOut event) {
         VoteKickHud.onClientDisconnect();
         VoteKickHud.resetVoteState();
+        WireFormat.resetClient();
     }
 }
 *///?}
@@ -85,5 +85,19 @@ public final class NeoforgeEventSubscriber {
             //?}
         }
     }
+
+    @SubscribeEvent
+    public static void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            VoteKickMod.onPlayerChangedDimension(player);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            VoteKickMod.onPlayerRespawn(player);
+        }
+    }
 }
 *///?}
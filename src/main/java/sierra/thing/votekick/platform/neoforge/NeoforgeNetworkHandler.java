@@ -2,7 +2,8 @@ package sierra.thing.votekick.platform.neoforge;
 
 //? if neoforge {
 
-/*import net.minecraft.server.level.ServerPlayer;
+/*import net.minecraft.network.protocol.PacketFlow;
+import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.bus.api.SubscribeEvent;
 //? if >=1.20.6 {
 /^import net.neoforged.fml.common.EventBusSubscriber;
@@ -11,13 +12,13 @@ import net.neoforged.fml.common.Mod.EventBusSubscriber;
 //?}
 import sierra.thing.votekick.VoteKickMod;
 import sierra.thing.votekick.client.VoteKickHud;
-import sierra.thing.votekick.commands.VoteKickCommand;
 import sierra.thing.votekick.network.CastVotePayload;
 import sierra.thing.votekick.network.HideVotePanelPayload;
 import sierra.thing.votekick.network.PayloadIo;
+import sierra.thing.votekick.network.PresencePayload;
 import sierra.thing.votekick.network.ShowVotePanelPayload;
 import sierra.thing.votekick.network.UpdateVotePanelPayload;
-import sierra.thing.votekick.network.VoteKickRateLimiter;
+import sierra.thing.votekick.network.VoteKickNetworking;
 //? if >=1.20.6 {
 /^import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
 import net.neoforged.neoforge.network.handling.IPayloadContext;
@@ -42,23 +43,35 @@ public final class NeoforgeNetworkHandler {
     public static void onRegisterPayloadHandlers(RegisterPayloadHandlersEvent event) {
         PayloadRegistrar registrar = event.registrar(VoteKickMod.VERSION);
         registrar.playToServer(CastVotePayload.TYPE, CastVotePayload.STREAM_CODEC, NeoforgeNetworkHandler::handleCastVote);
+        // one codec for both directions here; only clients act on the ack it decodes, and a
+        // host never decodes its own in-memory connection
+        registrar.playBidirectional(PresencePayload.TYPE, PresencePayload.CLIENTBOUND_STREAM_CODEC, NeoforgeNetworkHandler::handlePresence);
         registrar.playToClient(ShowVotePanelPayload.TYPE, ShowVotePanelPayload.STREAM_CODEC, NeoforgeNetworkHandler::handleShowVotePanel);
         registrar.playToClient(UpdateVotePanelPayload.TYPE, UpdateVotePanelPayload.STREAM_CODEC, NeoforgeNetworkHandler::handleUpdateVotePanel);
         registrar.playToClient(HideVotePanelPayload.TYPE, HideVotePanelPayload.STREAM_CODEC, NeoforgeNetworkHandler::handleHideVotePanel);
     }
 
+    // no enqueueWork, the intake queue is the hand-off to the server thread
     private static void handleCastVote(CastVotePayload payload, IPayloadContext context) {
+        if (context.player() instanceof ServerPlayer player) {
+            VoteKickMod.getVoteIntake().offer(player, payload);
+        }
+    }
+
+    private static void handlePresence(PresencePayload payload, IPayloadContext context) {
+        if (context.flow() != PacketFlow.SERVERBOUND) {
+            return;
+        }
         context.enqueueWork(() -> {
             if (context.player() instanceof ServerPlayer player) {
-                if (VoteKickRateLimiter.allowCastVote(player)) {
-                    VoteKickCommand.castVote(player, payload.voteYes());
-                }
+                VoteKickNetworking.handlePresence(player, payload);
             }
         });
     }
 
     private static void handleShowVotePanel(ShowVotePanelPayload payload, IPayloadContext context) {
         context.enqueueWork(() -> VoteKickHud.showVotePanel(
+                payload.sessionId(),
                 payload.title(),
                 payload.subtitle(),
                 payload.time(),
@@ -70,34 +83,45 @@ public final class NeoforgeNetworkHandler {
     }
 
     private static void handleUpdateVotePanel(UpdateVotePanelPayload payload, IPayloadContext context) {
-        context.enqueueWork(() -> VoteKickHud.updateVotePanel(payload.time(), payload.yesVotes(), payload.noVotes()));
+        context.enqueueWork(() -> VoteKickHud.updateVotePanel(payload.sessionId(), payload.time(), payload.yesVotes(), payload.noVotes()));
     }
 
     private static void handleHideVotePanel(HideVotePanelPayload payload, IPayloadContext context) {
-        context.enqueueWork(VoteKickHud::hideVotePanel);
+        context.enqueueWork(() -> VoteKickHud.hideVotePanel(payload.sessionId()));
     }
     ^///?} else {
     @SubscribeEvent
     public static void onRegisterPayloadHandlers(RegisterPayloadHandlerEvent event) {
         IPayloadRegistrar registrar = event.registrar(VoteKickMod.MOD_ID);
         registrar.play(CastVotePayload.ID, PayloadIo::readCastVote, NeoforgeNetworkHandler::handleCastVote);
+        registrar.play(PresencePayload.ID, PayloadIo::readPresenceFromServer, NeoforgeNetworkHandler::handlePresence);
         registrar.play(ShowVotePanelPayload.ID, PayloadIo::readShowVotePanel, NeoforgeNetworkHandler::handleShowVotePanel);
         registrar.play(UpdateVotePanelPayload.ID, PayloadIo::readUpdateVotePanel, NeoforgeNetworkHandler::handleUpdateVotePanel);
         registrar.play(HideVotePanelPayload.ID, PayloadIo::readHideVotePanel, NeoforgeNetworkHandler::handleHideVotePanel);
     }
 
     private static void handleCastVote(CastVotePayload payload, PlayPayloadContext context) {
+        context.player().ifPresent(player -> {
+            if (player instanceof ServerPlayer serverPlayer) {
+                VoteKickMod.getVoteIntake().offer(serverPlayer, payload);
+            }
+        });
+    }
+
+    private static void handlePresence(PresencePayload payload, PlayPayloadContext context) {
+        if (context.flow() != PacketFlow.SERVERBOUND) {
+            return;
+        }
         context.workHandler().execute(() -> context.player().ifPresent(player -> {
             if (player instanceof ServerPlayer serverPlayer) {
-                if (VoteKickRateLimiter.allowCastVote(serverPlayer)) {
-                    VoteKickCommand.castVote(serverPlayer, payload.voteYes());
-                }
+                VoteKickNetworking.handlePresence(serverPlayer, payload);
             }
         }));
     }
 
     private static void handleShowVotePanel(ShowVotePanelPayload payload, PlayPayloadContext context) {
         context.workHandler().execute(() -> VoteKickHud.showVotePanel(
+                payload.sessionId(),
                 payload.title(),
                 payload.subtitle(),
                 payload.time(),
@@ -109,11 +133,11 @@ public final class NeoforgeNetworkHandler {
     }
 
     private static void handleUpdateVotePanel(UpdateVotePanelPayload payload, PlayPayloadContext context) {
-        context.workHandler().execute(() -> VoteKickHud.updateVotePanel(payload.time(), payload.yesVotes(), payload.noVotes()));
+        context.workHandler().execute(() -> VoteKickHud.updateVotePanel(payload.sessionId(), payload.time(), payload.yesVotes(), payload.noVotes()));
     }
 
     private static void handleHideVotePanel(HideVotePanelPayload payload, PlayPayloadContext context) {
-        context.workHandler().execute(VoteKickHud::hideVotePanel);
+        context.workHandler().execute(() -> VoteKickHud.hideVotePanel(payload.sessionId()));
     }
     //?}
 }
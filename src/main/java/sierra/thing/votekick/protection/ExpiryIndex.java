@@ -0,0 +1,73 @@
+package sierra.thing.votekick.protection;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Players filed by the minute their data may be dropped, so cleanup only ever looks at the ones
+ * that are due instead of walking everyone.
+ *
+ * Filing is cheap and never moves anything: when a player's due time changes they're just filed
+ * again, and the caller skips the old copy when it comes up. A bucket is handed out once its
+ * minute has fully passed, so a player is dropped up to a minute late. Server thread only.
+ */
+final class ExpiryIndex {
+    static final long BUCKET_MS = 60_000L;
+
+    private final TreeMap<Long, ArrayDeque<UUID>> buckets = new TreeMap<>();
+    private int size;
+
+    static long bucketOf(long dueAt) {
+        return Math.floorDiv(dueAt, BUCKET_MS);
+    }
+
+    /**
+     * Files the player under {@code bucket}; see {@link #bucketOf}.
+     */
+    void add(UUID playerUUID, long bucket) {
+        buckets.computeIfAbsent(bucket, k -> new ArrayDeque<>()).add(playerUUID);
+        size++;
+    }
+
+    /**
+     * Takes one player from a bucket whose minute ended before {@code now}.
+     *
+     * @return null if nothing is due
+     */
+    UUID poll(long now) {
+        Map.Entry<Long, ArrayDeque<UUID>> first = buckets.firstEntry();
+        if (first == null || first.getKey() >= bucketOf(now)) {
+            return null;
+        }
+
+        ArrayDeque<UUID> bucket = first.getValue();
+        UUID playerUUID = bucket.poll();
+        if (bucket.isEmpty()) {
+            buckets.remove(first.getKey());
+        }
+        size--;
+        return playerUUID;
+    }
+
+    /**
+     * Entries waiting in buckets that are already due, old copies included.
+     */
+    int due(long now) {
+        int due = 0;
+        for (ArrayDeque<UUID> bucket : buckets.headMap(bucketOf(now)).values()) {
+            due += bucket.size();
+        }
+        return due;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        buckets.clear();
+        size = 0;
+    }
+}
@@ -0,0 +1,194 @@
+package sierra.thing.votekick.protection;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A player's most recent kicks, oldest first: a fixed ring of timestamps with the reason of each
+ * beside it. Kept sorted by time, so "kicks in the last hour" is a binary search instead of a
+ * walk over every record. Once full, a new kick pushes out the oldest one.
+ *
+ * Reasons come from a {@link KickReasonTable}; whoever drops a history or a record hands its
+ * reasons back. On disk it's the same list of {timestamp, reason} objects as before.
+ */
+final class KickHistory {
+    private final long[] timestamps;
+    private final String[] reasons;
+    private int head;
+    private int size;
+
+    KickHistory(int capacity) {
+        this.timestamps = new long[capacity];
+        this.reasons = new String[capacity];
+    }
+
+    /**
+     * Adds a kick, pushing out the oldest one when full.
+     *
+     * @return the reason of the record pushed out (to release), or null
+     */
+    String add(long timestamp, String reason) {
+        String dropped = null;
+        if (size == timestamps.length) {
+            dropped = reasons[head];
+            reasons[head] = null;
+            head = (head + 1) % timestamps.length;
+            size--;
+        }
+
+        // the wall clock can step back, keep the order anyway
+        int i = size;
+        while (i > 0 && timestampAt(i - 1) > timestamp) {
+            timestamps[slot(i)] = timestampAt(i - 1);
+            reasons[slot(i)] = reasonAt(i - 1);
+            i--;
+        }
+        timestamps[slot(i)] = timestamp;
+        reasons[slot(i)] = reason;
+        size++;
+        return dropped;
+    }
+
+    /**
+     * Kicks strictly after {@code since}.
+     */
+    int countSince(long since) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestampAt(mid) > since) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return size - low;
+    }
+
+    /**
+     * Time of the latest kick, 0 if there are none.
+     */
+    long latest() {
+        return size == 0 ? 0 : timestampAt(size - 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long timestampAt(int index) {
+        return timestamps[slot(index)];
+    }
+
+    String reasonAt(int index) {
+        return reasons[slot(index)];
+    }
+
+    // for histories read off the server thread, which hold their own copies until they're adopted
+    void internReasons(KickReasonTable table) {
+        for (int i = 0; i < size; i++) {
+            reasons[slot(i)] = table.acquire(reasons[slot(i)]);
+        }
+    }
+
+    void releaseReasons(KickReasonTable table) {
+        for (int i = 0; i < size; i++) {
+            table.release(reasonAt(i));
+        }
+    }
+
+    KickHistory copy() {
+        KickHistory copy = new KickHistory(timestamps.length);
+        System.arraycopy(timestamps, 0, copy.timestamps, 0, timestamps.length);
+        System.arraycopy(reasons, 0, copy.reasons, 0, reasons.length);
+        copy.head = head;
+        copy.size = size;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        long[] ordered = new long[size];
+        for (int i = 0; i < size; i++) {
+            ordered[i] = timestampAt(i);
+        }
+        return "KickHistory" + Arrays.toString(ordered);
+    }
+
+    private int slot(int index) {
+        return (head + index) % timestamps.length;
+    }
+
+    /**
+     * Reads and writes the old {@code [{"timestamp": ..., "reason": ...}]} layout. Reading interns
+     * reasons through the table, so it must run on the server thread; writing touches only the
+     * history and is fine on the io thread.
+     */
+    static final class JsonAdapter extends TypeAdapter<KickHistory> {
+        private final KickReasonTable reasons;
+        private final int capacity;
+
+        JsonAdapter(KickReasonTable reasons, int capacity) {
+            this.reasons = reasons;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public void write(JsonWriter out, KickHistory history) throws IOException {
+            out.beginArray();
+            if (history != null) {
+                for (int i = 0; i < history.size; i++) {
+                    out.beginObject();
+                    out.name("timestamp").value(history.timestampAt(i));
+                    String reason = history.reasonAt(i);
+                    if (reason != null) {
+                        out.name("reason").value(reason);
+                    }
+                    out.endObject();
+                }
+            }
+            out.endArray();
+        }
+
+        @Override
+        public KickHistory read(JsonReader in) throws IOException {
+            KickHistory history = new KickHistory(capacity);
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return history;
+            }
+
+            in.beginArray();
+            while (in.hasNext()) {
+                long timestamp = 0;
+                String reason = null;
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    if (name.equals("timestamp") && in.peek() == JsonToken.NUMBER) {
+                        timestamp = in.nextLong();
+                    } else if (name.equals("reason") && in.peek() == JsonToken.STRING) {
+                        reason = in.nextString();
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                in.endObject();
+
+                reasons.release(history.add(timestamp, reasons.acquire(reason)));
+            }
+            in.endArray();
+            return history;
+        }
+    }
+}
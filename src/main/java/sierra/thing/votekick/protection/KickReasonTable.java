@@ -0,0 +1,52 @@
+package sierra.thing.votekick.protection;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One shared copy of each kick reason. Most kicks reuse a handful of reasons ("griefing",
+ * "No reason provided"), so histories hold the table's instance instead of their own.
+ * Counted, so a reason is forgotten once no history uses it. Server thread only.
+ */
+final class KickReasonTable {
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * @return the shared instance, to be handed back through {@link #release} when dropped
+     */
+    String acquire(String reason) {
+        if (reason == null) {
+            return null;
+        }
+        Entry entry = entries.computeIfAbsent(reason, Entry::new);
+        entry.refs++;
+        return entry.value;
+    }
+
+    void release(String reason) {
+        if (reason == null) {
+            return;
+        }
+        Entry entry = entries.get(reason);
+        if (entry != null && --entry.refs <= 0) {
+            entries.remove(reason);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private static final class Entry {
+        final String value;
+        int refs;
+
+        Entry(String value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package sierra.thing.votekick.protection;
+
+import sierra.thing.votekick.util.UuidLongSet;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Every player who has ever joined, with when they were last seen.
+ *
+ * In memory it's an open-addressing table over raw (most, least) UUID halves plus a
+ * last-seen column: three primitive arrays, no per-player objects. On disk it's a flat
+ * file of fixed 24 byte records sorted by UUID, read through a memory mapping on startup.
+ * Not thread-safe: server thread only.
+ */
+final class KnownPlayerIndex {
+    private static final int MAGIC = 0x564B4B50; // "VKKP"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 9;
+    private static final int RECORD_BYTES = 24;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] most;
+    private long[] least;
+    private long[] lastSeen;
+    private boolean[] used;
+    private int size;
+    private int resizeAt;
+    // next slot evictOlderThan looks at
+    private int evictCursor;
+
+    KnownPlayerIndex() {
+        allocate(UuidLongSet.tableSizeFor(16));
+    }
+
+    boolean contains(UUID uuid) {
+        return uuid != null && find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) >= 0;
+    }
+
+    /**
+     * Adds the player or bumps their last-seen time.
+     *
+     * @return true if they weren't known before
+     */
+    boolean touch(UUID uuid, long now) {
+        return put(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), now);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+        evictCursor = 0;
+    }
+
+    /**
+     * Looks at the next {@code slots} slots of the table, forgetting anyone last seen before
+     * {@code cutoff}. Carries on where the last call stopped and wraps around, so calling it
+     * every tick walks the whole table without ever stalling on it.
+     *
+     * @return how many were removed
+     */
+    int evictOlderThan(long cutoff, int slots) {
+        int removed = 0;
+        for (int checked = 0; checked < slots; checked++) {
+            if (evictCursor >= used.length) {
+                evictCursor = 0;
+            }
+            if (used[evictCursor] && lastSeen[evictCursor] < cutoff) {
+                removeAt(evictCursor);
+                removed++;
+                // backward shift may have pulled a later entry into this slot, look again
+                continue;
+            }
+            evictCursor++;
+        }
+        return removed;
+    }
+
+    int capacity() {
+        return used.length;
+    }
+
+    /**
+     * Raw copy of the table for a background write. Cheap enough for the tick thread:
+     * three array copies, the sorting happens in {@link #write(Snapshot, OutputStream)}.
+     */
+    Snapshot snapshot() {
+        return new Snapshot(most.clone(), least.clone(), lastSeen.clone(), used.clone(), size);
+    }
+
+    void load(Path file) throws IOException {
+        clear();
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES) {
+                throw new IOException("known players file is truncated");
+            }
+
+            // the mapping outlives the channel until gc. on windows that can make the first rename
+            // over this file fail, WriteBehindFile just retries it on a later tick
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt() != MAGIC || buffer.get() != FORMAT_VERSION) {
+                throw new IOException("known players file has an unknown header");
+            }
+
+            int count = buffer.getInt();
+            if (count < 0 || HEADER_BYTES + (long) count * RECORD_BYTES > length) {
+                throw new IOException("known players file is truncated");
+            }
+
+            if (UuidLongSet.tableSizeFor(count) > used.length) {
+                allocate(UuidLongSet.tableSizeFor(count));
+            }
+            for (int i = 0; i < count; i++) {
+                put(buffer.getLong(), buffer.getLong(), buffer.getLong());
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot as sorted records. Runs on the io thread.
+     */
+    static void write(Snapshot snapshot, OutputStream out) throws IOException {
+        int count = snapshot.size();
+        long[] hi = new long[count];
+        long[] lo = new long[count];
+        long[] seen = new long[count];
+        int n = 0;
+        for (int i = 0; i < snapshot.used().length && n < count; i++) {
+            if (snapshot.used()[i]) {
+                hi[n] = snapshot.most()[i];
+                lo[n] = snapshot.least()[i];
+                seen[n] = snapshot.lastSeen()[i];
+                n++;
+            }
+        }
+        sort(hi, lo, seen, 0, n - 1);
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(FORMAT_VERSION);
+        data.writeInt(n);
+        for (int i = 0; i < n; i++) {
+            data.writeLong(hi[i]);
+            data.writeLong(lo[i]);
+            data.writeLong(seen[i]);
+        }
+        data.flush();
+    }
+
+    private int find(long hi, long lo) {
+        int mask = used.length - 1;
+        int slot = UuidLongSet.mix(hi, lo) & mask;
+        while (used[slot]) {
+            if (most[slot] == hi && least[slot] == lo) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean put(long hi, long lo, long seen) {
+        int mask = used.length - 1;
+        int slot = UuidLongSet.mix(hi, lo) & mask;
+        while (used[slot]) {
+            if (most[slot] == hi && least[slot] == lo) {
+                lastSeen[slot] = Math.max(lastSeen[slot], seen);
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        used[slot] = true;
+        most[slot] = hi;
+        least[slot] = lo;
+        lastSeen[slot] = seen;
+        if (++size >= resizeAt) {
+            rehash(used.length << 1);
+        }
+        return true;
+    }
+
+    // linear probing delete without tombstones: pull later entries of the same run back into the gap
+    private void removeAt(int slot) {
+        int mask = used.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int home = UuidLongSet.mix(most[next], least[next]) & mask;
+            // the entry can move into the gap only if its home isn't between the gap and where it sits
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                most[gap] = most[next];
+                least[gap] = least[next];
+                lastSeen[gap] = lastSeen[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[gap] = false;
+        size--;
+    }
+
+    private void allocate(int capacity) {
+        most = new long[capacity];
+        least = new long[capacity];
+        lastSeen = new long[capacity];
+        used = new boolean[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldMost = most;
+        long[] oldLeast = least;
+        long[] oldSeen = lastSeen;
+        boolean[] oldUsed = used;
+
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (!oldUsed[i]) {
+                continue;
+            }
+            int slot = UuidLongSet.mix(oldMost[i], oldLeast[i]) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            most[slot] = oldMost[i];
+            least[slot] = oldLeast[i];
+            lastSeen[slot] = oldSeen[i];
+        }
+    }
+
+    // quicksort over the three columns at once, ordered by (hi, lo)
+    private static void sort(long[] hi, long[] lo, long[] seen, int left, int right) {
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            long pivotHi = hi[mid];
+            long pivotLo = lo[mid];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (compare(hi[i], lo[i], pivotHi, pivotLo) < 0) i++;
+                while (compare(hi[j], lo[j], pivotHi, pivotLo) > 0) j--;
+                if (i <= j) {
+                    swap(hi, i, j);
+                    swap(lo, i, j);
+                    swap(seen, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            // recurse into the smaller half so the stack stays O(log n)
+            if (j - left < right - i) {
+                sort(hi, lo, seen, left, j);
+                left = i;
+            } else {
+                sort(hi, lo, seen, i, right);
+                right = j;
+            }
+        }
+    }
+
+    private static int compare(long hiA, long loA, long hiB, long loB) {
+        int c = Long.compare(hiA, hiB);
+        return c != 0 ? c : Long.compare(loA, loB);
+    }
+
+    private static void swap(long[] array, int a, int b) {
+        long tmp = array[a];
+        array[a] = array[b];
+        array[b] = tmp;
+    }
+
+    record Snapshot(long[] most, long[] least, long[] lastSeen, boolean[] used, int size) {
+    }
+}
@@ -3,31 +3,133 @@ package sierra.thing.votekick.protection;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sierra.thing.votekick.VoteKickMod;
+import sierra.thing.votekick.persistence.WriteBehindFile;
+import sierra.thing.votekick.util.VoteClock;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class PlayerProtectionManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
-
+    // joins come in bursts; one write every few seconds covers all of them
+    private static final int SAVE_INTERVAL_TICKS = 100;
+    // only last-seen times change between joins, losing a minute of those on a crash is fine
+    private static final int KNOWN_PLAYERS_SAVE_INTERVAL_TICKS = 1200;
+    // kicks remembered per player for harassment detection
+    private static final int KICK_HISTORY_SIZE = 10;
+    // records looked at for expiry per tick; a backlog drains over a few ticks instead of stalling one
+    private static final int EXPIRY_CHECKS_PER_TICK = 64;
+    // a million known players is a pass every few minutes, eviction is counted in days
+    private static final int KNOWN_PLAYER_SLOTS_PER_TICK = 256;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    // a record stays in memory this long after its player leaves, in case they come right back
+    private static final long UNLOAD_GRACE_MS = 5 * 60_000L;
+    private static final int UNLOAD_CHECK_INTERVAL_TICKS = 20;
+    // savedBy of a record changed since the last snapshot
+    private static final long UNSAVED = Long.MAX_VALUE;
+
+    // records of players who are online or left recently; everyone else's stay on disk until needed
     private final Map<UUID, PlayerProtectionData> protectionData = new ConcurrentHashMap<>();
-    private final Set<UUID> knownPlayers = ConcurrentHashMap.newKeySet();
-
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    // players whose saved record has been read in, or who turned out not to have one
+    private final Set<UUID> loaded = new HashSet<>();
+    // reads in flight, with what to run once each lands
+    private final Map<UUID, List<Runnable>> fetching = new HashMap<>();
+    // filled by the read thread, drained on tick
+    private final Queue<Fetched> fetched = new ConcurrentLinkedQueue<>();
+    private final Set<UUID> online = new HashSet<>();
+    // loaded players who aren't online, and when (monotonic) they may be dropped from memory
+    private final Map<UUID, Long> unloadAt = new HashMap<>();
+    private int ticksSinceUnload;
+    private final ExecutorService reads = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "votekick-protection-read");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final KnownPlayerIndex knownPlayers = new KnownPlayerIndex();
+    private final KickReasonTable kickReasons = new KickReasonTable();
+    private final ExpiryIndex expiry = new ExpiryIndex();
+    // data_cleanup_days the index was filed with; a reload that changes it refiles everyone
+    private long indexedCleanupMillis = -1;
+
+    // sweep metrics, server thread only
+    private int lastSweepChecked;
+    private int lastSweepExpired;
+    private long lastSweepNanos;
+    private long worstSweepNanos;
+    private long expiredTotal;
+    private long lastEvictNanos;
+    private long worstEvictNanos;
+    private long evictedTotal;
+
+    // protection deadlines and kick times are saved, so they're wall clock
+    private final VoteClock clock;
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(KickHistory.class, new KickHistory.JsonAdapter(kickReasons, KICK_HISTORY_SIZE))
+            .create();
     private final File dataFile;
+    // where older versions kept everything, read once to convert
+    private final File legacyFile;
+    private final File knownPlayersFile;
+    private final WriteBehindFile<Snapshot> persistence;
+    private final WriteBehindFile<KnownPlayerIndex.Snapshot> knownPlayersPersistence;
 
     public PlayerProtectionManager() {
-        File configDir = VoteKickMod.platform().getConfigDir().toFile();
-        this.dataFile = new File(configDir, "votekick_protection.json");
+        this(VoteKickMod.platform().getConfigDir().toFile());
+    }
+
+    public PlayerProtectionManager(File configDir) {
+        this(configDir, VoteKickMod.getClock());
+    }
+
+    public PlayerProtectionManager(File configDir, VoteClock clock) {
+        this.clock = clock;
+        this.dataFile = new File(configDir, "votekick_protection.dat");
+        this.legacyFile = new File(configDir, "votekick_protection.json");
+        this.knownPlayersFile = new File(configDir, "votekick_known_players.bin");
+        this.persistence = new WriteBehindFile<>("protection", dataFile.toPath(), SAVE_INTERVAL_TICKS,
+                this::snapshot, this::writeSnapshot);
+        this.knownPlayersPersistence = new WriteBehindFile<>("known-players", knownPlayersFile.toPath(),
+                KNOWN_PLAYERS_SAVE_INTERVAL_TICKS, knownPlayers::snapshot, KnownPlayerIndex::write);
+    }
+
+    /**
+     * Whether the player's saved record is still being read. Until it lands the lookups below
+     * answer as if they had none, so anything deciding on them should wait. Starts the read if
+     * it wasn't asked for yet.
+     */
+    public boolean isLoading(UUID playerUUID) {
+        if (playerUUID == null) {
+            return false;
+        }
+        if (!loaded.contains(playerUUID)) {
+            fetch(playerUUID, null);
+        }
+        return fetching.containsKey(playerUUID);
     }
 
     public boolean isProtected(UUID playerUUID) {
@@ -35,10 +137,10 @@ public class PlayerProtectionManager {
             return false;
         }
 
-        PlayerProtectionData data = protectionData.get(playerUUID);
+        PlayerProtectionData data = lookup(playerUUID);
         if (data == null) return false;
 
-        long now = System.currentTimeMillis();
+        long now = clock.wallMillis();
         return data.protectionUntil > now;
     }
 
@@ -47,51 +149,50 @@ public class PlayerProtectionManager {
             return 0;
         }
 
-        PlayerProtectionData data = protectionData.get(playerUUID);
+        PlayerProtectionData data = lookup(playerUUID);
         if (data == null) return 0;
 
-        long remaining = data.protectionUntil - System.currentTimeMillis();
+        long remaining = data.protectionUntil - clock.wallMillis();
         return remaining > 0 ? (int)(remaining / 1000) : 0;
     }
 
     public void grantNewPlayerProtection(UUID playerUUID) {
         if (!VoteKickMod.getConfig().isNewPlayerProtectionEnabled()) {
-            knownPlayers.add(playerUUID);
+            markSeen(playerUUID);
             return;
         }
 
-        PlayerProtectionData data = protectionData.computeIfAbsent(playerUUID, k -> new PlayerProtectionData());
+        PlayerProtectionData data = resident(playerUUID);
         long duration = VoteKickMod.getConfig().getNewPlayerProtectionDuration() * 1000L;
-        data.protectionUntil = System.currentTimeMillis() + duration;
+        data.protectionUntil = clock.wallMillis() + duration;
         data.isNewPlayer = true;
-        knownPlayers.add(playerUUID);
-        save();
+        fileExpiry(playerUUID, data);
+        markSeen(playerUUID);
+        persistence.markDirty();
     }
 
     public void recordKick(UUID playerUUID, String reason) {
-        PlayerProtectionData data = protectionData.computeIfAbsent(playerUUID, k -> new PlayerProtectionData());
+        PlayerProtectionData data = resident(playerUUID);
 
+        long now = clock.wallMillis();
         data.totalKicks++;
-        data.lastKickTime = System.currentTimeMillis();
-        data.kickHistory.add(new KickRecord(System.currentTimeMillis(), reason));
-
-        if (data.kickHistory.size() > 10) {
-            data.kickHistory.remove(0);
-        }
+        data.lastKickTime = now;
+        kickReasons.release(data.kickHistory.add(now, kickReasons.acquire(reason)));
 
         if (VoteKickMod.getConfig().isPostKickProtectionEnabled()) {
             long protectionDuration = calculateProtectionDuration(data);
-            data.protectionUntil = System.currentTimeMillis() + protectionDuration;
+            data.protectionUntil = now + protectionDuration;
         }
 
         data.isNewPlayer = false;
+        fileExpiry(playerUUID, data);
 
         LOGGER.info("Player {} kicked (total: {}), protected for {} seconds",
                 playerUUID, data.totalKicks,
                 VoteKickMod.getConfig().isPostKickProtectionEnabled() ?
                         calculateProtectionDuration(data) / 1000 : 0);
 
-        save();
+        persistence.markDirty();
     }
 
     private long calculateProtectionDuration(PlayerProtectionData data) {
@@ -104,11 +205,9 @@ public class PlayerProtectionManager {
         }
 
         long timeWindow = VoteKickMod.getConfig().getHarassmentTimeWindow() * 1000L;
-        long windowStart = System.currentTimeMillis() - timeWindow;
+        long windowStart = clock.wallMillis() - timeWindow;
 
-        long recentKicks = data.kickHistory.stream()
-                .filter(k -> k.timestamp > windowStart)
-                .count();
+        int recentKicks = data.kickHistory.countSince(windowStart);
 
         int harassmentThreshold = VoteKickMod.getConfig().getHarassmentKickThreshold();
 
@@ -126,25 +225,34 @@ public class PlayerProtectionManager {
             return 0;
         }
 
-        PlayerProtectionData data = protectionData.get(playerUUID);
+        PlayerProtectionData data = lookup(playerUUID);
         if (data == null) return 0;
 
-        long since = System.currentTimeMillis() - withinMs;
-        return (int) data.kickHistory.stream()
-                .filter(k -> k.timestamp > since)
-                .count();
+        long since = clock.wallMillis() - withinMs;
+        return data.kickHistory.countSince(since);
     }
 
     public boolean hasJoinedBefore(UUID playerUUID) {
         return knownPlayers.contains(playerUUID);
     }
 
+    /**
+     * Remembers the player and refreshes their last-seen time. Server thread only.
+     */
+    public void markSeen(UUID playerUUID) {
+        if (playerUUID == null) {
+            return;
+        }
+        knownPlayers.touch(playerUUID, clock.wallMillis());
+        knownPlayersPersistence.markDirty();
+    }
+
     public double getVoteThresholdModifier(UUID playerUUID) {
         if (!VoteKickMod.getConfig().isVoteThresholdModifiersEnabled()) {
             return 1.0;
         }
 
-        PlayerProtectionData data = protectionData.get(playerUUID);
+        PlayerProtectionData data = lookup(playerUUID);
         if (data == null) return 1.0;
 
         int lightThreshold = VoteKickMod.getConfig().getLightModifierThreshold();
@@ -176,27 +284,291 @@ public class PlayerProtectionManager {
             return;
         }
 
-        protectionData.remove(playerUUID);
-        knownPlayers.add(playerUUID);
+        PlayerProtectionData removed = protectionData.remove(playerUUID);
+        if (removed != null) {
+            removed.kickHistory.releaseReasons(kickReasons);
+        }
+        // an empty record stands in until it's been written over the saved one
+        PlayerProtectionData cleared = new PlayerProtectionData();
+        protectionData.put(playerUUID, cleared);
+        markLoaded(playerUUID);
+        fileExpiry(playerUUID, cleared);
+        markSeen(playerUUID);
+        persistence.markDirty();
     }
 
-    public void cleanup() {
-        if (!anyProtectionEnabled()) {
+    /**
+     * Starts reading the player's saved record if it isn't in memory. {@code onLoaded} runs on the
+     * server thread once it is, right away if it already was.
+     */
+    public void onPlayerJoin(UUID playerUUID, Runnable onLoaded) {
+        online.add(playerUUID);
+        unloadAt.remove(playerUUID);
+        fetch(playerUUID, onLoaded);
+    }
+
+    /**
+     * The record stays in memory for a few minutes in case they come right back.
+     */
+    public void onPlayerLeave(UUID playerUUID) {
+        online.remove(playerUUID);
+        if (loaded.contains(playerUUID)) {
+            unloadAt.put(playerUUID, clock.millis() + UNLOAD_GRACE_MS);
+        }
+    }
+
+    public int getLoadedRecordCount() {
+        return protectionData.size();
+    }
+
+    // whatever is in memory. a player whose saved record isn't gets it read for next time
+    private PlayerProtectionData lookup(UUID playerUUID) {
+        if (!loaded.contains(playerUUID)) {
+            fetch(playerUUID, null);
+        }
+        return protectionData.get(playerUUID);
+    }
+
+    // the record to change, created if needed. a saved one still on disk is merged in when it lands
+    private PlayerProtectionData resident(UUID playerUUID) {
+        if (!loaded.contains(playerUUID)) {
+            fetch(playerUUID, null);
+        }
+        PlayerProtectionData data = protectionData.computeIfAbsent(playerUUID, k -> new PlayerProtectionData());
+        data.savedBy = UNSAVED;
+        return data;
+    }
+
+    private void fetch(UUID playerUUID, Runnable onLoaded) {
+        if (loaded.contains(playerUUID)) {
+            if (onLoaded != null) {
+                onLoaded.run();
+            }
             return;
         }
 
-        long now = System.currentTimeMillis();
-        long cleanupTime = VoteKickMod.getConfig().getDataCleanupDays() * 24L * 60 * 60 * 1000;
-        long expireTime = now - cleanupTime;
+        List<Runnable> waiting = fetching.get(playerUUID);
+        if (waiting == null) {
+            if (!dataFile.exists()) {
+                // nothing saved yet, nothing to wait for
+                adopt(playerUUID, null);
+                if (onLoaded != null) {
+                    onLoaded.run();
+                }
+                return;
+            }
+            waiting = new ArrayList<>(1);
+            fetching.put(playerUUID, waiting);
+            reads.execute(() -> fetched.add(new Fetched(playerUUID, readRecord(playerUUID))));
+        }
+        if (onLoaded != null) {
+            waiting.add(onLoaded);
+        }
+    }
 
-        protectionData.entrySet().removeIf(entry -> {
-            PlayerProtectionData data = entry.getValue();
-            return data.protectionUntil < now &&
-                    (data.kickHistory.isEmpty() ||
-                            data.kickHistory.get(data.kickHistory.size() - 1).timestamp < expireTime);
+    // read thread
+    private PlayerProtectionData readRecord(UUID playerUUID) {
+        try {
+            byte[] record = ProtectionRecordFile.read(dataFile.toPath(),
+                    playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits());
+            return record == null ? null : decode(record);
+        } catch (IOException e) {
+            LOGGER.error("Failed to read protection data for {}", playerUUID, e);
+            return null;
+        }
+    }
+
+    private void drainFetched() {
+        Fetched result;
+        while ((result = fetched.poll()) != null) {
+            List<Runnable> waiting = fetching.remove(result.playerUUID());
+            // asked for before a reload, nobody's waiting on it now
+            if (waiting == null) {
+                continue;
+            }
+            adopt(result.playerUUID(), result.data());
+            waiting.forEach(Runnable::run);
+        }
+    }
+
+    // takes in a player's saved record, or the lack of one
+    private void adopt(UUID playerUUID, PlayerProtectionData saved) {
+        if (loaded.contains(playerUUID)) {
+            // cleared while the read was out, the clear wins
+            return;
+        }
+        markLoaded(playerUUID);
+        if (saved == null || expiresAt(saved, cleanupMillis()) < clock.wallMillis()) {
+            return;
+        }
+
+        saved.kickHistory.internReasons(kickReasons);
+        PlayerProtectionData current = protectionData.get(playerUUID);
+        if (current == null) {
+            saved.savedBy = 0;
+            protectionData.put(playerUUID, saved);
+            fileExpiry(playerUUID, saved);
+            return;
+        }
+
+        // changed before the read landed: the saved kicks happened first
+        current.totalKicks += saved.totalKicks;
+        current.lastKickTime = Math.max(current.lastKickTime, saved.lastKickTime);
+        current.protectionUntil = Math.max(current.protectionUntil, saved.protectionUntil);
+        KickHistory merged = saved.kickHistory;
+        for (int i = 0; i < current.kickHistory.size(); i++) {
+            kickReasons.release(merged.add(current.kickHistory.timestampAt(i), current.kickHistory.reasonAt(i)));
+        }
+        current.kickHistory = merged;
+        fileExpiry(playerUUID, current);
+        persistence.markDirty();
+    }
+
+    private void markLoaded(UUID playerUUID) {
+        loaded.add(playerUUID);
+        if (!online.contains(playerUUID)) {
+            unloadAt.putIfAbsent(playerUUID, clock.millis() + UNLOAD_GRACE_MS);
+        }
+    }
+
+    // drops records of players who left a while ago, once they're on disk
+    private void unloadIdle() {
+        long now = clock.millis();
+        long written = persistence.writtenSnapshot();
+        Iterator<Map.Entry<UUID, Long>> it = unloadAt.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, Long> entry = it.next();
+            if (entry.getValue() > now) {
+                continue;
+            }
+
+            UUID playerUUID = entry.getKey();
+            PlayerProtectionData data = protectionData.get(playerUUID);
+            if (data != null) {
+                if (data.savedBy > written) {
+                    continue;
+                }
+                protectionData.remove(playerUUID);
+                data.kickHistory.releaseReasons(kickReasons);
+            }
+            loaded.remove(playerUUID);
+            it.remove();
+        }
+    }
+
+    public ExpiryStats getExpiryStats() {
+        return new ExpiryStats(lastSweepChecked, lastSweepExpired, lastSweepNanos, worstSweepNanos,
+                expiredTotal, expiry.due(clock.wallMillis()), expiry.size(),
+                lastEvictNanos, worstEvictNanos, evictedTotal, knownPlayers.size());
+    }
+
+    // drops at most EXPIRY_CHECKS_PER_TICK due records
+    private void sweepExpired() {
+        long cleanupMillis = cleanupMillis();
+        if (cleanupMillis != indexedCleanupMillis) {
+            refileAll(cleanupMillis);
+        }
+
+        long now = clock.wallMillis();
+        long currentBucket = ExpiryIndex.bucketOf(now);
+        // measuring, not deciding, so the real clock
+        long start = System.nanoTime();
+        int checked = 0;
+        int expired = 0;
+        UUID playerUUID;
+        while (checked < EXPIRY_CHECKS_PER_TICK && (playerUUID = expiry.poll(now)) != null) {
+            checked++;
+            PlayerProtectionData data = protectionData.get(playerUUID);
+            // cleared since, or filed again further out and this is the old copy
+            if (data == null || data.expiryBucket >= currentBucket) {
+                continue;
+            }
+
+            if (expiresAt(data, cleanupMillis) < now) {
+                if (data.savedBy > persistence.writtenSnapshot()) {
+                    // not on disk yet, dropping it now could bring the old saved record back
+                    data.expiryBucket = currentBucket + 1;
+                    expiry.add(playerUUID, data.expiryBucket);
+                } else if (protectionData.remove(playerUUID, data)) {
+                    data.kickHistory.releaseReasons(kickReasons);
+                    expired++;
+                }
+            } else {
+                // only if the wall clock went back
+                data.expiryBucket = Long.MIN_VALUE;
+                fileExpiry(playerUUID, data);
+            }
+        }
+        if (checked == 0) {
+            return;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        lastSweepChecked = checked;
+        lastSweepExpired = expired;
+        lastSweepNanos = elapsed;
+        worstSweepNanos = Math.max(worstSweepNanos, elapsed);
+        if (expired > 0) {
+            expiredTotal += expired;
+            persistence.markDirty();
+        }
+    }
+
+    // call after anything that moves the record's expiry
+    private void fileExpiry(UUID playerUUID, PlayerProtectionData data) {
+        long bucket = ExpiryIndex.bucketOf(expiresAt(data, cleanupMillis()));
+        if (bucket != data.expiryBucket) {
+            data.expiryBucket = bucket;
+            expiry.add(playerUUID, bucket);
+        }
+    }
+
+    private void refileAll(long cleanupMillis) {
+        expiry.clear();
+        indexedCleanupMillis = cleanupMillis;
+        protectionData.forEach((playerUUID, data) -> {
+            data.expiryBucket = Long.MIN_VALUE;
+            fileExpiry(playerUUID, data);
         });
     }
 
+    // the record can go once protection is over and the last kick is older than data_cleanup_days
+    private static long expiresAt(PlayerProtectionData data, long cleanupMillis) {
+        return expiresAt(data.protectionUntil, data.kickHistory.latest(), cleanupMillis);
+    }
+
+    // lastKick is 0 for players never kicked
+    private static long expiresAt(long protectionUntil, long lastKick, long cleanupMillis) {
+        if (lastKick == 0) {
+            return protectionUntil;
+        }
+        return Math.max(protectionUntil, lastKick + cleanupMillis);
+    }
+
+    private static long cleanupMillis() {
+        return VoteKickMod.getConfig().getDataCleanupDays() * DAY_MS;
+    }
+
+    // looks at KNOWN_PLAYER_SLOTS_PER_TICK slots of the known players table
+    private void evictStaleKnownPlayers() {
+        int evictionDays = VoteKickMod.getConfig().getKnownPlayersEvictionDays();
+        if (evictionDays <= 0) {
+            return;
+        }
+
+        long cutoff = clock.wallMillis() - evictionDays * DAY_MS;
+        long start = System.nanoTime();
+        int evicted = knownPlayers.evictOlderThan(cutoff, Math.min(KNOWN_PLAYER_SLOTS_PER_TICK, knownPlayers.capacity()));
+        long elapsed = System.nanoTime() - start;
+        lastEvictNanos = elapsed;
+        worstEvictNanos = Math.max(worstEvictNanos, elapsed);
+        if (evicted > 0) {
+            evictedTotal += evicted;
+            knownPlayersPersistence.markDirty();
+            LOGGER.debug("Forgot {} players not seen in {} days", evicted, evictionDays);
+        }
+    }
+
     private boolean anyProtectionEnabled() {
         return VoteKickMod.getConfig().isNewPlayerProtectionEnabled() ||
                 VoteKickMod.getConfig().isPostKickProtectionEnabled() ||
@@ -204,73 +576,235 @@ public class PlayerProtectionManager {
                 VoteKickMod.getConfig().isVoteThresholdModifiersEnabled();
     }
 
+    /**
+     * Server tick hook. Pending changes are written in the background at most every few seconds.
+     */
+    public void tick() {
+        evictStaleKnownPlayers();
+        knownPlayersPersistence.tick();
+        drainFetched();
+        if (++ticksSinceUnload >= UNLOAD_CHECK_INTERVAL_TICKS) {
+            ticksSinceUnload = 0;
+            unloadIdle();
+        }
+        if (!anyProtectionEnabled()) {
+            return;
+        }
+        sweepExpired();
+        persistence.tick();
+    }
+
+    /**
+     * Writes pending changes and waits for them to land. Called on server stop.
+     */
     public void save() {
+        knownPlayersPersistence.flush();
         if (!anyProtectionEnabled()) {
             return;
         }
+        persistence.flush();
+    }
 
-        try (FileWriter writer = new FileWriter(dataFile)) {
-            Map<String, Object> saveData = new HashMap<>();
+    // server thread: copies of what's in memory and settled, the writer merges them into the file
+    private Snapshot snapshot() {
+        long sequence = persistence.takenSnapshots();
+        List<Map.Entry<UUID, PlayerProtectionData>> records = new ArrayList<>(protectionData.size());
+        protectionData.forEach((uuid, data) -> {
+            // still waiting for its saved half, writing it now would overwrite that
+            if (!loaded.contains(uuid)) {
+                return;
+            }
+            if (data.savedBy == UNSAVED) {
+                data.savedBy = sequence;
+            }
+            records.add(Map.entry(uuid, data.copy()));
+        });
+        return new Snapshot(records, clock.wallMillis(), cleanupMillis());
+    }
 
-            Map<String, PlayerProtectionData> stringKeyedData = new HashMap<>();
-            protectionData.forEach((uuid, data) -> stringKeyedData.put(uuid.toString(), data));
+    // io thread: everyone not in the snapshot is copied over from the previous file as is
+    private void writeSnapshot(Snapshot snapshot, OutputStream out) throws IOException {
+        ProtectionRecordFile.Entry[] entries = new ProtectionRecordFile.Entry[snapshot.records().size()];
+        int i = 0;
+        for (Map.Entry<UUID, PlayerProtectionData> entry : snapshot.records()) {
+            UUID uuid = entry.getKey();
+            PlayerProtectionData data = entry.getValue();
+            entries[i++] = new ProtectionRecordFile.Entry(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(),
+                    data.protectionUntil, data.kickHistory.latest(), encode(data));
+        }
 
-            saveData.put("protectionData", stringKeyedData);
-            saveData.put("knownPlayers", knownPlayers.stream().map(UUID::toString).toList());
+        long now = snapshot.now();
+        long cleanupMillis = snapshot.cleanupMillis();
+        ProtectionRecordFile.write(dataFile.toPath(), entries,
+                (protectionUntil, lastKick) -> expiresAt(protectionUntil, lastKick, cleanupMillis) < now, out);
+    }
 
-            gson.toJson(saveData, writer);
-        } catch (IOException e) {
-            LOGGER.error("Failed to save protection data", e);
+    private static byte[] encode(PlayerProtectionData data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(data.protectionUntil);
+        out.writeInt(data.totalKicks);
+        out.writeLong(data.lastKickTime);
+        out.writeBoolean(data.isNewPlayer);
+        KickHistory history = data.kickHistory;
+        out.writeByte(history.size());
+        for (int i = 0; i < history.size(); i++) {
+            out.writeLong(history.timestampAt(i));
+            String reason = history.reasonAt(i);
+            out.writeBoolean(reason != null);
+            if (reason != null) {
+                out.writeUTF(reason);
+            }
         }
+        return bytes.toByteArray();
     }
 
+    // read thread: reasons stay plain strings until the record is adopted
+    private static PlayerProtectionData decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        PlayerProtectionData data = new PlayerProtectionData();
+        data.protectionUntil = in.readLong();
+        data.totalKicks = in.readInt();
+        data.lastKickTime = in.readLong();
+        data.isNewPlayer = in.readBoolean();
+        int kicks = in.readUnsignedByte();
+        for (int i = 0; i < kicks; i++) {
+            long timestamp = in.readLong();
+            String reason = in.readBoolean() ? in.readUTF() : null;
+            data.kickHistory.add(timestamp, reason);
+        }
+        return data;
+    }
+
+    /**
+     * Only checks the record file; records are read as their players show up.
+     */
     public void load() {
-        if (!anyProtectionEnabled()) {
+        boolean knownPlayersLoaded = loadKnownPlayers();
+        clearLoaded();
+
+        boolean hasRecords = dataFile.exists() && checkRecordFile();
+        if (!legacyFile.exists()) {
+            return;
+        }
+        // still worth reading with protection off if the old known players list needs importing
+        boolean importRecords = !hasRecords && anyProtectionEnabled();
+        if (!importRecords && knownPlayersLoaded) {
             return;
         }
+        importLegacyFile(importRecords, !knownPlayersLoaded);
+    }
+
+    private void clearLoaded() {
+        protectionData.clear();
+        loaded.clear();
+        fetching.clear();
+        fetched.clear();
+        online.clear();
+        unloadAt.clear();
+        kickReasons.clear();
+        expiry.clear();
+        indexedCleanupMillis = -1;
+    }
 
-        if (!dataFile.exists()) return;
+    private boolean checkRecordFile() {
+        try {
+            int count = ProtectionRecordFile.count(dataFile.toPath());
+            LOGGER.info("{} players have saved protection data", count);
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Protection data file is unreadable, moving it aside", e);
+            try {
+                Files.move(dataFile.toPath(), dataFile.toPath().resolveSibling(dataFile.getName() + ".corrupt"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException moveError) {
+                LOGGER.error("Failed to move {} aside", dataFile.getName(), moveError);
+            }
+            return false;
+        }
+    }
 
-        try (FileReader reader = new FileReader(dataFile)) {
-            Type type = new TypeToken<Map<String, Object>>(){}.getType();
-            Map<String, Object> loadedData = gson.fromJson(reader, type);
+    // the old json: every record at once, plus the known players list in even older versions
+    private void importLegacyFile(boolean importRecords, boolean importKnownPlayers) {
+        try (FileReader reader = new FileReader(legacyFile, StandardCharsets.UTF_8)) {
+            JsonElement root = JsonParser.parseReader(reader);
+            if (root == null || !root.isJsonObject()) {
+                return;
+            }
+            JsonObject loadedData = root.getAsJsonObject();
 
-            if (loadedData != null) {
-                Map<String, PlayerProtectionData> stringKeyedData = gson.fromJson(
-                        gson.toJson(loadedData.get("protectionData")),
-                        new TypeToken<Map<String, PlayerProtectionData>>(){}.getType()
-                );
+            if (importRecords) {
+                Type type = new TypeToken<Map<String, PlayerProtectionData>>(){}.getType();
+                Map<String, PlayerProtectionData> stringKeyedData = gson.fromJson(loadedData.get("protectionData"), type);
 
                 if (stringKeyedData != null) {
                     stringKeyedData.forEach((uuidStr, data) -> {
                         try {
-                            protectionData.put(UUID.fromString(uuidStr), data);
+                            UUID playerUUID = UUID.fromString(uuidStr);
+                            PlayerProtectionData replaced = protectionData.put(playerUUID, data);
+                            if (replaced != null) {
+                                replaced.kickHistory.releaseReasons(kickReasons);
+                            }
+                            // nobody's online yet, so these leave memory once they're written out
+                            markLoaded(playerUUID);
                         } catch (IllegalArgumentException e) {
                             LOGGER.warn("Invalid UUID in protection data: {}", uuidStr);
                         }
                     });
                 }
+                refileAll(cleanupMillis());
+                persistence.markDirty();
+                LOGGER.info("Imported protection data for {} players from {}", protectionData.size(), legacyFile.getName());
+            }
 
-                List<String> knownPlayerStrings = gson.fromJson(
-                        gson.toJson(loadedData.get("knownPlayers")),
-                        new TypeToken<List<String>>(){}.getType()
-                );
-
-                if (knownPlayerStrings != null) {
-                    knownPlayerStrings.forEach(uuidStr -> {
-                        try {
-                            knownPlayers.add(UUID.fromString(uuidStr));
-                        } catch (IllegalArgumentException e) {
-                            LOGGER.warn("Invalid UUID in known players: {}", uuidStr);
-                        }
-                    });
-                }
+            if (importKnownPlayers) {
+                importLegacyKnownPlayers(loadedData.get("knownPlayers"));
             }
+        } catch (IOException | JsonParseException e) {
+            LOGGER.error("Failed to import {}", legacyFile.getName(), e);
+        }
+    }
+
+    /**
+     * @return false if there is no known players file yet
+     */
+    private boolean loadKnownPlayers() {
+        if (!knownPlayersFile.exists()) {
+            return false;
+        }
 
-            LOGGER.info("Loaded protection data for {} players", protectionData.size());
+        try {
+            knownPlayers.load(knownPlayersFile.toPath());
+            LOGGER.info("Loaded {} known players", knownPlayers.size());
         } catch (IOException e) {
-            LOGGER.error("Failed to load protection data", e);
+            LOGGER.error("Failed to load known players", e);
+        }
+        return true;
+    }
+
+    // older versions kept known players as a uuid string array in the protection json
+    private void importLegacyKnownPlayers(JsonElement element) {
+        if (element == null || !element.isJsonArray()) {
+            return;
         }
+
+        // no last-seen info in the old format, start everyone's eviction clock now
+        long now = clock.wallMillis();
+        JsonArray array = element.getAsJsonArray();
+        for (JsonElement uuidElement : array) {
+            if (!uuidElement.isJsonPrimitive()) {
+                continue;
+            }
+            String uuidStr = uuidElement.getAsString();
+            try {
+                knownPlayers.touch(UUID.fromString(uuidStr), now);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Invalid UUID in known players: {}", uuidStr);
+            }
+        }
+
+        knownPlayersPersistence.markDirty();
+        LOGGER.info("Imported {} known players from {}", knownPlayers.size(), legacyFile.getName());
     }
 
     private static class PlayerProtectionData {
@@ -278,16 +812,35 @@ public class PlayerProtectionManager {
         int totalKicks = 0;
         long lastKickTime = 0;
         boolean isNewPlayer = false;
-        List<KickRecord> kickHistory = new ArrayList<>();
+        KickHistory kickHistory = new KickHistory(KICK_HISTORY_SIZE);
+        // expiry index bucket this record is filed under, not saved
+        transient long expiryBucket = Long.MIN_VALUE;
+        // snapshot that last wrote this record out, UNSAVED if it changed since
+        transient long savedBy = UNSAVED;
+
+        PlayerProtectionData copy() {
+            PlayerProtectionData copy = new PlayerProtectionData();
+            copy.protectionUntil = protectionUntil;
+            copy.totalKicks = totalKicks;
+            copy.lastKickTime = lastKickTime;
+            copy.isNewPlayer = isNewPlayer;
+            copy.kickHistory = kickHistory.copy();
+            return copy;
+        }
     }
 
-    private static class KickRecord {
-        final long timestamp;
-        final String reason;
+    private record Snapshot(List<Map.Entry<UUID, PlayerProtectionData>> records, long now, long cleanupMillis) {
+    }
 
-        KickRecord(long timestamp, String reason) {
-            this.timestamp = timestamp;
-            this.reason = reason;
-        }
+    private record Fetched(UUID playerUUID, PlayerProtectionData data) {
+    }
+
+    /**
+     * What the expiry sweep did on its last tick with anything due, and how much is still due.
+     * The evict fields are the same for the known players walk, which runs every tick.
+     */
+    public record ExpiryStats(int lastChecked, int lastExpired, long lastSweepNanos, long worstSweepNanos,
+                              long expiredTotal, int backlog, int indexed,
+                              long lastEvictNanos, long worstEvictNanos, long evictedTotal, int knownPlayers) {
     }
 }
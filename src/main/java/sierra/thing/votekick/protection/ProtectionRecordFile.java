@@ -0,0 +1,279 @@
+package sierra.thing.votekick.protection;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * votekick_protection.dat: every player's protection record, read one player at a time.
+ *
+ * Layout: magic, version, count, then a sorted index of fixed 44 byte entries (UUID halves,
+ * record offset and length, and the protection end and last kick that expiry is decided on),
+ * then the records themselves in the same order. Finding a player is a binary search over the
+ * index with positional reads; nothing else is loaded. Records are opaque bytes here.
+ *
+ * A write streams the previous file into the new one, swapping in the records that changed and
+ * dropping whatever expired, so neither side ever holds the whole file. Runs off the server thread.
+ */
+final class ProtectionRecordFile {
+    private static final int MAGIC = 0x564B5052; // "VKPR"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 9;
+    private static final int ENTRY_BYTES = 44;
+    private static final int KEY_BYTES = 16;
+
+    private static final Comparator<Entry> ORDER = (a, b) -> compare(a.most(), a.least(), b.most(), b.least());
+
+    private ProtectionRecordFile() {
+    }
+
+    /**
+     * Checks the header.
+     *
+     * @return how many records the file holds
+     */
+    static int count(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readHeader(channel);
+        }
+    }
+
+    /**
+     * @return the player's record, or null if the file has none
+     */
+    static byte[] read(Path file, long most, long least) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int count = readHeader(channel);
+            ByteBuffer key = ByteBuffer.allocate(KEY_BYTES);
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long position = HEADER_BYTES + (long) mid * ENTRY_BYTES;
+                readFully(channel, key.clear(), position);
+                int cmp = compare(key.getLong(0), key.getLong(8), most, least);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    ByteBuffer location = ByteBuffer.allocate(12);
+                    readFully(channel, location, position + KEY_BYTES);
+                    long offset = location.getLong(0);
+                    int length = location.getInt(8);
+                    ByteBuffer record = ByteBuffer.allocate(length);
+                    readFully(channel, record, offset);
+                    return record.array();
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Writes {@code previous} (if it exists) merged with {@code changed}: a changed record
+     * replaces the old one, and anything {@code expired} says is done is left out.
+     */
+    static void write(Path previous, Entry[] changed, ExpiryRule expired, OutputStream out) throws IOException {
+        Entry[] sorted = changed.clone();
+        Arrays.sort(sorted, ORDER);
+        boolean hasPrevious = Files.exists(previous);
+
+        // one pass to size the index, one for the index, one for the records
+        int[] count = {0};
+        merge(previous, hasPrevious, sorted, expired, new MergeVisitor() {
+            @Override
+            public void changed(Entry entry) {
+                count[0]++;
+            }
+
+            @Override
+            public void kept(IndexReader old) {
+                count[0]++;
+            }
+        });
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(FORMAT_VERSION);
+        data.writeInt(count[0]);
+
+        long[] offset = {HEADER_BYTES + (long) count[0] * ENTRY_BYTES};
+        merge(previous, hasPrevious, sorted, expired, new MergeVisitor() {
+            @Override
+            public void changed(Entry entry) throws IOException {
+                writeEntry(data, entry.most(), entry.least(), offset[0], entry.record().length,
+                        entry.protectionUntil(), entry.lastKick());
+                offset[0] += entry.record().length;
+            }
+
+            @Override
+            public void kept(IndexReader old) throws IOException {
+                writeEntry(data, old.most, old.least, offset[0], old.length, old.protectionUntil, old.lastKick);
+                offset[0] += old.length;
+            }
+        });
+
+        try (FileChannel records = hasPrevious ? FileChannel.open(previous, StandardOpenOption.READ) : null) {
+            merge(previous, hasPrevious, sorted, expired, new MergeVisitor() {
+                @Override
+                public void changed(Entry entry) throws IOException {
+                    data.write(entry.record());
+                }
+
+                @Override
+                public void kept(IndexReader old) throws IOException {
+                    ByteBuffer record = ByteBuffer.allocate(old.length);
+                    readFully(records, record, old.offset);
+                    data.write(record.array());
+                }
+            });
+        }
+        data.flush();
+    }
+
+    // walks the old index and the changed entries together in key order, visiting what survives
+    private static void merge(Path previous, boolean hasPrevious, Entry[] changed, ExpiryRule expired,
+                              MergeVisitor visitor) throws IOException {
+        try (IndexReader old = hasPrevious ? new IndexReader(previous) : null) {
+            boolean haveOld = old != null && old.next();
+            int next = 0;
+            while (haveOld || next < changed.length) {
+                int cmp;
+                if (!haveOld) {
+                    cmp = 1;
+                } else if (next == changed.length) {
+                    cmp = -1;
+                } else {
+                    cmp = compare(old.most, old.least, changed[next].most(), changed[next].least());
+                }
+
+                if (cmp < 0) {
+                    if (!expired.test(old.protectionUntil, old.lastKick)) {
+                        visitor.kept(old);
+                    }
+                    haveOld = old.next();
+                } else {
+                    Entry entry = changed[next++];
+                    if (!expired.test(entry.protectionUntil(), entry.lastKick())) {
+                        visitor.changed(entry);
+                    }
+                    if (cmp == 0) {
+                        haveOld = old.next();
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeEntry(DataOutputStream data, long most, long least, long offset, int length,
+                                   long protectionUntil, long lastKick) throws IOException {
+        data.writeLong(most);
+        data.writeLong(least);
+        data.writeLong(offset);
+        data.writeInt(length);
+        data.writeLong(protectionUntil);
+        data.writeLong(lastKick);
+    }
+
+    private static int readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, 0);
+        if (header.getInt(0) != MAGIC || header.get(4) != FORMAT_VERSION) {
+            throw new IOException("protection data file has an unknown header");
+        }
+        int count = header.getInt(5);
+        if (count < 0 || HEADER_BYTES + (long) count * ENTRY_BYTES > channel.size()) {
+            throw new IOException("protection data file is truncated");
+        }
+        return count;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("protection data file is truncated");
+            }
+        }
+    }
+
+    private static int compare(long mostA, long leastA, long mostB, long leastB) {
+        int cmp = Long.compare(mostA, mostB);
+        return cmp != 0 ? cmp : Long.compare(leastA, leastB);
+    }
+
+    /**
+     * A record to write, with the two times its expiry is decided on. {@code lastKick} is 0 for
+     * players never kicked.
+     */
+    record Entry(long most, long least, long protectionUntil, long lastKick, byte[] record) {
+    }
+
+    @FunctionalInterface
+    interface ExpiryRule {
+        boolean test(long protectionUntil, long lastKick);
+    }
+
+    private interface MergeVisitor {
+        void changed(Entry entry) throws IOException;
+
+        void kept(IndexReader old) throws IOException;
+    }
+
+    // streams the index of an existing file
+    private static final class IndexReader implements Closeable {
+        private final DataInputStream in;
+        private int remaining;
+
+        long most;
+        long least;
+        long offset;
+        int length;
+        long protectionUntil;
+        long lastKick;
+
+        IndexReader(Path file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+            try {
+                if (in.readInt() != MAGIC || in.readUnsignedByte() != FORMAT_VERSION) {
+                    throw new IOException("protection data file has an unknown header");
+                }
+                this.remaining = in.readInt();
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        boolean next() throws IOException {
+            if (remaining <= 0) {
+                return false;
+            }
+            remaining--;
+            most = in.readLong();
+            least = in.readLong();
+            offset = in.readLong();
+            length = in.readInt();
+            protectionUntil = in.readLong();
+            lastKick = in.readLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package sierra.thing.votekick.ratelimit;
+
+/**
+ * A token bucket: holds up to {@code burst} tokens and gets {@code perMinute} back every minute.
+ * A rate of 0 turns the limit off.
+ */
+public record RateLimit(int burst, int perMinute) {
+    public boolean isUnlimited() {
+        return perMinute <= 0;
+    }
+
+    /**
+     * Time for one token to come back, in microseconds.
+     */
+    long intervalMicros() {
+        return 60_000_000L / perMinute;
+    }
+}
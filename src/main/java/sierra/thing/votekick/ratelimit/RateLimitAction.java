@@ -0,0 +1,33 @@
+package sierra.thing.votekick.ratelimit;
+
+/**
+ * Things a player can do that cost the server something, each with its own token bucket.
+ */
+public enum RateLimitAction {
+    /** panel votes and /vote yes|no */
+    CAST_VOTE("cast_vote", 4, 240),
+    /** /votekick and /vk */
+    START_VOTE("start_vote", 2, 6),
+    /** /vote status, help pages, /vote announcements */
+    QUERY("query", 5, 60),
+    /** /votekick-admin history, including export */
+    HISTORY("history", 3, 12);
+
+    private final String configName;
+    private final int defaultBurst;
+    private final int defaultPerMinute;
+
+    RateLimitAction(String configName, int defaultBurst, int defaultPerMinute) {
+        this.configName = configName;
+        this.defaultBurst = defaultBurst;
+        this.defaultPerMinute = defaultPerMinute;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    public RateLimit getDefaultLimit() {
+        return new RateLimit(defaultBurst, defaultPerMinute);
+    }
+}
@@ -0,0 +1,179 @@
+package sierra.thing.votekick.ratelimit;
+
+import net.minecraft.server.level.ServerPlayer;
+import sierra.thing.votekick.VoteKickMod;
+import sierra.thing.votekick.config.VoteKickConfig;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets per player and {@link RateLimitAction}, plus one global bucket that every
+ * allowed request also draws from, so a crowd can't flood the server either.
+ *
+ * Each bucket is a single long: the time it will be full again (GCRA). Taking a token pushes
+ * that time one interval out, and the request is refused if it would land more than
+ * {@code burst} intervals ahead. That's one CAS per bucket, safe from the network threads
+ * without locks. A bucket whose time has passed is exactly as full as a new one, so
+ * {@link #tick()} drops idle players a few at a time without losing anything.
+ */
+public final class VoteKickRateLimiter {
+    // players checked for eviction per tick
+    private static final int SWEEP_PER_TICK = 64;
+    private static final RateLimitAction[] ACTIONS = RateLimitAction.values();
+
+    private static final Map<UUID, AtomicLongArray> players = new ConcurrentHashMap<>();
+    private static final AtomicLongArray global = newBuckets(1);
+
+    private static final LongAdder[] allowed = newCounters();
+    private static final LongAdder[] rejectedByPlayer = newCounters();
+    private static final LongAdder[] rejectedByGlobal = newCounters();
+    private static final LongAdder evicted = new LongAdder();
+
+    // server thread only
+    private static Iterator<Map.Entry<UUID, AtomicLongArray>> sweep;
+
+    private VoteKickRateLimiter() {
+    }
+
+    public static boolean allow(ServerPlayer player, RateLimitAction action) {
+        return player != null && tryAcquire(player.getUUID(), action) == 0;
+    }
+
+    /**
+     * Takes a token for this player and action if there is one. Any thread.
+     *
+     * @return 0 if allowed, otherwise about how many milliseconds until it would be
+     */
+    public static long tryAcquire(UUID playerUUID, RateLimitAction action) {
+        VoteKickConfig config = VoteKickMod.getConfig();
+        int index = action.ordinal();
+        if (!config.isRateLimitsEnabled()) {
+            allowed[index].increment();
+            return 0;
+        }
+
+        long now = VoteKickMod.getClock().millis() * 1000L;
+
+        RateLimit limit = config.getRateLimit(action);
+        AtomicLongArray buckets = null;
+        if (!limit.isUnlimited()) {
+            buckets = players.computeIfAbsent(playerUUID, id -> newBuckets(ACTIONS.length));
+            long wait = take(buckets, index, limit, now);
+            if (wait > 0) {
+                rejectedByPlayer[index].increment();
+                return wait;
+            }
+        }
+
+        RateLimit globalLimit = config.getGlobalRateLimit();
+        if (!globalLimit.isUnlimited()) {
+            long wait = take(global, 0, globalLimit, now);
+            if (wait > 0) {
+                // not their fault, give the token back
+                if (buckets != null) {
+                    buckets.addAndGet(index, -limit.intervalMicros());
+                }
+                rejectedByGlobal[index].increment();
+                return wait;
+            }
+        }
+
+        allowed[index].increment();
+        return 0;
+    }
+
+    /**
+     * Forgets a few players whose buckets are all full again. Called once per server tick.
+     */
+    public static void tick() {
+        if (players.isEmpty()) {
+            return;
+        }
+
+        long now = VoteKickMod.getClock().millis() * 1000L;
+        if (sweep == null || !sweep.hasNext()) {
+            sweep = players.entrySet().iterator();
+        }
+        for (int i = 0; i < SWEEP_PER_TICK && sweep.hasNext(); i++) {
+            Map.Entry<UUID, AtomicLongArray> entry = sweep.next();
+            if (isIdle(entry.getValue(), now) && players.remove(entry.getKey(), entry.getValue())) {
+                evicted.increment();
+            }
+        }
+    }
+
+    public static void clear() {
+        players.clear();
+        sweep = null;
+        for (int i = 0; i < global.length(); i++) {
+            global.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    public static Stats stats(RateLimitAction action) {
+        int index = action.ordinal();
+        return new Stats(allowed[index].sum(), rejectedByPlayer[index].sum(), rejectedByGlobal[index].sum());
+    }
+
+    public static int trackedPlayers() {
+        return players.size();
+    }
+
+    public static long evictedPlayers() {
+        return evicted.sum();
+    }
+
+    // 0 on success, otherwise milliseconds until a token is back
+    private static long take(AtomicLongArray buckets, int index, RateLimit limit, long now) {
+        long interval = limit.intervalMicros();
+        long capacity = interval * Math.max(1, limit.burst());
+        while (true) {
+            long full = buckets.get(index);
+            long next = Math.max(full, now) + interval;
+            long over = next - now - capacity;
+            if (over > 0) {
+                return over / 1000L + 1;
+            }
+            if (buckets.compareAndSet(index, full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private static boolean isIdle(AtomicLongArray buckets, long now) {
+        for (int i = 0; i < buckets.length(); i++) {
+            if (buckets.get(i) > now) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static AtomicLongArray newBuckets(int count) {
+        AtomicLongArray buckets = new AtomicLongArray(count);
+        for (int i = 0; i < count; i++) {
+            // monotonic time can be negative, so "full since forever" can't be 0
+            buckets.set(i, Long.MIN_VALUE);
+        }
+        return buckets;
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[ACTIONS.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    public record Stats(long allowed, long rejectedByPlayer, long rejectedByGlobal) {
+        public long rejected() {
+            return rejectedByPlayer + rejectedByGlobal;
+        }
+    }
+}
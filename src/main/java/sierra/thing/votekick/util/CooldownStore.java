@@ -0,0 +1,327 @@
+package sierra.thing.votekick.util;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Cooldown end times keyed on a pair of UUIDs, e.g. (initiator, target). Single-player cooldowns
+ * pass null as the second UUID.
+ *
+ * Keys are stored as their four raw longs in an open-addressing table, so lookups read a few
+ * arrays and allocate nothing. Expiry is a hashed timing wheel of {@link #GRANULE_MS} buckets:
+ * {@link #advance} sweeps the buckets that came due since it last ran and drops what ran out.
+ * Lookups still compare against the time they're given, so an entry the wheel hasn't reached
+ * yet is never reported as active. Not thread-safe.
+ */
+public final class CooldownStore {
+    // one tick
+    public static final long GRANULE_MS = 50;
+    // ~51 seconds per lap; longer cooldowns just get looked at once per lap until they run out
+    private static final int WHEEL_SIZE = 1024;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    // entries live in a pool and never move, so the wheel can link them by index
+    private long[] aMost;
+    private long[] aLeast;
+    private long[] bMost;
+    private long[] bLeast;
+    private long[] expiresAt;
+    private int[] hashes;
+    private int[] wheelNext;
+    private int[] wheelPrev;
+    private int freeHead = NONE;
+    private int used;
+    private int size;
+
+    // open-addressing index into the pool, entry + 1 (0 = empty)
+    private int[] slots;
+    private int resizeAt;
+
+    private final int[] wheel = new int[WHEEL_SIZE];
+    private long cursor = Long.MIN_VALUE;
+
+    public CooldownStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CooldownStore(int expectedSize) {
+        allocatePool(Math.max(expectedSize, 1));
+        allocateSlots(UuidLongSet.tableSizeFor(Math.max(expectedSize, 1)));
+        Arrays.fill(wheel, NONE);
+    }
+
+    /**
+     * Sets (or replaces) the cooldown for this key.
+     */
+    public void put(UUID a, UUID b, long expiresAtMillis) {
+        put(a.getMostSignificantBits(), a.getLeastSignificantBits(),
+                b == null ? 0 : b.getMostSignificantBits(), b == null ? 0 : b.getLeastSignificantBits(),
+                expiresAtMillis);
+    }
+
+    /**
+     * Same as {@link #put(UUID, UUID, long)} with the key's raw bits, e.g. when loading.
+     * A missing second UUID is (0, 0).
+     */
+    public void put(long a0, long a1, long b0, long b1, long expiresAtMillis) {
+        int hash = hash(a0, a1, b0, b1);
+
+        int slot = findSlot(hash, a0, a1, b0, b1);
+        if (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            unlink(entry);
+            expiresAt[entry] = expiresAtMillis;
+            link(entry);
+            return;
+        }
+
+        int entry = allocateEntry();
+        aMost[entry] = a0;
+        aLeast[entry] = a1;
+        bMost[entry] = b0;
+        bLeast[entry] = b1;
+        hashes[entry] = hash;
+        expiresAt[entry] = expiresAtMillis;
+        link(entry);
+
+        slots[slot] = entry + 1;
+        if (++size >= resizeAt) {
+            rehash(slots.length << 1);
+        }
+    }
+
+    /**
+     * @return milliseconds left at {@code nowMillis}, 0 if there's no cooldown or it ran out
+     */
+    public long remaining(UUID a, UUID b, long nowMillis) {
+        int entry = find(a, b);
+        if (entry == NONE) {
+            return 0;
+        }
+        return Math.max(0, expiresAt[entry] - nowMillis);
+    }
+
+    public boolean isActive(UUID a, UUID b, long nowMillis) {
+        return remaining(a, b, nowMillis) > 0;
+    }
+
+    public boolean remove(UUID a, UUID b) {
+        int entry = find(a, b);
+        if (entry == NONE) {
+            return false;
+        }
+        removeEntry(entry);
+        return true;
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis} and drops every entry that ran out on the way.
+     * Call once per tick; a long gap just sweeps the whole wheel once.
+     *
+     * @return how many entries were dropped
+     */
+    public int advance(long nowMillis) {
+        long target = Math.floorDiv(nowMillis, GRANULE_MS);
+        if (cursor == Long.MIN_VALUE) {
+            cursor = target - 1;
+        }
+        if (target <= cursor) {
+            return 0;
+        }
+
+        int buckets = (int) Math.min(target - cursor, WHEEL_SIZE);
+        int dropped = 0;
+        for (int i = 1; i <= buckets; i++) {
+            int bucket = (int) ((cursor + i) & WHEEL_MASK);
+            int entry = wheel[bucket];
+            while (entry != NONE) {
+                int next = wheelNext[entry];
+                // entries a lap or more out share the bucket, leave those
+                if (expiresAt[entry] <= nowMillis) {
+                    removeEntry(entry);
+                    dropped++;
+                }
+                entry = next;
+            }
+        }
+        cursor = target;
+        return dropped;
+    }
+
+    /**
+     * Visits every entry still held, including ones that ran out but weren't swept yet.
+     */
+    public void forEach(EntryVisitor visitor) {
+        for (int value : slots) {
+            if (value == 0) {
+                continue;
+            }
+            int entry = value - 1;
+            visitor.accept(aMost[entry], aLeast[entry], bMost[entry], bLeast[entry], expiresAt[entry]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0);
+        Arrays.fill(wheel, NONE);
+        freeHead = NONE;
+        used = 0;
+        size = 0;
+    }
+
+    @FunctionalInterface
+    public interface EntryVisitor {
+        void accept(long aMost, long aLeast, long bMost, long bLeast, long expiresAtMillis);
+    }
+
+    private int find(UUID a, UUID b) {
+        if (a == null) {
+            return NONE;
+        }
+        long a0 = a.getMostSignificantBits();
+        long a1 = a.getLeastSignificantBits();
+        long b0 = b == null ? 0 : b.getMostSignificantBits();
+        long b1 = b == null ? 0 : b.getLeastSignificantBits();
+
+        int slot = findSlot(hash(a0, a1, b0, b1), a0, a1, b0, b1);
+        return slots[slot] - 1;
+    }
+
+    // the key's slot, or the empty slot it would go in
+    private int findSlot(int hash, long a0, long a1, long b0, long b1) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            if (aMost[entry] == a0 && aLeast[entry] == a1 && bMost[entry] == b0 && bLeast[entry] == b1) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void removeEntry(int entry) {
+        unlink(entry);
+
+        int mask = slots.length - 1;
+        int hole = hashes[entry] & mask;
+        while (slots[hole] != entry + 1) {
+            hole = (hole + 1) & mask;
+        }
+
+        // backward-shift delete: pull later entries of the same probe run into the hole
+        int next = (hole + 1) & mask;
+        while (slots[next] != 0) {
+            int home = hashes[slots[next] - 1] & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[hole] = 0;
+        size--;
+
+        wheelNext[entry] = freeHead;
+        freeHead = entry;
+    }
+
+    private void link(int entry) {
+        int bucket = bucketOf(entry);
+        int head = wheel[bucket];
+        wheelPrev[entry] = NONE;
+        wheelNext[entry] = head;
+        if (head != NONE) {
+            wheelPrev[head] = entry;
+        }
+        wheel[bucket] = entry;
+    }
+
+    // the granule the entry runs out by, so the sweep only reaches it once it has
+    private int bucketOf(int entry) {
+        return (int) (Math.floorDiv(expiresAt[entry] + GRANULE_MS - 1, GRANULE_MS) & WHEEL_MASK);
+    }
+
+    private void unlink(int entry) {
+        int prev = wheelPrev[entry];
+        int next = wheelNext[entry];
+        if (prev != NONE) {
+            wheelNext[prev] = next;
+        } else {
+            wheel[bucketOf(entry)] = next;
+        }
+        if (next != NONE) {
+            wheelPrev[next] = prev;
+        }
+    }
+
+    private int allocateEntry() {
+        if (freeHead != NONE) {
+            int entry = freeHead;
+            freeHead = wheelNext[entry];
+            return entry;
+        }
+        if (used == expiresAt.length) {
+            growPool(used << 1);
+        }
+        return used++;
+    }
+
+    private static int hash(long a0, long a1, long b0, long b1) {
+        return UuidLongSet.mix(a0 ^ Long.rotateLeft(b0, 32), a1 ^ Long.rotateLeft(b1, 32));
+    }
+
+    private void allocatePool(int capacity) {
+        aMost = new long[capacity];
+        aLeast = new long[capacity];
+        bMost = new long[capacity];
+        bLeast = new long[capacity];
+        expiresAt = new long[capacity];
+        hashes = new int[capacity];
+        wheelNext = new int[capacity];
+        wheelPrev = new int[capacity];
+    }
+
+    private void growPool(int capacity) {
+        aMost = Arrays.copyOf(aMost, capacity);
+        aLeast = Arrays.copyOf(aLeast, capacity);
+        bMost = Arrays.copyOf(bMost, capacity);
+        bLeast = Arrays.copyOf(bLeast, capacity);
+        expiresAt = Arrays.copyOf(expiresAt, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        wheelNext = Arrays.copyOf(wheelNext, capacity);
+        wheelPrev = Arrays.copyOf(wheelPrev, capacity);
+    }
+
+    private void allocateSlots(int capacity) {
+        slots = new int[capacity];
+        resizeAt = (int) (capacity * 0.6f);
+    }
+
+    private void rehash(int capacity) {
+        int[] old = slots;
+        allocateSlots(capacity);
+        int mask = capacity - 1;
+        for (int value : old) {
+            if (value == 0) {
+                continue;
+            }
+            int slot = hashes[value - 1] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = value;
+        }
+    }
+}
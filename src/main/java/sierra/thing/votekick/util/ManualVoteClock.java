@@ -0,0 +1,49 @@
+package sierra.thing.votekick.util;
+
+/**
+ * A clock that only moves when told to, for benchmarks and tests.
+ *
+ * {@link #advanceTicks} runs the scheduler one tick at a time and moves both millisecond clocks
+ * by 50ms per tick, so scheduled work fires exactly as it would on a server keeping up.
+ * {@link #advanceMillis} simulates a lag spike: real time passes, ticks don't.
+ */
+public final class ManualVoteClock implements VoteClock {
+    private static final long NANOS_PER_TICK = 50_000_000L;
+
+    private final TickScheduler scheduler;
+    private long nanos;
+    private long wallMillis;
+
+    public ManualVoteClock(TickScheduler scheduler, long wallMillis) {
+        this.scheduler = scheduler;
+        this.wallMillis = wallMillis;
+    }
+
+    public void advanceTicks(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            nanos += NANOS_PER_TICK;
+            wallMillis += NANOS_PER_TICK / 1_000_000L;
+            scheduler.tick();
+        }
+    }
+
+    public void advanceMillis(long millis) {
+        nanos += millis * 1_000_000L;
+        wallMillis += millis;
+    }
+
+    @Override
+    public long ticks() {
+        return scheduler.currentTick();
+    }
+
+    @Override
+    public long nanos() {
+        return nanos;
+    }
+
+    @Override
+    public long wallMillis() {
+        return wallMillis;
+    }
+}
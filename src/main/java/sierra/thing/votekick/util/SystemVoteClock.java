@@ -0,0 +1,28 @@
+package sierra.thing.votekick.util;
+
+/**
+ * The real clock: ticks from the shared {@link TickScheduler}, {@link System#nanoTime()} and
+ * {@link System#currentTimeMillis()}.
+ */
+public final class SystemVoteClock implements VoteClock {
+    private final TickScheduler scheduler;
+
+    public SystemVoteClock(TickScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public long ticks() {
+        return scheduler.currentTick();
+    }
+
+    @Override
+    public long nanos() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public long wallMillis() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,170 @@
+package sierra.thing.votekick.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sierra.thing.votekick.VoteKickMod;
+
+import java.util.Arrays;
+
+/**
+ * Deferred tasks that run on the server thread, counted in ticks instead of wall time.
+ * Backed by a binary min-heap keyed on (due tick, insertion order), so tasks due on the
+ * same tick run in the order they were scheduled. Driven by {@link #tick()} once per server tick.
+ * Not thread-safe: schedule from the server thread only.
+ */
+public final class TickScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Task[] heap = new Task[DEFAULT_CAPACITY];
+    private int size;
+    private long currentTick;
+    private long nextSeq;
+
+    /**
+     * Runs {@code action} after {@code delayTicks} server ticks. A delay of 0 runs it on the next tick.
+     */
+    public Task schedule(int delayTicks, Runnable action) {
+        return schedule(delayTicks, action, false);
+    }
+
+    /**
+     * Like {@link #schedule}, but {@link #runEssential()} still runs it if the server stops first.
+     * For work whose effects have to outlive a restart.
+     */
+    public Task scheduleEssential(int delayTicks, Runnable action) {
+        return schedule(delayTicks, action, true);
+    }
+
+    private Task schedule(int delayTicks, Runnable action, boolean essential) {
+        Task task = new Task(currentTick + Math.max(1, delayTicks), nextSeq++, action, essential);
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = task;
+        siftUp(size++);
+        return task;
+    }
+
+    /**
+     * Advances one tick and runs everything that came due. Tasks scheduled while draining
+     * land at least one tick out, so this never loops on its own output.
+     */
+    public void tick() {
+        currentTick++;
+        while (size > 0 && heap[0].dueTick <= currentTick) {
+            Task task = poll();
+            if (task.cancelled) {
+                continue;
+            }
+            try {
+                task.action.run();
+            } catch (Exception e) {
+                LOGGER.error("Scheduled task failed", e);
+            }
+        }
+    }
+
+    /**
+     * Runs every essential task still waiting, in due order, and drops everything else. For
+     * shutdown, before whatever the tasks touch is saved.
+     */
+    public void runEssential() {
+        while (size > 0) {
+            Task task = poll();
+            if (task.cancelled || !task.essential) {
+                continue;
+            }
+            try {
+                task.action.run();
+            } catch (Exception e) {
+                LOGGER.error("Scheduled task failed", e);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    private Task poll() {
+        Task top = heap[0];
+        Task last = heap[--size];
+        heap[size] = null;
+        if (size > 0) {
+            heap[0] = last;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int index) {
+        Task task = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(task, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = task;
+    }
+
+    private void siftDown(int index) {
+        Task task = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && before(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!before(heap[child], task)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = task;
+    }
+
+    private static boolean before(Task a, Task b) {
+        return a.dueTick < b.dueTick || (a.dueTick == b.dueTick && a.seq < b.seq);
+    }
+
+    /**
+     * Handle for a scheduled task. Cancelled tasks stay in the heap until they come due and are skipped.
+     */
+    public static final class Task {
+        private final long dueTick;
+        private final long seq;
+        private final Runnable action;
+        private final boolean essential;
+        private boolean cancelled;
+
+        private Task(long dueTick, long seq, Runnable action, boolean essential) {
+            this.dueTick = dueTick;
+            this.seq = seq;
+            this.action = action;
+            this.essential = essential;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package sierra.thing.votekick.util;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open-addressing hash set of UUIDs stored as raw (most, least) significant bit pairs.
+ * No boxing and no per-entry objects, so membership checks are a couple of array reads.
+ * Not thread-safe.
+ */
+public final class UuidLongSet {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] most;
+    private long[] least;
+    private boolean[] used;
+    private int size;
+    private int resizeAt;
+
+    public UuidLongSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public UuidLongSet(int expectedSize) {
+        allocate(tableSizeFor(Math.max(expectedSize, 1)));
+    }
+
+    public boolean add(UUID uuid) {
+        return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public boolean add(long hi, long lo) {
+        int mask = used.length - 1;
+        int slot = mix(hi, lo) & mask;
+        while (used[slot]) {
+            if (most[slot] == hi && least[slot] == lo) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        used[slot] = true;
+        most[slot] = hi;
+        least[slot] = lo;
+        if (++size >= resizeAt) {
+            rehash(used.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(UUID uuid) {
+        return uuid != null && contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public boolean contains(long hi, long lo) {
+        int mask = used.length - 1;
+        int slot = mix(hi, lo) & mask;
+        while (used[slot]) {
+            if (most[slot] == hi && least[slot] == lo) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Spreads both halves of the UUID over the table index. Random (v4) UUIDs are
+     * already well distributed, but offline-mode UUIDs (v3) share a lot of bits.
+     */
+    public static int mix(long hi, long lo) {
+        long h = hi * 0x9E3779B97F4A7C15L ^ lo;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    public static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(expectedSize / LOAD_FACTOR);
+        int capacity = Integer.highestOneBit(Math.max(needed, 2) - 1) << 1;
+        return Math.max(capacity, 2);
+    }
+
+    private void allocate(int capacity) {
+        most = new long[capacity];
+        least = new long[capacity];
+        used = new boolean[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldMost = most;
+        long[] oldLeast = least;
+        boolean[] oldUsed = used;
+
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (!oldUsed[i]) {
+                continue;
+            }
+            int slot = mix(oldMost[i], oldLeast[i]) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            most[slot] = oldMost[i];
+            least[slot] = oldLeast[i];
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package sierra.thing.votekick.util;
+
+/**
+ * Every timing decision the mod makes goes through one of these, so nothing mixes tick time
+ * with wall time and benchmarks or tests can fast-forward instead of sleeping.
+ *
+ * Use {@link #ticks()} for anything that follows the game (vote timers), {@link #millis()} for
+ * real durations that only live in memory (cooldowns, rate limits, caches), and
+ * {@link #wallMillis()} only for timestamps that get saved and must survive a restart.
+ */
+public interface VoteClock {
+    /**
+     * Server ticks counted by the mod's scheduler.
+     */
+    long ticks();
+
+    /**
+     * Monotonic nanoseconds. Only differences mean anything; never goes back when the
+     * system clock is adjusted.
+     */
+    long nanos();
+
+    /**
+     * {@link #nanos()} in milliseconds.
+     */
+    default long millis() {
+        return nanos() / 1_000_000L;
+    }
+
+    /**
+     * Milliseconds since the epoch, for saved timestamps. Can jump.
+     */
+    long wallMillis();
+}
@@ -0,0 +1,167 @@
+package sierra.thing.votekick.vote;
+
+import net.minecraft.network.chat.Component;
+import sierra.thing.votekick.vote.port.MessageSink;
+import sierra.thing.votekick.vote.port.PlayerDirectory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The players one vote is about: who may vote on it and who sees its panel and chat messages.
+ *
+ * Built with one scan of the player list when the vote starts, then kept up to date one player
+ * at a time as people join, leave, respawn or change dimension, so sends just walk the member set.
+ * Only the target changing dimension rebuilds it from scratch. Radius membership is decided at
+ * those moments, not re-checked as players walk around.
+ * Server thread only.
+ */
+public final class VoteAudience {
+    private final VoteScope scope;
+    private final int radius;
+    private final double radiusSq;
+    private final UUID targetUUID;
+    private final UUID initiatorUUID;
+    private final PlayerDirectory directory;
+
+    private final Set<UUID> members = new LinkedHashSet<>();
+    private final Collection<UUID> membersView = Collections.unmodifiableCollection(members);
+    // where the target was last seen, for the scoped modes
+    private Object dimension;
+
+    public VoteAudience(VoteScope scope, int radius, UUID targetUUID, UUID initiatorUUID, PlayerDirectory directory) {
+        this.scope = scope;
+        this.radius = radius;
+        this.radiusSq = (double) radius * radius;
+        this.targetUUID = targetUUID;
+        this.initiatorUUID = initiatorUUID;
+        this.directory = directory;
+    }
+
+    /**
+     * Recomputes membership from everyone online.
+     *
+     * @param added   collects players who weren't members before, may be null
+     * @param removed collects players who no longer are, may be null
+     */
+    public void rebuild(List<UUID> added, List<UUID> removed) {
+        Object targetDimension = directory.dimensionOf(targetUUID);
+        if (targetDimension != null) {
+            dimension = targetDimension;
+        }
+
+        Set<UUID> next = new LinkedHashSet<>();
+        for (UUID player : directory.online()) {
+            if (accepts(player)) {
+                next.add(player);
+            }
+        }
+
+        if (removed != null) {
+            for (UUID member : members) {
+                if (!next.contains(member)) {
+                    removed.add(member);
+                }
+            }
+        }
+        if (added != null) {
+            for (UUID player : next) {
+                if (!members.contains(player)) {
+                    added.add(player);
+                }
+            }
+        }
+
+        members.clear();
+        members.addAll(next);
+    }
+
+    /**
+     * Re-checks one player, e.g. after they joined, respawned or changed dimension.
+     *
+     * @return 1 if they just became a member, -1 if they just stopped being one, 0 otherwise
+     */
+    public int update(UUID player) {
+        if (accepts(player)) {
+            return members.add(player) ? 1 : 0;
+        }
+        return members.remove(player) ? -1 : 0;
+    }
+
+    public void remove(UUID playerUUID) {
+        members.remove(playerUUID);
+    }
+
+    public boolean contains(UUID playerUUID) {
+        return playerUUID != null && members.contains(playerUUID);
+    }
+
+    public int size() {
+        return members.size();
+    }
+
+    /**
+     * Current members, in the order they were added. Read-only.
+     */
+    public Collection<UUID> players() {
+        return membersView;
+    }
+
+    public VoteScope getScope() {
+        return scope;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Sends a chat message to the members. Scoped messages still go to the server log,
+     * like a global broadcast would.
+     */
+    public void broadcast(MessageSink sink, Component message) {
+        if (scope == VoteScope.GLOBAL) {
+            sink.broadcast(message);
+            return;
+        }
+        sink.send(membersView, message);
+    }
+
+    /**
+     * Like {@link #broadcast(MessageSink, Component)}, skipping the given players.
+     */
+    public void broadcast(MessageSink sink, Component message, Set<UUID> excluded) {
+        if (excluded.isEmpty()) {
+            broadcast(sink, message);
+            return;
+        }
+
+        List<UUID> recipients = new ArrayList<>(members.size());
+        for (UUID member : members) {
+            if (!excluded.contains(member)) {
+                recipients.add(member);
+            }
+        }
+        sink.send(recipients, message);
+    }
+
+    // the target and initiator always take part, whatever the scope
+    private boolean accepts(UUID player) {
+        if (player.equals(targetUUID) || player.equals(initiatorUUID)) {
+            return true;
+        }
+
+        return switch (scope) {
+            case GLOBAL -> true;
+            case DIMENSION -> dimension != null && dimension.equals(directory.dimensionOf(player));
+            case RADIUS -> dimension != null
+                    && dimension.equals(directory.dimensionOf(player))
+                    && directory.distanceSq(player, targetUUID) <= radiusSq;
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package sierra.thing.votekick.vote;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sierra.thing.votekick.VoteKickMod;
+import sierra.thing.votekick.persistence.WriteBehindFile;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Players who opted out of the "X voted YES" chat lines (and their digests).
+ * Start messages, warnings and results still reach them.
+ *
+ * Stored as one UUID per line in votekick_quiet_players.txt. Server thread only.
+ */
+public class VoteChatPreferences {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
+    // toggles are rare, no need to batch much
+    private static final int SAVE_INTERVAL_TICKS = 100;
+
+    private final Set<UUID> quietPlayers = new HashSet<>();
+    private final Set<UUID> quietPlayersView = Collections.unmodifiableSet(quietPlayers);
+    private final File dataFile;
+    private final WriteBehindFile<List<UUID>> persistence;
+
+    public VoteChatPreferences() {
+        this(VoteKickMod.platform().getConfigDir().toFile());
+    }
+
+    public VoteChatPreferences(File configDir) {
+        this.dataFile = new File(configDir, "votekick_quiet_players.txt");
+        this.persistence = new WriteBehindFile<>("quiet-players", dataFile.toPath(), SAVE_INTERVAL_TICKS,
+                () -> new ArrayList<>(quietPlayers), VoteChatPreferences::write);
+    }
+
+    /**
+     * @return true if this changed anything
+     */
+    public boolean setVoteAnnouncements(UUID playerUUID, boolean enabled) {
+        boolean changed = enabled ? quietPlayers.remove(playerUUID) : quietPlayers.add(playerUUID);
+        if (changed) {
+            persistence.markDirty();
+        }
+        return changed;
+    }
+
+    public boolean wantsVoteAnnouncements(UUID playerUUID) {
+        return !quietPlayers.contains(playerUUID);
+    }
+
+    /**
+     * Everyone who opted out. Read-only.
+     */
+    public Set<UUID> quietPlayers() {
+        return quietPlayersView;
+    }
+
+    public void load() {
+        quietPlayers.clear();
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(dataFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    quietPlayers.add(UUID.fromString(line));
+                } catch (IllegalArgumentException e) {
+                    LOGGER.warn("Invalid UUID in quiet players: {}", line);
+                }
+            }
+            LOGGER.info("Loaded {} players with vote announcements off", quietPlayers.size());
+        } catch (IOException e) {
+            LOGGER.error("Failed to load quiet players", e);
+        }
+    }
+
+    public void tick() {
+        persistence.tick();
+    }
+
+    /**
+     * Writes pending changes and waits for them to land. Called on server stop.
+     */
+    public void save() {
+        persistence.flush();
+    }
+
+    private static void write(List<UUID> snapshot, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        for (UUID uuid : snapshot) {
+            writer.write(uuid.toString());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,194 @@
+package sierra.thing.votekick.vote;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sierra.thing.votekick.VoteKickMod;
+import sierra.thing.votekick.persistence.WriteBehindFile;
+import sierra.thing.votekick.util.CooldownStore;
+import sierra.thing.votekick.util.VoteClock;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Anti-spam cooldowns: per initiator after starting a vote, and per (initiator, target) pair.
+ *
+ * Kept in memory against the monotonic clock, and saved to votekick_cooldowns.bin so a restart
+ * doesn't hand everyone a fresh start. The file only holds cooldowns that were still running when
+ * it was written, with their end as wall time; loading converts them back and skips anything that
+ * ran out while the server was down. Nothing is written unless a cooldown was started.
+ * Server thread only.
+ */
+public class VoteCooldowns {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
+
+    private static final int MAGIC = 0x564B4344; // "VKCD"
+    private static final int FORMAT_VERSION = 1;
+    // per entry: two UUIDs as four longs, then the end time
+    private static final int STRIDE = 5;
+    // cooldowns start at most a few times a minute, no need to write more often than this
+    private static final int SAVE_INTERVAL_TICKS = 200;
+
+    private final CooldownStore initiators = new CooldownStore();
+    private final CooldownStore pairs = new CooldownStore();
+    private final File dataFile;
+    private final WriteBehindFile<Snapshot> persistence;
+
+    public VoteCooldowns() {
+        this(VoteKickMod.platform().getConfigDir().toFile());
+    }
+
+    public VoteCooldowns(File configDir) {
+        this.dataFile = new File(configDir, "votekick_cooldowns.bin");
+        this.persistence = new WriteBehindFile<>("cooldowns", dataFile.toPath(), SAVE_INTERVAL_TICKS,
+                this::snapshot, VoteCooldowns::write);
+    }
+
+    public void startInitiatorCooldown(UUID initiatorUUID, long durationMillis) {
+        initiators.put(initiatorUUID, null, now() + durationMillis);
+        persistence.markDirty();
+    }
+
+    public void startTargetCooldown(UUID initiatorUUID, UUID targetUUID, long durationMillis) {
+        pairs.put(initiatorUUID, targetUUID, now() + durationMillis);
+        persistence.markDirty();
+    }
+
+    /**
+     * @return milliseconds left, 0 if none
+     */
+    public long initiatorRemaining(UUID initiatorUUID) {
+        return initiators.remaining(initiatorUUID, null, now());
+    }
+
+    /**
+     * @return milliseconds left, 0 if none
+     */
+    public long targetRemaining(UUID initiatorUUID, UUID targetUUID) {
+        return pairs.remaining(initiatorUUID, targetUUID, now());
+    }
+
+    public int size() {
+        return initiators.size() + pairs.size();
+    }
+
+    /**
+     * Drops cooldowns that ran out and writes pending changes. Called once per server tick.
+     */
+    public void tick() {
+        long now = now();
+        initiators.advance(now);
+        pairs.advance(now);
+        persistence.tick();
+    }
+
+    public void load() {
+        initiators.clear();
+        pairs.clear();
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        VoteClock clock = VoteKickMod.getClock();
+        long now = clock.millis();
+        long wallNow = clock.wallMillis();
+        int loaded = 0;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dataFile.toPath())))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != FORMAT_VERSION) {
+                LOGGER.warn("Ignoring {}, unknown format", dataFile.getName());
+                return;
+            }
+            loaded += readSection(in, initiators, now, wallNow);
+            loaded += readSection(in, pairs, now, wallNow);
+            LOGGER.info("Loaded {} vote cooldowns", loaded);
+        } catch (EOFException e) {
+            LOGGER.warn("Vote cooldowns file is truncated, kept the {} read before the end", loaded);
+        } catch (IOException e) {
+            LOGGER.error("Failed to load vote cooldowns", e);
+        }
+    }
+
+    /**
+     * Writes pending changes and waits for them to land. Called on server stop.
+     */
+    public void save() {
+        persistence.flush();
+    }
+
+    // only what's still running, with end times turned into wall time so they mean something after a restart
+    private Snapshot snapshot() {
+        VoteClock clock = VoteKickMod.getClock();
+        long now = clock.millis();
+        long wallNow = clock.wallMillis();
+        return new Snapshot(liveEntries(initiators, now, wallNow), liveEntries(pairs, now, wallNow));
+    }
+
+    private static long[] liveEntries(CooldownStore store, long now, long wallNow) {
+        long[] out = new long[store.size() * STRIDE];
+        int[] count = {0};
+        store.forEach((aMost, aLeast, bMost, bLeast, expiresAt) -> {
+            if (expiresAt <= now) {
+                return;
+            }
+            int i = count[0]++ * STRIDE;
+            out[i] = aMost;
+            out[i + 1] = aLeast;
+            out[i + 2] = bMost;
+            out[i + 3] = bLeast;
+            out[i + 4] = wallNow + (expiresAt - now);
+        });
+        return Arrays.copyOf(out, count[0] * STRIDE);
+    }
+
+    private static int readSection(DataInputStream in, CooldownStore store, long now, long wallNow) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("negative cooldown count");
+        }
+        int loaded = 0;
+        for (int i = 0; i < count; i++) {
+            long aMost = in.readLong();
+            long aLeast = in.readLong();
+            long bMost = in.readLong();
+            long bLeast = in.readLong();
+            long remaining = in.readLong() - wallNow;
+            if (remaining > 0) {
+                store.put(aMost, aLeast, bMost, bLeast, now + remaining);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    private static void write(Snapshot snapshot, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(FORMAT_VERSION);
+        writeSection(data, snapshot.initiators);
+        writeSection(data, snapshot.pairs);
+        data.flush();
+    }
+
+    private static void writeSection(DataOutputStream data, long[] entries) throws IOException {
+        data.writeInt(entries.length / STRIDE);
+        for (long value : entries) {
+            data.writeLong(value);
+        }
+    }
+
+    private static long now() {
+        return VoteKickMod.getClock().millis();
+    }
+
+    private record Snapshot(long[] initiators, long[] pairs) {
+    }
+}
@@ -0,0 +1,353 @@
+package sierra.thing.votekick.vote;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sierra.thing.votekick.VoteKickMod;
+import sierra.thing.votekick.util.TickScheduler;
+import sierra.thing.votekick.vote.port.PanelSink;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+/**
+ * Runs every active vote, up to a configurable number at once, one per target.
+ *
+ * Sessions aren't polled. Each one books a wakeup on the {@link TickScheduler} heap for its next
+ * deadline (first panel, time announcement, timer resync, end of the grace period, end of the vote),
+ * and a vote being cast marks it due for the next tick. Ticks where no session has anything due
+ * cost one empty-set check, no matter how many votes are running.
+ * Server thread only.
+ */
+public final class VoteEngine {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
+
+    private final TickScheduler scheduler;
+    private final IntSupplier maxConcurrent;
+
+    // insertion order = start order, so "the oldest vote" is the first entry
+    private final Map<UUID, VoteSession> byTarget = new LinkedHashMap<>();
+    private final Map<UUID, VoteSession> byTargetView = Collections.unmodifiableMap(byTarget);
+    private final Map<Integer, VoteSession> byId = new HashMap<>();
+    // sessions with work on the next engine tick, in the order they came due
+    private final Set<VoteSession> due = new LinkedHashSet<>();
+    private final List<VoteSession> draining = new ArrayList<>();
+    // players whose client shows one panel at a time -> the vote it's showing
+    private final Map<UUID, VoteSession> singlePanels = new HashMap<>();
+
+    public VoteEngine(TickScheduler scheduler, IntSupplier maxConcurrent) {
+        this.scheduler = scheduler;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * Registers a new session. Its panels go out on the next tick.
+     *
+     * @return false if the limit is reached or the target already has a vote running
+     */
+    public boolean start(VoteSession session) {
+        if (isFull() || byTarget.containsKey(session.getTargetUUID())) {
+            return false;
+        }
+
+        session.engine = this;
+        byTarget.put(session.getTargetUUID(), session);
+        byId.put(session.getSessionId(), session);
+        wakeAt(session, scheduler.currentTick() + 1);
+        return true;
+    }
+
+    /**
+     * Something changed outside the session's own deadlines (a vote came in), look at it next tick.
+     */
+    public void markDirty(VoteSession session) {
+        if (isActive(session)) {
+            due.add(session);
+        }
+    }
+
+    /**
+     * Drops a session without touching its clients. Callers end it themselves, e.g. through
+     * {@link VoteSession#endVote}.
+     */
+    public void remove(VoteSession session) {
+        if (session == null) {
+            return;
+        }
+        byTarget.remove(session.getTargetUUID(), session);
+        byId.remove(session.getSessionId(), session);
+        due.remove(session);
+        cancelWakeup(session);
+        singlePanels.values().removeIf(shown -> shown == session);
+    }
+
+    /**
+     * Services every session that has work this tick. Runs after {@link TickScheduler#tick()},
+     * which is what moves sessions with a deadline on this tick into the due set.
+     */
+    public void tick() {
+        if (due.isEmpty()) {
+            return;
+        }
+
+        // ending a session removes it from the maps, so work off a copy
+        draining.addAll(due);
+        due.clear();
+        try {
+            for (VoteSession session : draining) {
+                if (!isActive(session)) {
+                    continue;
+                }
+                try {
+                    service(session);
+                } catch (Exception e) {
+                    LOGGER.error("Vote session {} failed, dropping it", session.getSessionId(), e);
+                    remove(session);
+                }
+            }
+        } finally {
+            draining.clear();
+        }
+    }
+
+    /**
+     * Keeps every session's audience current as players come and go, so sends never have to
+     * filter the whole player list.
+     */
+    public void onPlayerJoin(UUID playerUUID) {
+        for (VoteSession session : byTarget.values()) {
+            session.onPlayerJoin(playerUUID);
+        }
+    }
+
+    public void onPlayerLeave(UUID playerUUID) {
+        singlePanels.remove(playerUUID);
+        for (VoteSession session : byTarget.values()) {
+            session.onPlayerLeave(playerUUID);
+        }
+    }
+
+    /**
+     * The vote on a one-panel client's panel, which is where its votes without a session id go.
+     *
+     * @return null if it isn't showing one
+     */
+    public VoteSession shownOnSinglePanel(UUID playerUUID) {
+        VoteSession session = singlePanels.get(playerUUID);
+        return isActive(session) ? session : null;
+    }
+
+    /**
+     * Forgets which vote a client was shown on its single panel, for when it switches to a format
+     * that can tell votes apart.
+     *
+     * @return true if it was showing one
+     */
+    public boolean releaseSinglePanel(UUID playerUUID) {
+        return singlePanels.remove(playerUUID) != null;
+    }
+
+    /**
+     * Shows the player every running vote they're part of, oldest first.
+     */
+    public void showPanels(UUID playerUUID) {
+        for (VoteSession session : byTarget.values()) {
+            session.showPanelTo(playerUUID);
+        }
+    }
+
+    /**
+     * After a dimension change or respawn.
+     */
+    public void onPlayerMoved(UUID playerUUID) {
+        for (VoteSession session : byTarget.values()) {
+            session.onPlayerMoved(playerUUID);
+        }
+    }
+
+    public void clear() {
+        for (VoteSession session : byId.values()) {
+            cancelWakeup(session);
+        }
+        byTarget.clear();
+        byId.clear();
+        due.clear();
+        singlePanels.clear();
+    }
+
+    public VoteSession get(UUID targetUUID) {
+        return targetUUID == null ? null : byTarget.get(targetUUID);
+    }
+
+    public VoteSession get(int sessionId) {
+        return byId.get(sessionId);
+    }
+
+    /**
+     * Active sessions by target, oldest first. Read-only.
+     */
+    public Map<UUID, VoteSession> byTarget() {
+        return byTargetView;
+    }
+
+    public Collection<VoteSession> sessions() {
+        return byTargetView.values();
+    }
+
+    public int size() {
+        return byTarget.size();
+    }
+
+    public boolean isEmpty() {
+        return byTarget.isEmpty();
+    }
+
+    public boolean isFull() {
+        return byTarget.size() >= maxConcurrent.getAsInt();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent.getAsInt();
+    }
+
+    /**
+     * Who gets a session's show. A one-panel client takes the first vote shown to it and nothing
+     * else until that one goes away; with votes starting oldest first, that's the oldest it's in.
+     */
+    List<UUID> showTo(VoteSession session, PanelSink panels, Iterable<UUID> players) {
+        List<UUID> recipients = new ArrayList<>();
+        for (UUID player : players) {
+            if (panels.showsOnePanel(player)) {
+                VoteSession shown = singlePanels.get(player);
+                if (shown != null && shown != session && isActive(shown)) {
+                    continue;
+                }
+                singlePanels.put(player, session);
+            }
+            recipients.add(player);
+        }
+        return recipients;
+    }
+
+    /**
+     * Who gets a session's update: everyone but one-panel clients showing another vote.
+     * Filtered while the sink walks it.
+     */
+    Iterable<UUID> updateTo(VoteSession session, PanelSink panels, Iterable<UUID> players) {
+        return () -> new Iterator<>() {
+            private final Iterator<UUID> all = players.iterator();
+            private UUID next = advance();
+
+            private UUID advance() {
+                while (all.hasNext()) {
+                    UUID player = all.next();
+                    if (!panels.showsOnePanel(player) || singlePanels.get(player) == session) {
+                        return player;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public UUID next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                UUID player = next;
+                next = advance();
+                return player;
+            }
+        };
+    }
+
+    /**
+     * Who gets a session's hide. One-panel clients only hear about the vote they're showing, and
+     * are added to {@code released} to be shown the next one (see {@link #handOver}).
+     */
+    List<UUID> hideFrom(VoteSession session, PanelSink panels, Iterable<UUID> players, List<UUID> released) {
+        List<UUID> recipients = new ArrayList<>();
+        for (UUID player : players) {
+            if (panels.showsOnePanel(player)) {
+                if (singlePanels.get(player) != session) {
+                    continue;
+                }
+                singlePanels.remove(player);
+                released.add(player);
+            }
+            recipients.add(player);
+        }
+        return recipients;
+    }
+
+    /**
+     * Puts the oldest other vote each released player is part of on their panel.
+     */
+    void handOver(VoteSession from, List<UUID> released) {
+        for (UUID player : released) {
+            for (VoteSession session : byTarget.values()) {
+                if (session != from && session.showPanelTo(player)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void service(VoteSession session) {
+        session.tick();
+
+        if (session.hasEnded()) {
+            session.processResults();
+            remove(session);
+            return;
+        }
+
+        session.updateVoteUI();
+        wakeAt(session, session.nextDeadline());
+    }
+
+    private boolean isActive(VoteSession session) {
+        return session != null && byId.get(session.getSessionId()) == session;
+    }
+
+    private void wakeAt(VoteSession session, long tick) {
+        TickScheduler.Task pending = session.wakeup;
+        if (pending != null && !pending.isCancelled()) {
+            // an early service (a vote came in) usually leaves the next deadline where it was
+            if (session.wakeupTick == tick) {
+                return;
+            }
+            pending.cancel();
+        }
+
+        int delay = (int) Math.max(1, tick - scheduler.currentTick());
+        session.wakeupTick = scheduler.currentTick() + delay;
+        session.wakeup = scheduler.schedule(delay, () -> {
+            session.wakeup = null;
+            if (isActive(session)) {
+                due.add(session);
+            }
+        });
+    }
+
+    private static void cancelWakeup(VoteSession session) {
+        if (session.wakeup != null) {
+            session.wakeup.cancel();
+            session.wakeup = null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package sierra.thing.votekick.vote;
+
+import java.util.Locale;
+
+/**
+ * Who takes part in a vote: who may vote, who counts towards the threshold, and who
+ * gets the panel and chat messages.
+ */
+public enum VoteScope {
+    /** everyone online */
+    GLOBAL("global"),
+    /** everyone in the target's dimension */
+    DIMENSION("dimension"),
+    /** everyone in the target's dimension within vote_scope_radius blocks of them */
+    RADIUS("radius");
+
+    private final String configName;
+
+    VoteScope(String configName) {
+        this.configName = configName;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * @return the scope, or null if the name isn't one
+     */
+    public static VoteScope fromConfigName(String name) {
+        if (name == null) {
+            return null;
+        }
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        for (VoteScope scope : values()) {
+            if (scope.configName.equals(normalized)) {
+                return scope;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Where the players have to be, for messages like "at least 3 players must be ...".
+     */
+    public String describeWhere(int radius) {
+        return switch (this) {
+            case GLOBAL -> "online";
+            case DIMENSION -> "in the same dimension";
+            case RADIUS -> "within " + radius + " blocks";
+        };
+    }
+}
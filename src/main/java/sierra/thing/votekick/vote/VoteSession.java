@@ -4,19 +4,19 @@ package sierra.thing.votekick.vote;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.Style;
 import net.minecraft.network.chat.TextColor;
-import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sierra.thing.votekick.VoteKickMod;
-import sierra.thing.votekick.network.VoteKickNetworking;
 import sierra.thing.votekick.protection.PlayerProtectionManager;
+import sierra.thing.votekick.util.TickScheduler;
+import sierra.thing.votekick.util.VoteClock;
+import sierra.thing.votekick.vote.port.VotePorts;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class VoteSession {
     private static final Logger LOGGER = LoggerFactory.getLogger(VoteKickMod.MOD_ID);
@@ -27,44 +27,86 @@ public class VoteSession {
     private static final TextColor COLOR_INFO = TextColor.fromRgb(0xFFFF55);
 
     private static final int TICKS_PER_SECOND = 20;
-    private static final int UI_UPDATE_INTERVAL = 10;
-    private static final int KICK_DELAY_MS = 2000;
+    // clients count down locally, this only corrects drift (and keeps older clients roughly in sync)
+    private static final int TIMER_RESYNC_INTERVAL = 5 * TICKS_PER_SECOND;
+
+    // client-visible state that changed since the last panel broadcast
+    private static final int DIRTY_COUNTS = 1;
+    private static final int DIRTY_TIMER = 1 << 1;
+    private static final int KICK_DELAY_TICKS = 2 * TICKS_PER_SECOND;
+    // early no votes can't fail a vote before everyone had a moment to see the panel
+    private static final int START_GRACE_TICKS = TICKS_PER_SECOND;
+    // chat warnings, largest first
+    private static final int[] ANNOUNCEMENT_SECONDS = {30, 15, 5};
+
+    // 0 is what legacy clients report, so real sessions start at 1
+    private static final AtomicInteger NEXT_SESSION_ID = new AtomicInteger(1);
+
+    private final int sessionId;
 
     private final UUID initiatorUUID;
     private final UUID targetUUID;
     private final String initiatorName;
     private final String targetName;
-    private final Map<UUID, Boolean> playerVotes = new HashMap<>();
+    private final VoteTally tally;
     private final int totalVotesNeeded;
     private final long startTime;
+    private final long startMillis;
+    private final long startTick;
+    private final long endTick;
     private final int voteDuration;
     private final int totalEligibleVoters;
+    private final VoteAudience audience;
+    private final VotePorts ports;
 
-    private int ticksRemaining;
-    private int uiUpdateTick = 0;
+    // counts as of the last tick; every reader goes through this instead of the live tally
+    private VoteTally.Snapshot tallySnapshot;
+    private int dirtyFlags = 0;
+    private VoteTally.Snapshot lastSentCounts;
     private boolean hasInitializedUI = false;
     private boolean hasPlayedEndSound = false;
     private boolean kickScheduled = false;
     private final String kickReason;
-
-    // cooldown tracking with vote fatigue for same targets
-    private static final Map<UUID, Long> playersOnCooldown = new ConcurrentHashMap<>();
-    private static final Map<String, Long> targetVoteCooldowns = new ConcurrentHashMap<>();
-
-    private final Set<Integer> announcementTimes = new HashSet<>(Arrays.asList(30, 15, 5));
+    // ticks remaining at which the next timer resync / chat announcement is due
+    private int nextResyncAt;
+    private int nextAnnouncement;
+    // votes waiting for the next chat digest; dueTick -1 when nothing is pending
+    private int digestYes;
+    private int digestNo;
+    private long digestStartTick;
+    private long digestDueTick = -1;
+    private String digestLastVoter;
+    private boolean digestLastInFavor;
+
+    // owned by VoteEngine: the engine running this session and the pending wakeup for its next deadline
+    VoteEngine engine;
+    TickScheduler.Task wakeup;
+    long wakeupTick;
 
     public VoteSession(UUID initiatorUUID, UUID targetUUID, String initiatorName,
                        String targetName, String kickReason, int playerCount,
-                       int voteDurationSeconds) {
+                       int voteDurationSeconds, VoteAudience audience, VotePorts ports) {
+        this.sessionId = NEXT_SESSION_ID.getAndUpdate(id -> id == Integer.MAX_VALUE ? 1 : id + 1);
         this.initiatorUUID = initiatorUUID;
         this.targetUUID = targetUUID;
         this.initiatorName = initiatorName;
         this.targetName = targetName;
+        this.audience = audience;
+        this.ports = ports;
         this.kickReason = kickReason != null && !kickReason.isEmpty() ?
                 kickReason : "No reason provided";
-        this.startTime = System.currentTimeMillis();
+        VoteClock clock = VoteKickMod.getClock();
+        this.startTime = clock.wallMillis();
+        this.startMillis = clock.millis();
         this.voteDuration = voteDurationSeconds;
-        this.ticksRemaining = voteDurationSeconds * TICKS_PER_SECOND;
+        this.startTick = currentTick();
+        this.endTick = startTick + (long) voteDurationSeconds * TICKS_PER_SECOND;
+        this.nextResyncAt = previousResyncPoint(voteDurationSeconds * TICKS_PER_SECOND);
+        // a warning for the full duration would just repeat the start message
+        while (nextAnnouncement < ANNOUNCEMENT_SECONDS.length
+                && ANNOUNCEMENT_SECONDS[nextAnnouncement] >= voteDurationSeconds) {
+            nextAnnouncement++;
+        }
 
         this.totalEligibleVoters = playerCount - 1;
 
@@ -79,91 +121,120 @@ public class VoteSession {
         this.totalVotesNeeded = Math.max(1, (int) Math.ceil(totalEligibleVoters * adjustedPercentage));
 
         // auto yes vote from initiator
-        playerVotes.put(initiatorUUID, true);
+        this.tally = new VoteTally(Math.max(playerCount, 1));
+        tally.record(initiatorUUID, true);
+        this.tallySnapshot = tally.snapshot();
+        this.lastSentCounts = tallySnapshot;
 
         LOGGER.debug("Vote started: eligible voters={}, votes needed={} (modifier={})",
                 totalEligibleVoters, totalVotesNeeded, modifier);
-
-        cleanupExpiredCooldowns();
     }
 
     /**
      * check if initiator is trying to spam votes against same target
      */
     public static boolean isTargetOnCooldown(UUID initiatorUUID, UUID targetUUID) {
-        String key = initiatorUUID.toString() + ":" + targetUUID.toString();
-        Long cooldownEnd = targetVoteCooldowns.get(key);
-
-        if (cooldownEnd != null && System.currentTimeMillis() < cooldownEnd) {
-            return true;
-        }
-
-        // cleanup if expired
-        if (cooldownEnd != null) {
-            targetVoteCooldowns.remove(key);
-        }
-
-        return false;
+        return VoteKickMod.getCooldowns().targetRemaining(initiatorUUID, targetUUID) > 0;
     }
 
     /**
      * get remaining cooldown for voting against specific target
      */
     public static int getRemainingTargetCooldown(UUID initiatorUUID, UUID targetUUID) {
-        String key = initiatorUUID.toString() + ":" + targetUUID.toString();
-        Long cooldownEnd = targetVoteCooldowns.get(key);
-
-        if (cooldownEnd != null) {
-            long remaining = cooldownEnd - System.currentTimeMillis();
-            return remaining > 0 ? (int)(remaining / 1000) : 0;
-        }
-
-        return 0;
+        return (int) (VoteKickMod.getCooldowns().targetRemaining(initiatorUUID, targetUUID) / 1000);
     }
 
     /**
      * start cooldown for voting against same target
      */
     private static void startTargetCooldown(UUID initiatorUUID, UUID targetUUID) {
-        String key = initiatorUUID.toString() + ":" + targetUUID.toString();
         long cooldownMs = VoteKickMod.getConfig().getTargetCooldownSeconds() * 1000L;
-        targetVoteCooldowns.put(key, System.currentTimeMillis() + cooldownMs);
+        VoteKickMod.getCooldowns().startTargetCooldown(initiatorUUID, targetUUID, cooldownMs);
     }
 
+    /**
+     * Takes the current counts and works out what clients need to hear. Called by
+     * {@link VoteEngine} whenever this session has something due, not every tick.
+     */
     public void tick() {
-        if (ticksRemaining > 0) {
-            ticksRemaining--;
+        tallySnapshot = tally.snapshot();
+        if (!tallySnapshot.equals(lastSentCounts)) {
+            dirtyFlags |= DIRTY_COUNTS;
         }
 
-        if (uiUpdateTick >= UI_UPDATE_INTERVAL) {
-            uiUpdateTick = 0;
-        } else {
-            uiUpdateTick++;
+        // resync on whole seconds so the value clients re-anchor to is exact
+        int remaining = getTicksRemaining();
+        if (remaining <= nextResyncAt) {
+            dirtyFlags |= DIRTY_TIMER;
+            nextResyncAt = previousResyncPoint(remaining);
         }
     }
 
     public boolean hasEnded() {
-        long startDelayTime = 1000;
-        if (System.currentTimeMillis() - startTime < startDelayTime) {
-            return ticksRemaining <= 0 || hasEnoughVotes();
+        int remaining = getTicksRemaining();
+        if (currentTick() - startTick < START_GRACE_TICKS) {
+            return remaining <= 0 || hasEnoughVotes();
+        }
+
+        return remaining <= 0 || hasEnoughVotes() || hasFailedVote();
+    }
+
+    /**
+     * Tick of the next thing this session has to do on its own: the grace period running out,
+     * a chat announcement, a timer resync, or the end of the vote. Votes being cast are handled
+     * separately through {@link VoteEngine#markDirty}.
+     */
+    long nextDeadline() {
+        long now = currentTick();
+        long next = endTick;
+
+        if (nextResyncAt >= 0) {
+            next = Math.min(next, endTick - nextResyncAt);
         }
+        if (nextAnnouncement < ANNOUNCEMENT_SECONDS.length) {
+            next = Math.min(next, endTick - (long) ANNOUNCEMENT_SECONDS[nextAnnouncement] * TICKS_PER_SECOND);
+        }
+        if (digestDueTick >= 0) {
+            next = Math.min(next, digestDueTick);
+        }
+        long graceEnd = startTick + START_GRACE_TICKS;
+        if (graceEnd > now) {
+            next = Math.min(next, graceEnd);
+        }
+
+        return Math.max(next, now + 1);
+    }
+
+    // largest resync point strictly below the given time left, -1 once the timer is done
+    private static int previousResyncPoint(int ticksRemaining) {
+        return ticksRemaining <= 0 ? -1 : (ticksRemaining - 1) / TIMER_RESYNC_INTERVAL * TIMER_RESYNC_INTERVAL;
+    }
 
-        return ticksRemaining <= 0 || hasEnoughVotes() || hasFailedVote();
+    private static long currentTick() {
+        return VoteKickMod.getClock().ticks();
     }
 
-    public void updateVoteUI(MinecraftServer server) {
-        if (server == null) return;
+    // monotonic, so wall clock changes can't stretch or cut a running vote
+    private static long nowMillis() {
+        return VoteKickMod.getClock().millis();
+    }
 
+    public void updateVoteUI() {
         // send initial UI only once
         if (!hasInitializedUI) {
             hasInitializedUI = true;
-            sendInitialVoteUI(server);
+            sendInitialVoteUI();
         }
 
-        processTimeAnnouncements(server);
+        if (digestDueTick >= 0 && currentTick() >= digestDueTick) {
+            flushVoteDigest();
+        }
+
+        processTimeAnnouncements();
 
-        if (uiUpdateTick == 0) {
-            updateVotePanels(server);
+        // any number of votes cast during this tick go out as a single update
+        if (dirtyFlags != 0) {
+            updateVotePanels();
         }
     }
 
@@ -171,112 +242,270 @@ public class VoteSession {
         return kickReason;
     }
 
-    private void sendInitialVoteUI(MinecraftServer server) {
-        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
-            String title = "Kick player: " + targetName + "?";
-            String subtitle = "Reason: " + kickReason;
-            boolean isTarget = player.getUUID().equals(targetUUID);
+    /**
+     * A player came online. Shows them the panel if they fall in this vote's scope.
+     */
+    public void onPlayerJoin(UUID playerUUID) {
+        if (audience.update(playerUUID) > 0) {
+            showPanel(Collections.singletonList(playerUUID));
+        }
+    }
+
+    public void onPlayerLeave(UUID playerUUID) {
+        audience.remove(playerUUID);
+    }
+
+    /**
+     * A player changed dimension or respawned. When it's the target, the whole audience moves
+     * with them; anyone else is just re-checked on their own.
+     */
+    public void onPlayerMoved(UUID playerUUID) {
+        if (!playerUUID.equals(targetUUID)) {
+            int change = audience.update(playerUUID);
+            if (change > 0) {
+                showPanel(Collections.singletonList(playerUUID));
+            } else if (change < 0) {
+                hidePanel(Collections.singletonList(playerUUID));
+            }
+            return;
+        }
+
+        List<UUID> added = new ArrayList<>();
+        List<UUID> removed = new ArrayList<>();
+        audience.rebuild(added, removed);
+        if (!added.isEmpty()) {
+            showPanel(added);
+        }
+        if (!removed.isEmpty()) {
+            hidePanel(removed);
+        }
+    }
+
+    // panels for players entering or leaving the audience mid-vote; before the first
+    // broadcast they just get picked up by it
+    private void showPanel(List<UUID> players) {
+        if (!hasInitializedUI || hasPlayedEndSound) {
+            return;
+        }
+        VoteTally.Snapshot counts = tallySnapshot;
+        ports.panels().show(showingTo(players), sessionId, panelTitle(), panelSubtitle(),
+                getSecondsRemaining(), counts.yesVotes(), counts.noVotes(), totalVotesNeeded, targetUUID);
+    }
+
+    private void hidePanel(List<UUID> players) {
+        if (!hasInitializedUI || hasPlayedEndSound) {
+            return;
+        }
+        sendHide(players);
+    }
 
-            VoteKickNetworking.sendShowVotePanel(
-                    player,
-                    title,
-                    subtitle,
-                    getSecondsRemaining(),
-                    getYesVotes(),
-                    getNoVotes(),
-                    totalVotesNeeded,
-                    isTarget
-            );
+    /**
+     * Shows a player this vote's panel if they're in it and it's still open.
+     *
+     * @return false if nothing was sent
+     */
+    boolean showPanelTo(UUID playerUUID) {
+        if (!hasInitializedUI || hasPlayedEndSound || !audience.contains(playerUUID)) {
+            return false;
         }
+        showPanel(Collections.singletonList(playerUUID));
+        return true;
     }
 
-    private void processTimeAnnouncements(MinecraftServer server) {
-        int secondsRemaining = getSecondsRemaining();
+    // clients with a single panel only get the packets of the vote the engine put on it
+    private Collection<UUID> showingTo(Collection<UUID> players) {
+        return engine == null ? players : engine.showTo(this, ports.panels(), players);
+    }
 
-        if (announcementTimes.contains(secondsRemaining)) {
-            announcementTimes.remove(secondsRemaining);
+    private Iterable<UUID> updatingTo(Collection<UUID> players) {
+        return engine == null ? players : engine.updateTo(this, ports.panels(), players);
+    }
 
-            Component announcement = Component.literal("Vote: " + secondsRemaining + " seconds remaining")
+    private void sendHide(Collection<UUID> players) {
+        if (engine == null) {
+            ports.panels().hide(players, sessionId);
+            return;
+        }
+        List<UUID> released = new ArrayList<>();
+        ports.panels().hide(engine.hideFrom(this, ports.panels(), players, released), sessionId);
+        engine.handOver(this, released);
+    }
+
+    private String panelTitle() {
+        return "Kick player: " + targetName + "?";
+    }
+
+    private String panelSubtitle() {
+        return "Reason: " + kickReason;
+    }
+
+    private void sendInitialVoteUI() {
+        String title = panelTitle();
+        String subtitle = panelSubtitle();
+        VoteTally.Snapshot counts = tallySnapshot;
+
+        ports.panels().show(
+                showingTo(audience.players()),
+                sessionId,
+                title,
+                subtitle,
+                getSecondsRemaining(),
+                counts.yesVotes(),
+                counts.noVotes(),
+                totalVotesNeeded,
+                targetUUID
+        );
+    }
+
+    private void processTimeAnnouncements() {
+        int remaining = getTicksRemaining();
+
+        // only the latest one that came due, a late wakeup shouldn't stack up warnings
+        int secondsRemaining = -1;
+        while (nextAnnouncement < ANNOUNCEMENT_SECONDS.length
+                && ANNOUNCEMENT_SECONDS[nextAnnouncement] * TICKS_PER_SECOND >= remaining) {
+            secondsRemaining = ANNOUNCEMENT_SECONDS[nextAnnouncement++];
+        }
+
+        if (secondsRemaining > 0) {
+            Component announcement = Component.literal("Vote to kick " + targetName + ": " +
+                            secondsRemaining + " seconds remaining")
                     .setStyle(Style.EMPTY.withColor(COLOR_WARNING));
-            server.getPlayerList().broadcastSystemMessage(announcement, false);
+            audience.broadcast(ports.messages(), announcement);
 
             // time warning sounds are now handled client-side
             // clients will play warning sounds based on their settings
         }
     }
 
-    private void updateVotePanels(MinecraftServer server) {
-        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
-            VoteKickNetworking.sendUpdateVotePanel(
-                    player,
-                    getSecondsRemaining(),
-                    getYesVotes(),
-                    getNoVotes()
-            );
-        }
+    private void updateVotePanels() {
+        VoteTally.Snapshot counts = tallySnapshot;
+        dirtyFlags = 0;
+        lastSentCounts = counts;
+
+        ports.panels().update(
+                updatingTo(audience.players()),
+                sessionId,
+                getSecondsRemaining(),
+                counts.yesVotes(),
+                counts.noVotes()
+        );
     }
 
-    public boolean castVote(ServerPlayer player, boolean inFavor) {
-        if (player == null || hasEnded()) {
+    public boolean castVote(UUID playerUUID, String playerName, boolean inFavor) {
+        if (playerUUID == null || hasEnded()) {
             return false;
         }
 
-        UUID playerUUID = player.getUUID();
-
-        if (playerVotes.containsKey(playerUUID) || playerUUID.equals(targetUUID)) {
+        if (playerUUID.equals(targetUUID) || !audience.contains(playerUUID)
+                || !tally.record(playerUUID, inFavor)) {
             return false;
         }
 
-        playerVotes.put(playerUUID, inFavor);
-
-        //? if >=1.21.9 {
-        /*MinecraftServer server = player.level().getServer();
-        *///?} else {
-        MinecraftServer server = player.getServer();
-        //?}
-        if (server != null) {
-            // vote sounds are now handled client-side when the vote is cast
-            // no server-side sounds needed here
+        // vote sounds are now handled client-side when the vote is cast
+        // no server-side sounds needed here
 
-            broadcastVote(server, player.getScoreboardName(), inFavor);
-            updateVotePanels(server);
+        // the panel update goes out with the next tick's snapshot
+        announceVote(playerName, inFavor);
+        if (engine != null) {
+            engine.markDirty(this);
         }
 
         return true;
     }
 
-    private void broadcastVote(MinecraftServer server, String playerName, boolean inFavor) {
+    private void announceVote(String playerName, boolean inFavor) {
+        if (!VoteKickMod.getConfig().isDigestVoteAnnouncements()) {
+            broadcastVote(playerName, inFavor);
+            return;
+        }
+
+        // the first vote opens the window, the engine wakes us when it closes
+        if (digestDueTick < 0) {
+            digestStartTick = currentTick();
+            digestDueTick = digestStartTick + (long) VoteKickMod.getConfig().getVoteDigestSeconds() * TICKS_PER_SECOND;
+        }
+        if (inFavor) {
+            digestYes++;
+        } else {
+            digestNo++;
+        }
+        digestLastVoter = playerName;
+        digestLastInFavor = inFavor;
+    }
+
+    private void flushVoteDigest() {
+        if (digestDueTick < 0) {
+            return;
+        }
+
+        int yes = digestYes;
+        int no = digestNo;
+        int seconds = (int) Math.max(1, (currentTick() - digestStartTick + TICKS_PER_SECOND - 1) / TICKS_PER_SECOND);
+        digestYes = 0;
+        digestNo = 0;
+        digestDueTick = -1;
+
+        // a lone vote reads better with the name on it
+        if (yes + no == 1) {
+            broadcastVote(digestLastVoter, digestLastInFavor);
+            return;
+        }
+
+        StringBuilder text = new StringBuilder();
+        if (yes > 0) {
+            text.append(yes).append(" voted YES");
+        }
+        if (no > 0) {
+            if (yes > 0) {
+                text.append(", ");
+            }
+            text.append(no).append(" voted NO");
+        }
+        text.append(" on kicking ").append(targetName).append(" in the last ").append(seconds).append('s');
+
+        Component message = Component.literal(text.toString())
+                .setStyle(Style.EMPTY.withColor(COLOR_INFO));
+        audience.broadcast(ports.messages(), message, VoteKickMod.getChatPreferences().quietPlayers());
+    }
+
+    private void broadcastVote(String playerName, boolean inFavor) {
         String voteText = inFavor ? "YES" : "NO";
-        Component message = Component.literal(playerName + " voted " + voteText)
+        Component message = Component.literal(playerName + " voted " + voteText + " on kicking " + targetName)
                 .setStyle(Style.EMPTY.withColor(inFavor ? COLOR_YES : COLOR_NO));
 
-        server.getPlayerList().broadcastSystemMessage(message, false);
+        audience.broadcast(ports.messages(), message, VoteKickMod.getChatPreferences().quietPlayers());
     }
 
-    public void processResults(MinecraftServer server) {
-        if (server == null || hasPlayedEndSound) {
+    public void processResults() {
+        if (hasPlayedEndSound) {
             return;
         }
 
         VoteOutcome outcome = hasEnoughVotes() ? VoteOutcome.PASSED : VoteOutcome.FAILED;
-        endVote(server, outcome, null, null, true);
+        endVote(outcome, null, null, true);
     }
 
-    public void endVote(MinecraftServer server, VoteOutcome outcome, String endedBy, String overrideMessage, boolean applyCooldowns) {
-        if (server == null || hasPlayedEndSound) {
+    public void endVote(VoteOutcome outcome, String endedBy, String overrideMessage, boolean applyCooldowns) {
+        if (hasPlayedEndSound) {
             return;
         }
 
         hasPlayedEndSound = true;
 
+        // admin actions can land between ticks, so take the final counts now
+        tallySnapshot = tally.snapshot();
+        // votes still waiting for a digest go out before the result
+        flushVoteDigest();
+
         // result sounds are handled client-side when the panel is hidden
         // no need for server-side sounds
-        VoteKickNetworking.broadcastHideVotePanel(server.getPlayerList().getPlayers());
+        sendHide(audience.players());
 
-        broadcastResult(server, outcome, endedBy, overrideMessage);
+        broadcastResult(outcome, endedBy, overrideMessage);
 
         if (outcome.shouldKick() && !kickScheduled) {
-            scheduleKick(server);
+            scheduleKick();
         }
 
         VoteKickMod.getHistoryManager().recordSession(this, outcome, endedBy);
@@ -288,7 +517,7 @@ public class VoteSession {
         }
     }
 
-    private void broadcastResult(MinecraftServer server, VoteOutcome outcome, String endedBy, String overrideMessage) {
+    private void broadcastResult(VoteOutcome outcome, String endedBy, String overrideMessage) {
         String resultText;
         if (overrideMessage != null && !overrideMessage.isEmpty()) {
             resultText = overrideMessage;
@@ -306,7 +535,7 @@ public class VoteSession {
         Component resultMessage = Component.literal(resultText)
                 .setStyle(Style.EMPTY.withColor(outcome.shouldKick() ? COLOR_YES : COLOR_NO));
 
-        server.getPlayerList().broadcastSystemMessage(resultMessage, false);
+        audience.broadcast(ports.messages(), resultMessage);
     }
 
     private String formatActor(String endedBy) {
@@ -316,33 +545,28 @@ public class VoteSession {
         return endedBy;
     }
 
-    private void scheduleKick(MinecraftServer server) {
+    private void scheduleKick() {
         kickScheduled = true;
 
-        new Timer().schedule(new TimerTask() {
-            @Override
-            public void run() {
-                kickPlayer(server);
-            }
-        }, KICK_DELAY_MS);
+        // a vote that passed right before a stop still has to record its kick
+        VoteKickMod.getScheduler().scheduleEssential(KICK_DELAY_TICKS, this::kickPlayer);
     }
 
-    private void kickPlayer(MinecraftServer server) {
+    private void kickPlayer() {
         try {
-            ServerPlayer target = server.getPlayerList().getPlayer(targetUUID);
-            if (target != null) {
+            if (ports.players().isOnline(targetUUID)) {
                 // record the kick for protection system
                 VoteKickMod.getProtectionManager().recordKick(targetUUID, kickReason);
 
                 Component kickMessage = Component.literal("You were voted off\nReason: " + kickReason)
                         .setStyle(Style.EMPTY.withColor(COLOR_NO));
 
-                target.connection.disconnect(kickMessage);
+                ports.kicks().kick(targetUUID, kickMessage);
 
                 Component broadcastMessage = Component.literal(targetName +
                                 " has been removed from the game (Reason: " + kickReason + ")")
                         .setStyle(Style.EMPTY.withColor(COLOR_WARNING));
-                server.getPlayerList().broadcastSystemMessage(broadcastMessage, false);
+                audience.broadcast(ports.messages(), broadcastMessage);
             }
         } catch (Exception e) {
             LOGGER.error("Error kicking player: {}", e.getMessage());
@@ -350,12 +574,12 @@ public class VoteSession {
     }
 
     private boolean hasEnoughVotes() {
-        return getYesVotes() >= totalVotesNeeded;
+        return tallySnapshot.yesVotes() >= totalVotesNeeded;
     }
 
     private boolean hasFailedVote() {
-        int yesVotes = getYesVotes();
-        int noVotes = getNoVotes();
+        int yesVotes = tallySnapshot.yesVotes();
+        int noVotes = tallySnapshot.noVotes();
         int remainingVoters = totalEligibleVoters - yesVotes - noVotes;
 
         boolean failed = yesVotes + remainingVoters < totalVotesNeeded;
@@ -380,56 +604,26 @@ public class VoteSession {
             return;
         }
 
-        long cooldownEndTime = System.currentTimeMillis() + (cooldownSeconds * 1000L);
-        playersOnCooldown.put(playerUUID, cooldownEndTime);
+        VoteKickMod.getCooldowns().startInitiatorCooldown(playerUUID, cooldownSeconds * 1000L);
 
         LOGGER.debug("Player {} put on cooldown for {} seconds", playerUUID, cooldownSeconds);
     }
 
     public static boolean isOnCooldown(UUID playerUUID) {
-        if (playerUUID == null) return false;
-
-        if (Math.random() < 0.1) {
-            cleanupExpiredCooldowns();
-        }
-
-        Long cooldownEnd = playersOnCooldown.get(playerUUID);
-        if (cooldownEnd != null) {
-            boolean onCooldown = System.currentTimeMillis() < cooldownEnd;
-
-            if (!onCooldown) {
-                playersOnCooldown.remove(playerUUID);
-            }
-
-            return onCooldown;
-        }
-
-        return false;
+        return playerUUID != null && VoteKickMod.getCooldowns().initiatorRemaining(playerUUID) > 0;
     }
 
     public static int getRemainingCooldown(UUID playerUUID) {
         if (playerUUID == null) return 0;
 
-        Long cooldownEnd = playersOnCooldown.get(playerUUID);
-        if (cooldownEnd != null) {
-            long remainingMillis = cooldownEnd - System.currentTimeMillis();
-            if (remainingMillis > 0) {
-                return (int)(remainingMillis / 1000);
-            } else {
-                playersOnCooldown.remove(playerUUID);
-            }
-        }
-
-        return 0;
+        return (int) (VoteKickMod.getCooldowns().initiatorRemaining(playerUUID) / 1000);
     }
 
-    private static void cleanupExpiredCooldowns() {
-        long now = System.currentTimeMillis();
-        playersOnCooldown.entrySet().removeIf(entry -> entry.getValue() <= now);
-        targetVoteCooldowns.entrySet().removeIf(entry -> entry.getValue() <= now);
+    // getters
+    public int getSessionId() {
+        return sessionId;
     }
 
-    // getters
     public UUID getInitiatorUUID() {
         return initiatorUUID;
     }
@@ -447,15 +641,19 @@ public class VoteSession {
     }
 
     public int getYesVotes() {
-        return (int) playerVotes.values().stream().filter(Boolean::booleanValue).count();
+        return tallySnapshot.yesVotes();
     }
 
     public int getNoVotes() {
-        return (int) playerVotes.values().stream().filter(vote -> !vote).count();
+        return tallySnapshot.noVotes();
     }
 
     public int getTotalVotes() {
-        return playerVotes.size();
+        return tallySnapshot.totalVotes();
+    }
+
+    public VoteTally.Snapshot getTallySnapshot() {
+        return tallySnapshot;
     }
 
     public int getTotalVotesNeeded() {
@@ -466,22 +664,33 @@ public class VoteSession {
         return totalEligibleVoters;
     }
 
+    public VoteAudience getAudience() {
+        return audience;
+    }
+
+    public VotePorts getPorts() {
+        return ports;
+    }
+
     public int getSecondsRemaining() {
-        return Math.max(0, ticksRemaining / TICKS_PER_SECOND);
+        return getTicksRemaining() / TICKS_PER_SECOND;
     }
 
-    public long getVoteAgeMillis() {
-        return System.currentTimeMillis() - startTime;
+    public int getTicksRemaining() {
+        return (int) Math.max(0, endTick - currentTick());
     }
 
-    public Map<UUID, Boolean> getPlayerVotes() {
-        return Collections.unmodifiableMap(playerVotes);
+    public long getVoteAgeMillis() {
+        return nowMillis() - startMillis;
     }
 
     public boolean hasPlayerVoted(UUID playerUUID) {
-        return playerVotes.containsKey(playerUUID);
+        return tally.hasVoted(playerUUID);
     }
 
+    /**
+     * Wall clock time the vote started, for history.
+     */
     public long getStartTime() {
         return startTime;
     }
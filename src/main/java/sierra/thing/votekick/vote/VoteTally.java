@@ -0,0 +1,59 @@
+package sierra.thing.votekick.vote;
+
+import sierra.thing.votekick.util.UuidLongSet;
+
+import java.util.UUID;
+
+/**
+ * Running yes/no counters for one vote session.
+ * Counters are bumped when a vote is recorded, so reads never walk the voter list.
+ */
+public final class VoteTally {
+    private final UuidLongSet voters;
+    private int yesVotes;
+    private int noVotes;
+    private Snapshot lastSnapshot = Snapshot.EMPTY;
+
+    public VoteTally(int expectedVoters) {
+        this.voters = new UuidLongSet(expectedVoters);
+    }
+
+    /**
+     * @return false if this player already voted
+     */
+    public boolean record(UUID voter, boolean inFavor) {
+        if (voter == null || !voters.add(voter)) {
+            return false;
+        }
+
+        if (inFavor) {
+            yesVotes++;
+        } else {
+            noVotes++;
+        }
+        return true;
+    }
+
+    public boolean hasVoted(UUID voter) {
+        return voters.contains(voter);
+    }
+
+    /**
+     * Immutable view of the counters. Reuses the previous instance when nothing changed,
+     * so taking one every tick doesn't allocate during quiet periods.
+     */
+    public Snapshot snapshot() {
+        if (lastSnapshot.yesVotes != yesVotes || lastSnapshot.noVotes != noVotes) {
+            lastSnapshot = new Snapshot(yesVotes, noVotes);
+        }
+        return lastSnapshot;
+    }
+
+    public record Snapshot(int yesVotes, int noVotes) {
+        public static final Snapshot EMPTY = new Snapshot(0, 0);
+
+        public int totalVotes() {
+            return yesVotes + noVotes;
+        }
+    }
+}
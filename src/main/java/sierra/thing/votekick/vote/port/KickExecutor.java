@@ -0,0 +1,15 @@
+package sierra.thing.votekick.vote.port;
+
+import net.minecraft.network.chat.Component;
+
+import java.util.UUID;
+
+/**
+ * Removes a player once a vote against them passed.
+ */
+public interface KickExecutor {
+    /**
+     * @return false if they weren't online anymore
+     */
+    boolean kick(UUID player, Component reason);
+}
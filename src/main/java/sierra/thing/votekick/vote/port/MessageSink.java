@@ -0,0 +1,20 @@
+package sierra.thing.votekick.vote.port;
+
+import net.minecraft.network.chat.Component;
+
+import java.util.UUID;
+
+/**
+ * Chat messages about votes.
+ */
+public interface MessageSink {
+    /**
+     * To everyone online, and the server log.
+     */
+    void broadcast(Component message);
+
+    /**
+     * To just these players, and the server log. Players who went offline are skipped.
+     */
+    void send(Iterable<UUID> players, Component message);
+}
@@ -0,0 +1,144 @@
+package sierra.thing.votekick.vote.port;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import sierra.thing.votekick.network.VoteKickNetworking;
+import sierra.thing.votekick.network.WireFormat;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * The ports backed by a running server. Players are looked up by UUID in the player list's map
+ * as they're needed, so nothing here holds on to player entities across respawns.
+ */
+public final class MinecraftVotePorts implements PlayerDirectory, MessageSink, PanelSink, KickExecutor {
+    private final MinecraftServer server;
+    private final Collection<UUID> online = new OnlineView();
+
+    private MinecraftVotePorts(MinecraftServer server) {
+        this.server = server;
+    }
+
+    public static VotePorts create(MinecraftServer server) {
+        MinecraftVotePorts ports = new MinecraftVotePorts(server);
+        return new VotePorts(ports, ports, ports, ports);
+    }
+
+    @Override
+    public Collection<UUID> online() {
+        return online;
+    }
+
+    @Override
+    public boolean isOnline(UUID player) {
+        return player != null && server.getPlayerList().getPlayer(player) != null;
+    }
+
+    @Override
+    public Object dimensionOf(UUID player) {
+        ServerPlayer entity = player == null ? null : server.getPlayerList().getPlayer(player);
+        return entity == null ? null : entity.level().dimension();
+    }
+
+    @Override
+    public double distanceSq(UUID a, UUID b) {
+        ServerPlayer first = a == null ? null : server.getPlayerList().getPlayer(a);
+        ServerPlayer second = b == null ? null : server.getPlayerList().getPlayer(b);
+        if (first == null || second == null || first.level() != second.level()) {
+            return Double.NaN;
+        }
+        return first.distanceToSqr(second);
+    }
+
+    @Override
+    public void broadcast(Component message) {
+        server.getPlayerList().broadcastSystemMessage(message, false);
+    }
+
+    @Override
+    public void send(Iterable<UUID> players, Component message) {
+        server.sendSystemMessage(message);
+        for (UUID uuid : players) {
+            ServerPlayer player = server.getPlayerList().getPlayer(uuid);
+            if (player != null) {
+                player.sendSystemMessage(message);
+            }
+        }
+    }
+
+    @Override
+    public void show(Iterable<UUID> players, int sessionId, String title, String subtitle, int time,
+                     int yes, int no, int needed, UUID targetUUID) {
+        VoteKickNetworking.broadcastShowVotePanel(entities(players), sessionId, title, subtitle,
+                time, yes, no, needed, targetUUID);
+    }
+
+    @Override
+    public void update(Iterable<UUID> players, int sessionId, int time, int yes, int no) {
+        VoteKickNetworking.broadcastUpdateVotePanel(entities(players), sessionId, time, yes, no);
+    }
+
+    @Override
+    public void hide(Iterable<UUID> players, int sessionId) {
+        VoteKickNetworking.broadcastHideVotePanel(entities(players), sessionId);
+    }
+
+    @Override
+    public boolean showsOnePanel(UUID player) {
+        return isOnline(player) && WireFormat.forPlayer(player) == WireFormat.LEGACY;
+    }
+
+    @Override
+    public boolean kick(UUID player, Component reason) {
+        ServerPlayer entity = player == null ? null : server.getPlayerList().getPlayer(player);
+        if (entity == null) {
+            return false;
+        }
+        entity.connection.disconnect(reason);
+        return true;
+    }
+
+    // resolved while the networking code walks it; offline players come out as null, which it skips
+    private Iterable<ServerPlayer> entities(Iterable<UUID> players) {
+        return () -> new Iterator<>() {
+            private final Iterator<UUID> uuids = players.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return uuids.hasNext();
+            }
+
+            @Override
+            public ServerPlayer next() {
+                return server.getPlayerList().getPlayer(uuids.next());
+            }
+        };
+    }
+
+    private final class OnlineView extends AbstractCollection<UUID> {
+        @Override
+        public Iterator<UUID> iterator() {
+            Iterator<ServerPlayer> players = server.getPlayerList().getPlayers().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return players.hasNext();
+                }
+
+                @Override
+                public UUID next() {
+                    return players.next().getUUID();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return server.getPlayerList().getPlayerCount();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package sierra.thing.votekick.vote.port;
+
+import java.util.UUID;
+
+/**
+ * The vote panel on players' HUDs. Players who went offline are skipped.
+ */
+public interface PanelSink {
+    /**
+     * Opens the panel. The target gets the "you're being voted on" variant.
+     */
+    void show(Iterable<UUID> players, int sessionId, String title, String subtitle, int time,
+              int yes, int no, int needed, UUID targetUUID);
+
+    void update(Iterable<UUID> players, int sessionId, int time, int yes, int no);
+
+    void hide(Iterable<UUID> players, int sessionId);
+
+    /**
+     * Whether the player's client has a single panel and can't tell votes apart. The engine only
+     * sends such a player one vote's panel at a time.
+     */
+    default boolean showsOnePanel(UUID player) {
+        return false;
+    }
+}
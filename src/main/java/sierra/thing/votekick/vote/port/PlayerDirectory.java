@@ -0,0 +1,27 @@
+package sierra.thing.votekick.vote.port;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Who is online and where they are, as far as votes care. Players are only ever referred to by UUID.
+ */
+public interface PlayerDirectory {
+    /**
+     * Everyone online right now. May be a live view, so don't keep it around.
+     */
+    Collection<UUID> online();
+
+    boolean isOnline(UUID player);
+
+    /**
+     * The player's dimension, compared with {@code equals}. Null if they're offline.
+     */
+    Object dimensionOf(UUID player);
+
+    /**
+     * Squared block distance between two players in the same dimension, NaN otherwise
+     * (including when either is offline).
+     */
+    double distanceSq(UUID a, UUID b);
+}
@@ -0,0 +1,8 @@
+package sierra.thing.votekick.vote.port;
+
+/**
+ * Everything a vote needs from the server it runs on. {@link MinecraftVotePorts} backs these with
+ * a running server; anything else (a simulator, a test) can supply its own.
+ */
+public record VotePorts(PlayerDirectory players, MessageSink messages, PanelSink panels, KickExecutor kicks) {
+}